@@ -0,0 +1,107 @@
+package com.algobrewery.auth.policy;
+
+import com.algobrewery.auth.repository.RolePolicyView;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Permission evaluation as done by {@code PermissionServiceImpl.hasPermission}: resolve the
+ * role's compiled policy from the registry, then test the action and resource.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PermissionEvaluationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int resources;
+
+    private CompiledPolicyRegistry registry;
+    private RolePolicyView exactRole;
+    private RolePolicyView wildcardRole;
+    private String lastResource;
+
+    @Setup
+    public void setUp() {
+        registry = new CompiledPolicyRegistry(new PermissionDictionary());
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        ObjectNode exact = objectMapper.createObjectNode();
+        ArrayNode viewed = exact.putObject("data").putArray("view");
+        for (int i = 0; i < resources; i++) {
+            viewed.add("resource_" + i);
+        }
+        exact.putObject("features").putArray("execute").add("generate_reports");
+        exactRole = view("Exact", exact);
+        lastResource = "resource_" + (resources - 1);
+
+        ObjectNode wildcard = objectMapper.createObjectNode();
+        wildcard.putObject("data").putArray("view").add("resource_*").add("task:project/*");
+        wildcardRole = view("Wildcard", wildcard);
+    }
+
+    @Benchmark
+    public boolean grantedExact() {
+        return registry.policyFor(exactRole).allows("view", lastResource);
+    }
+
+    @Benchmark
+    public boolean deniedUnknownResource() {
+        return registry.policyFor(exactRole).allows("view", "unknown_resource");
+    }
+
+    @Benchmark
+    public boolean deniedUnknownAction() {
+        return registry.policyFor(exactRole).allows("delete", lastResource);
+    }
+
+    @Benchmark
+    public boolean grantedWildcard() {
+        return registry.policyFor(wildcardRole).allows("view", lastResource);
+    }
+
+    private static RolePolicyView view(String roleName, JsonNode policy) {
+        UUID roleUuid = UUID.randomUUID();
+        Instant createdAt = Instant.now();
+        return new RolePolicyView() {
+            @Override
+            public UUID getRoleUuid() {
+                return roleUuid;
+            }
+
+            @Override
+            public String getRoleName() {
+                return roleName;
+            }
+
+            @Override
+            public JsonNode getPolicy() {
+                return policy;
+            }
+
+            @Override
+            public Instant getCreatedAt() {
+                return createdAt;
+            }
+
+            @Override
+            public Instant getUpdatedAt() {
+                return null;
+            }
+        };
+    }
+}
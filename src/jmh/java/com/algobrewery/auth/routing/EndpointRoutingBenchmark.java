@@ -0,0 +1,50 @@
+package com.algobrewery.auth.routing;
+
+import com.algobrewery.auth.model.EndpointMappingRule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Endpoint to action/resource mapping with the default routes from {@code endpoint-mappings.yml}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EndpointRoutingBenchmark {
+
+    @Param({
+        "GET /tasks",
+        "PATCH /tasks/123",
+        "GET /users/42/profile/settings",
+        "DELETE /comment/9?force=true",
+        "GET /unknown/path"
+    })
+    private String endpoint;
+
+    private EndpointRouter router;
+
+    @Setup
+    public void setUp() throws IOException {
+        EndpointRouter.Builder builder = EndpointRouter.builder();
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("endpoint-mappings.yml")) {
+            EndpointMappingRegistry.parse(in).forEach(rule ->
+                builder.route(rule.getHttpMethods(), rule.getPathPattern(), rule.getAction(), rule.getResource()));
+        }
+        router = builder.build();
+    }
+
+    @Benchmark
+    public EndpointMapping route() {
+        return router.route(endpoint);
+    }
+}
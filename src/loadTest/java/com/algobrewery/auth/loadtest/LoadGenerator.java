@@ -0,0 +1,126 @@
+package com.algobrewery.auth.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Open-model load generator: requests are started on a fixed schedule at the target rate,
+ * whether or not earlier requests have completed.
+ * <p>
+ * Latency is measured from the time a request was scheduled to start rather than from when it
+ * was actually sent, so queueing caused by a saturated service shows up in the percentiles
+ * instead of silently lowering the offered load (coordinated omission).
+ */
+class LoadGenerator {
+
+    /**
+     * Outcome of one request: the operation performed and whether it succeeded.
+     */
+    record Sample(String operation, boolean success) {
+    }
+
+    private final int rps;
+    private final int maxInFlight;
+    private final Random random;
+
+    private final Map<String, Recorder> recorders = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final LongAccumulator lastCompletion = new LongAccumulator(Math::max, 0);
+
+    LoadGenerator(int rps, int maxInFlight, long seed) {
+        this.rps = rps;
+        this.maxInFlight = maxInFlight;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Drive the weighted scenarios for the warmup period, which is not recorded, then for the
+     * measured duration, and wait for outstanding requests to complete.
+     */
+    LoadResult run(Map<String, Integer> weights, Map<String, Supplier<CompletableFuture<Sample>>> scenarios,
+                   Duration warmup, Duration duration) {
+        List<String> schedule = weightedSchedule(weights, scenarios);
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long interval = 1_000_000_000L / rps;
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        for (long i = 0; ; i++) {
+            long intendedStart = start + i * interval;
+            if (intendedStart >= end) {
+                break;
+            }
+            waitUntil(intendedStart);
+            inFlight.acquireUninterruptibly();
+            String scenario = schedule.get(random.nextInt(schedule.size()));
+            boolean measured = intendedStart >= measureFrom;
+            CompletableFuture<Sample> request;
+            try {
+                request = scenarios.get(scenario).get();
+            } catch (RuntimeException e) {
+                request = CompletableFuture.failedFuture(e);
+            }
+            request.whenComplete((sample, error) -> {
+                long completed = System.nanoTime();
+                inFlight.release();
+                if (measured) {
+                    record(sample != null ? sample : new Sample(scenario, false), completed - intendedStart);
+                    lastCompletion.accumulate(completed);
+                }
+            });
+        }
+        inFlight.acquireUninterruptibly(maxInFlight);
+
+        long elapsed = Math.max(lastCompletion.get(), end) - measureFrom;
+        Map<String, Histogram> histograms = new TreeMap<>();
+        recorders.forEach((operation, recorder) -> histograms.put(operation, recorder.getIntervalHistogram()));
+        Map<String, Long> errorCounts = new TreeMap<>();
+        errors.forEach((operation, count) -> errorCounts.put(operation, count.sum()));
+        return new LoadResult(rps, Duration.ofNanos(elapsed), histograms, errorCounts);
+    }
+
+    private void record(Sample sample, long latencyNanos) {
+        if (sample.success()) {
+            recorders.computeIfAbsent(sample.operation(), operation -> new Recorder(3)).recordValue(latencyNanos);
+        } else {
+            errors.computeIfAbsent(sample.operation(), operation -> new LongAdder()).increment();
+        }
+    }
+
+    private static List<String> weightedSchedule(Map<String, Integer> weights,
+                                                 Map<String, Supplier<CompletableFuture<Sample>>> scenarios) {
+        List<String> schedule = new ArrayList<>();
+        weights.forEach((scenario, weight) -> {
+            if (!scenarios.containsKey(scenario)) {
+                throw new IllegalArgumentException("Unknown scenario '" + scenario + "', expected one of "
+                    + scenarios.keySet());
+            }
+            for (int i = 0; i < weight; i++) {
+                schedule.add(scenario);
+            }
+        });
+        return schedule;
+    }
+
+    private static void waitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
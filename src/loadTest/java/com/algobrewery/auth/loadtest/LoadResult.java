@@ -0,0 +1,88 @@
+package com.algobrewery.auth.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Latency histograms (in nanoseconds) and error counts per operation for the measured period.
+ */
+class LoadResult {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final int targetRps;
+    private final Duration elapsed;
+    private final Map<String, Histogram> histograms;
+    private final Map<String, Long> errors;
+
+    LoadResult(int targetRps, Duration elapsed, Map<String, Histogram> histograms, Map<String, Long> errors) {
+        this.targetRps = targetRps;
+        this.elapsed = elapsed;
+        this.histograms = histograms;
+        this.errors = errors;
+    }
+
+    long totalRequests() {
+        return histograms.values().stream().mapToLong(Histogram::getTotalCount).sum()
+            + errors.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    long totalErrors() {
+        return errors.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    double throughput() {
+        return totalRequests() / seconds();
+    }
+
+    /**
+     * Table of throughput and latency percentiles in milliseconds, one row per operation.
+     */
+    String summary() {
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format("%-18s %9s %8s %9s %9s %9s %9s %9s %9s%n",
+            "operation", "ok", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        TreeSet<String> operations = new TreeSet<>(histograms.keySet());
+        operations.addAll(errors.keySet());
+        for (String operation : operations) {
+            Histogram histogram = histograms.getOrDefault(operation, new Histogram(3));
+            long failed = errors.getOrDefault(operation, 0L);
+            summary.append(String.format("%-18s %9d %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", operation,
+                histogram.getTotalCount(), failed, (histogram.getTotalCount() + failed) / seconds(),
+                millis(histogram, 50.0), millis(histogram, 90.0), millis(histogram, 99.0), millis(histogram, 99.9),
+                histogram.getMaxValue() / NANOS_PER_MILLI));
+        }
+        summary.append(String.format("total: %d requests, %d errors, %.1f req/s achieved of %d req/s target over %.1f s%n",
+            totalRequests(), totalErrors(), throughput(), targetRps, seconds()));
+        return summary.toString();
+    }
+
+    /**
+     * Write the summary and one HdrHistogram percentile distribution per operation (.hgrm, in
+     * milliseconds) so runs of different builds can be compared or plotted.
+     */
+    void write(Path directory, String header) throws IOException {
+        Files.createDirectories(directory);
+        Files.writeString(directory.resolve("summary.txt"), header + System.lineSeparator() + summary());
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(entry.getKey() + ".hgrm")))) {
+                entry.getValue().outputPercentileDistribution(out, NANOS_PER_MILLI);
+            }
+        }
+    }
+
+    private double seconds() {
+        return elapsed.toNanos() / 1_000_000_000.0;
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / NANOS_PER_MILLI;
+    }
+}
@@ -0,0 +1,86 @@
+package com.algobrewery.auth.loadtest;
+
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Load-test parameters, read from {@code loadtest.*} system properties (passed through from
+ * {@code -Ploadtest.*} by the Gradle task).
+ */
+@Getter
+class LoadTestSettings {
+
+    private final int organizations;
+    private final int usersPerOrganization;
+    private final int rolesPerOrganization;
+    private final int rolesPerUser;
+    private final int policySize;
+    private final int rps;
+    private final int maxInFlight;
+    private final Duration warmup;
+    private final Duration duration;
+    private final Map<String, Integer> mix;
+    private final long seed;
+    private final Path reportDir;
+
+    private LoadTestSettings() {
+        organizations = intProperty("organizations", 20);
+        usersPerOrganization = intProperty("users-per-organization", 500);
+        rolesPerOrganization = intProperty("roles-per-organization", 10);
+        rolesPerUser = Math.min(intProperty("roles-per-user", 2), rolesPerOrganization);
+        policySize = intProperty("policy-size", 50);
+        rps = intProperty("rps", 200);
+        maxInFlight = intProperty("max-in-flight", 256);
+        warmup = Duration.ofSeconds(intProperty("warmup-seconds", 10));
+        duration = Duration.ofSeconds(intProperty("duration-seconds", 30));
+        mix = parseMix(System.getProperty("loadtest.mix", "permission-check:70,endpoint-check:25,role-crud:5"));
+        seed = Long.getLong("loadtest.seed", 42L);
+        reportDir = Path.of(System.getProperty("loadtest.report-dir", "build/reports/load-test"));
+    }
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings();
+    }
+
+    @Override
+    public String toString() {
+        return "organizations=" + organizations + ", users/org=" + usersPerOrganization
+            + ", roles/org=" + rolesPerOrganization + ", roles/user=" + rolesPerUser
+            + ", policy size=" + policySize + ", rps=" + rps + ", max in flight=" + maxInFlight
+            + ", warmup=" + warmup.getSeconds() + "s, duration=" + duration.getSeconds() + "s, mix=" + mix
+            + ", seed=" + seed;
+    }
+
+    private static int intProperty(String name, int defaultValue) {
+        int value = Integer.getInteger("loadtest." + name, defaultValue);
+        if (value < 0 || (value == 0 && !name.equals("warmup-seconds"))) {
+            throw new IllegalArgumentException("loadtest." + name + " must be positive: " + value);
+        }
+        return value;
+    }
+
+    /**
+     * Parse a scenario mix of the form {@code name:weight,name:weight}.
+     */
+    static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid loadtest.mix entry: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                mix.put(parts[0].trim(), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix selects no scenario: " + value);
+        }
+        return mix;
+    }
+}
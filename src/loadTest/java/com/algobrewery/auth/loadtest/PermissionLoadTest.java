@@ -0,0 +1,211 @@
+package com.algobrewery.auth.loadtest;
+
+import com.algobrewery.auth.loadtest.LoadGenerator.Sample;
+import com.algobrewery.auth.loadtest.PopulationSeeder.Population;
+import com.algobrewery.auth.util.HeaderValidationUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end load test: boots the full service against a Postgres container, seeds a synthetic
+ * population and drives permission checks, endpoint checks and role CRUD at a target rate.
+ * <p>
+ * Run with {@code ./gradlew loadTest}; see {@link LoadTestSettings} for the {@code -Ploadtest.*}
+ * parameters. Results are printed and written to {@code build/reports/load-test}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("Permission Service Load Test")
+class PermissionLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PermissionLoadTest.class);
+
+    private static final String[] ENDPOINTS = {
+        "GET /tasks/%d", "PATCH /tasks/%d", "GET /clients/%d", "DELETE /comment/%d", "GET /organization/%d",
+        "GET /users/%d/profile"
+    };
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+
+    private final Queue<CreatedRole> createdRoles = new ConcurrentLinkedQueue<>();
+    private final AtomicLong roleOperations = new AtomicLong();
+
+    private LoadTestSettings settings;
+    private PopulationSeeder seeder;
+    private Population population;
+
+    @Test
+    @DisplayName("Should sustain the configured mix of permission checks and role CRUD")
+    void testPermissionServiceUnderLoad() throws IOException {
+        // Given
+        settings = LoadTestSettings.fromSystemProperties();
+        logger.info("Load test settings: {}", settings);
+        seeder = new PopulationSeeder(jdbcTemplate, objectMapper, settings.getSeed());
+        population = seeder.seed(settings);
+        Map<String, Supplier<CompletableFuture<Sample>>> scenarios = Map.of(
+            "permission-check", this::permissionCheck,
+            "endpoint-check", this::endpointCheck,
+            "role-crud", this::roleCrud);
+
+        // When
+        LoadResult result = new LoadGenerator(settings.getRps(), settings.getMaxInFlight(), settings.getSeed())
+            .run(settings.getMix(), scenarios, settings.getWarmup(), settings.getDuration());
+
+        // Then
+        String summary = result.summary();
+        logger.info("Load test results ({}):{}{}", settings, System.lineSeparator(), summary);
+        result.write(settings.getReportDir(), settings.toString());
+        assertThat(result.totalRequests()).isPositive();
+    }
+
+    private CompletableFuture<Sample> permissionCheck() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Population.Organization organization = population.randomOrganization(random);
+        String action = PopulationSeeder.ACTIONS.get(random.nextInt(PopulationSeeder.ACTIONS.size()));
+        return send("permission-check", post("/permission/check", organization, random,
+            Map.of("action", action, "resource", population.randomResource(random))), 200);
+    }
+
+    private CompletableFuture<Sample> endpointCheck() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Population.Organization organization = population.randomOrganization(random);
+        String endpoint = String.format(ENDPOINTS[random.nextInt(ENDPOINTS.length)], random.nextInt(10_000));
+        return send("endpoint-check", post("/check-permission", organization, random,
+            Map.of("endpoint", endpoint)), 200);
+    }
+
+    /**
+     * Cycle through create, update and delete so the number of roles stays roughly constant.
+     */
+    private CompletableFuture<Sample> roleCrud() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long operation = roleOperations.getAndIncrement() % 3;
+        CreatedRole existing = operation == 0 ? null
+            : operation == 1 ? createdRoles.peek() : createdRoles.poll();
+        if (existing == null) {
+            Population.Organization organization = population.randomOrganization(random);
+            return httpClient.sendAsync(post("/role", organization, random, roleBody(random)),
+                    HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> {
+                    if (response.statusCode() != 201) {
+                        return new Sample("role-create", false);
+                    }
+                    createdRoles.add(new CreatedRole(readRoleUuid(response.body()), organization));
+                    return new Sample("role-create", true);
+                });
+        }
+        if (operation == 1) {
+            HttpRequest update = request("/role/" + existing.roleUuid(), existing.organization(), random)
+                .PUT(body(roleBody(random)))
+                .build();
+            return send("role-update", update, 200);
+        }
+        HttpRequest delete = request("/role/" + existing.roleUuid(), existing.organization(), random)
+            .DELETE()
+            .build();
+        return send("role-delete", delete, 204);
+    }
+
+    private Map<String, Object> roleBody(ThreadLocalRandom random) {
+        try {
+            return Map.of(
+                "role_name", "Load Test Role " + random.nextLong(Long.MAX_VALUE),
+                "description", "Created by the load test",
+                "role_management_type", "CUSTOMER_MANAGED",
+                "policy", objectMapper.readTree(seeder.policy(population.resources(), settings.getPolicySize())));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private CompletableFuture<Sample> send(String operation, HttpRequest request, int expectedStatus) {
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+            .thenApply(response -> new Sample(operation, response.statusCode() == expectedStatus));
+    }
+
+    private HttpRequest post(String path, Population.Organization organization, ThreadLocalRandom random,
+                             Map<String, ?> body) {
+        return request(path, organization, random).POST(body(body)).build();
+    }
+
+    private HttpRequest.Builder request(String path, Population.Organization organization, ThreadLocalRandom random) {
+        String userUuid = organization.userUuids().get(random.nextInt(organization.userUuids().size()));
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+            .timeout(Duration.ofSeconds(30))
+            .header("Content-Type", "application/json")
+            .header(HeaderValidationUtil.APP_USER_UUID_HEADER, userUuid)
+            .header(HeaderValidationUtil.APP_ORG_UUID_HEADER, organization.organizationUuid());
+    }
+
+    private HttpRequest.BodyPublisher body(Map<String, ?> body) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String readRoleUuid(byte[] body) {
+        try {
+            return objectMapper.readTree(body).path("role_uuid").asText();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record CreatedRole(String roleUuid, Population.Organization organization) {
+    }
+}
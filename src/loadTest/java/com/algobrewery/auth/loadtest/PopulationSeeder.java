@@ -0,0 +1,144 @@
+package com.algobrewery.auth.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.javafaker.Faker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Seeds a synthetic population of organizations, roles and user role assignments directly
+ * through JDBC batches, so that seeding large populations does not dominate the run.
+ * <p>
+ * The resource vocabulary mixes the resources used by the default endpoint mappings with
+ * generated names, so that both permission and endpoint checks see grants and denials.
+ */
+class PopulationSeeder {
+
+    static final List<String> ACTIONS = List.of("view", "edit");
+
+    private static final Logger logger = LoggerFactory.getLogger(PopulationSeeder.class);
+
+    private static final List<String> ENDPOINT_RESOURCES =
+        List.of("task", "client", "comment", "organization", "user_basic_info");
+    private static final List<String> FEATURES =
+        List.of("create_task", "delete_task", "create_client", "create_comment", "generate_reports");
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Random random;
+    private final Faker faker;
+
+    PopulationSeeder(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, long seed) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.random = new Random(seed);
+        this.faker = new Faker(Locale.ENGLISH, new Random(seed));
+    }
+
+    Population seed(LoadTestSettings settings) {
+        long started = System.nanoTime();
+        List<String> resources = resourceVocabulary(Math.max(settings.getPolicySize() * 2, ENDPOINT_RESOURCES.size()));
+        Instant now = Instant.now();
+
+        List<Object[]> roles = new ArrayList<>();
+        List<Object[]> assignments = new ArrayList<>();
+        List<Population.Organization> organizations = new ArrayList<>();
+        for (int o = 0; o < settings.getOrganizations(); o++) {
+            String organizationUuid = UUID.randomUUID().toString();
+            List<UUID> roleUuids = new ArrayList<>();
+            for (int r = 0; r < settings.getRolesPerOrganization(); r++) {
+                UUID roleUuid = UUID.randomUUID();
+                roleUuids.add(roleUuid);
+                roles.add(new Object[] {roleUuid, faker.job().title() + " " + r, organizationUuid, "CUSTOMER_MANAGED",
+                    faker.lorem().sentence(), policy(resources, settings.getPolicySize()), Timestamp.from(now), "loadtest"});
+            }
+            List<String> userUuids = new ArrayList<>();
+            for (int u = 0; u < settings.getUsersPerOrganization(); u++) {
+                String userUuid = UUID.randomUUID().toString();
+                userUuids.add(userUuid);
+                for (int index : distinctIndexes(settings.getRolesPerUser(), roleUuids.size())) {
+                    assignments.add(new Object[] {UUID.randomUUID(), userUuid, roleUuids.get(index),
+                        organizationUuid, Timestamp.from(now), "loadtest"});
+                }
+            }
+            organizations.add(new Population.Organization(organizationUuid, userUuids));
+        }
+
+        batchInsert("INSERT INTO roles (role_uuid, role_name, organization_uuid, role_management_type, description, "
+            + "policy, created_at, created_by) VALUES (?, ?, ?, ?, ?, CAST(? AS jsonb), ?, ?)", roles);
+        batchInsert("INSERT INTO user_roles (user_role_uuid, user_uuid, role_uuid, organization_uuid, created_at, "
+            + "created_by) VALUES (?, ?, ?, ?, ?, ?)", assignments);
+        jdbcTemplate.execute("ANALYZE");
+
+        logger.info("Seeded {} organizations, {} roles and {} assignments in {} ms", organizations.size(),
+            roles.size(), assignments.size(), (System.nanoTime() - started) / 1_000_000);
+        return new Population(organizations, resources);
+    }
+
+    /**
+     * Policy granting {@code size} resources spread over the actions, plus a few features.
+     */
+    String policy(List<String> resources, int size) {
+        ObjectNode policy = objectMapper.createObjectNode();
+        ObjectNode data = policy.putObject("data");
+        for (int index : distinctIndexes(Math.min(size, resources.size()), resources.size())) {
+            String action = ACTIONS.get(random.nextInt(ACTIONS.size()));
+            ArrayNode granted = data.has(action) ? (ArrayNode) data.get(action) : data.putArray(action);
+            granted.add(resources.get(index));
+        }
+        ArrayNode features = policy.putObject("features").putArray("execute");
+        for (int index : distinctIndexes(2, FEATURES.size())) {
+            features.add(FEATURES.get(index));
+        }
+        return policy.toString();
+    }
+
+    private List<String> resourceVocabulary(int size) {
+        Set<String> resources = new LinkedHashSet<>(ENDPOINT_RESOURCES);
+        while (resources.size() < size) {
+            resources.add(faker.lorem().word().toLowerCase(Locale.ROOT) + "_" + resources.size());
+        }
+        return List.copyOf(resources);
+    }
+
+    private int[] distinctIndexes(int count, int bound) {
+        return random.ints(0, bound).distinct().limit(Math.min(count, bound)).toArray();
+    }
+
+    private void batchInsert(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())));
+        }
+    }
+
+    /**
+     * The seeded organizations and users, and the resource names used in their policies.
+     */
+    record Population(List<Organization> organizations, List<String> resources) {
+
+        record Organization(String organizationUuid, List<String> userUuids) {
+        }
+
+        Organization randomOrganization(Random random) {
+            return organizations.get(random.nextInt(organizations.size()));
+        }
+
+        String randomResource(Random random) {
+            return resources.get(random.nextInt(resources.size()));
+        }
+    }
+}
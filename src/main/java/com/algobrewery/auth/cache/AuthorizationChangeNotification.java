@@ -0,0 +1,36 @@
+package com.algobrewery.auth.cache;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Payload of a {@code roles} or {@code user_roles} row change published by the database
+ * triggers on the {@code authorization_changes} channel.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class AuthorizationChangeNotification {
+
+    public static final String ROLES = "roles";
+    public static final String USER_ROLES = "user_roles";
+
+    @JsonProperty("table")
+    private String table;
+
+    @JsonProperty("operation")
+    private String operation;
+
+    @JsonProperty("role_uuid")
+    private String roleUuid;
+
+    @JsonProperty("user_uuid")
+    private String userUuid;
+
+    @JsonProperty("organization_uuid")
+    private String organizationUuid;
+}
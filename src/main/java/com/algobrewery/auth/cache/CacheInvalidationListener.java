@@ -0,0 +1,43 @@
+package com.algobrewery.auth.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.io.IOException;
+
+/**
+ * Applies invalidations published by other replicas to the in-process cache tier.
+ */
+public class CacheInvalidationListener implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationListener.class);
+
+    private final CacheInvalidator cacheInvalidator;
+    private final ObjectMapper objectMapper;
+    private final String nodeId;
+
+    public CacheInvalidationListener(CacheInvalidator cacheInvalidator, ObjectMapper objectMapper, String nodeId) {
+        this.cacheInvalidator = cacheInvalidator;
+        this.objectMapper = objectMapper;
+        this.nodeId = nodeId;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        CacheInvalidationMessage invalidation;
+        try {
+            invalidation = objectMapper.readValue(message.getBody(), CacheInvalidationMessage.class);
+        } catch (IOException e) {
+            logger.warn("Ignoring malformed cache invalidation message: {}", e.getMessage());
+            return;
+        }
+        if (nodeId.equals(invalidation.getOrigin())) {
+            return;
+        }
+        logger.debug("Applying remote cache invalidation: {}", invalidation);
+        cacheInvalidator.applyRemote(invalidation);
+    }
+}
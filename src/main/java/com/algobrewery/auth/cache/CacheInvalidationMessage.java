@@ -0,0 +1,29 @@
+package com.algobrewery.auth.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Invalidation broadcast to every replica so each can drop its in-process cache entries.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidationMessage {
+
+    public enum Type {
+        EVICT_KEY,
+        EVICT_TAG,
+        CLEAR
+    }
+
+    private String origin;
+    private String cacheName;
+    private Type type;
+    private String tag;
+    private String key;
+    private List<String> keyTags;
+}
@@ -0,0 +1,61 @@
+package com.algobrewery.auth.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.UUID;
+
+/**
+ * Publishes cache invalidations on a Redis channel consumed by every replica.
+ * Each instance tags its messages with a node id so it can skip its own broadcasts.
+ */
+public class CacheInvalidationPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationPublisher.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final String channel;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public CacheInvalidationPublisher(StringRedisTemplate redisTemplate, ObjectMapper objectMapper, String channel) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.channel = channel;
+    }
+
+    public void evictKey(String cacheName, CacheKey key) {
+        publish(new CacheInvalidationMessage(nodeId, cacheName, CacheInvalidationMessage.Type.EVICT_KEY,
+            null, key.getValue(), key.getTags()));
+    }
+
+    public void evictTag(String cacheName, String tag) {
+        publish(new CacheInvalidationMessage(nodeId, cacheName, CacheInvalidationMessage.Type.EVICT_TAG,
+            tag, null, null));
+    }
+
+    public void clear(String cacheName) {
+        publish(new CacheInvalidationMessage(nodeId, cacheName, CacheInvalidationMessage.Type.CLEAR,
+            null, null, null));
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    private void publish(CacheInvalidationMessage message) {
+        try {
+            redisTemplate.convertAndSend(channel, objectMapper.writeValueAsString(message));
+        } catch (JsonProcessingException | RuntimeException e) {
+            // Other replicas fall back to their L1 TTL
+            logger.warn("Failed to publish cache invalidation for cache {}: {}", message.getCacheName(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.algobrewery.auth.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Targeted cache invalidation for role and user-role writes.
+ * Only the entries of the touched user, role or organization are dropped. A role change drops
+ * the grants made by that role and the denials of its organization; system-managed roles apply
+ * to every organization, so changes to them drop every denial.
+ * <p>
+ * When a {@link CacheInvalidationPublisher} is configured, every eviction is also broadcast
+ * so other replicas drop the same entries from their in-process tier. Row changes reported by
+ * the database ({@link PostgresInvalidationListener}) are applied to the in-process tier only.
+ */
+@Component
+public class CacheInvalidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidator.class);
+
+    private final CacheManager cacheManager;
+    private final ObjectProvider<CacheInvalidationPublisher> publisher;
+
+    @Autowired
+    public CacheInvalidator(CacheManager cacheManager, ObjectProvider<CacheInvalidationPublisher> publisher) {
+        this.cacheManager = cacheManager;
+        this.publisher = publisher;
+    }
+
+    /**
+     * Invalidate after a role was assigned to or removed from a user.
+     */
+    public void userRolesChanged(String userUuid, String organizationUuid) {
+        userRolesChanged(userUuid, organizationUuid, true);
+    }
+
+    /**
+     * Invalidate once after roles were assigned to many users of an organization at once.
+     */
+    public void usersRolesChanged(Collection<String> userUuids, String organizationUuid) {
+        logger.debug("Invalidating caches for {} users in organization {}", userUuids.size(), organizationUuid);
+        for (String userUuid : userUuids) {
+            String userTag = CacheKeys.userTag(userUuid, organizationUuid);
+            evictTag(CacheKeys.PERMISSIONS, userTag, true);
+            evictTag(CacheKeys.USER_ROLES, userTag, true);
+        }
+        evictKey(CacheKeys.USER_ROLES, CacheKeys.organizationUserRoles(organizationUuid), true);
+    }
+
+    /**
+     * Invalidate after a role was created.
+     */
+    public void roleCreated(String roleName, String organizationUuid) {
+        if (organizationUuid == null) {
+            evictKey(CacheKeys.ROLES, CacheKeys.systemManagedRoles());
+        } else {
+            evictKey(CacheKeys.ROLES, CacheKeys.organizationRoles(organizationUuid));
+        }
+        evictKey(CacheKeys.ROLES, CacheKeys.roleByName(roleName, organizationUuid));
+    }
+
+    /**
+     * Invalidate after a role's name or policy changed. Permission decisions granted by the role
+     * and denials in the role's organization are dropped; a system-managed role affects the
+     * denials of every organization.
+     */
+    public void roleUpdated(UUID roleUuid, String organizationUuid) {
+        roleUpdated(roleUuid, organizationUuid, true);
+    }
+
+    /**
+     * Invalidate after a role was deleted, including the assignments removed with it.
+     */
+    public void roleDeleted(UUID roleUuid, String organizationUuid) {
+        roleDeleted(roleUuid, organizationUuid, true);
+    }
+
+    /**
+     * Invalidate endpoint-based permission decisions after the endpoint mappings changed.
+     */
+    public void endpointMappingsChanged() {
+        logger.debug("Invalidating endpoint permission decisions");
+        evictTag(CacheKeys.PERMISSIONS, CacheKeys.ENDPOINT_TAG);
+    }
+
+    /**
+     * Evict every entry of a cache indexed under a tag, falling back to clearing the cache.
+     */
+    public void evictTag(String cacheName, String tag) {
+        evictTag(cacheName, tag, true);
+    }
+
+    public void evictKey(String cacheName, CacheKey key) {
+        evictKey(cacheName, key, true);
+    }
+
+    public void clear(String cacheName) {
+        clear(cacheName, true);
+    }
+
+    /**
+     * Apply a row change reported by the database to the in-process tier only. Every replica,
+     * including the writer, receives the change, and the writer has already evicted the shared tier.
+     */
+    public void applyDatabaseChange(AuthorizationChangeNotification change) {
+        if (AuthorizationChangeNotification.USER_ROLES.equals(change.getTable())) {
+            userRolesChanged(change.getUserUuid(), change.getOrganizationUuid(), false);
+        } else if (AuthorizationChangeNotification.ROLES.equals(change.getTable()) && change.getRoleUuid() != null) {
+            UUID roleUuid = UUID.fromString(change.getRoleUuid());
+            if ("DELETE".equals(change.getOperation())) {
+                roleDeleted(roleUuid, change.getOrganizationUuid(), false);
+            } else {
+                // Covers the name lookups and role listings of the organization as well
+                roleUpdated(roleUuid, change.getOrganizationUuid(), false);
+            }
+        }
+    }
+
+    /**
+     * Drop every in-process entry, e.g. after changes may have been missed.
+     */
+    public void clearLocally() {
+        clear(CacheKeys.ROLES, false);
+        clear(CacheKeys.PERMISSIONS, false);
+        clear(CacheKeys.USER_ROLES, false);
+    }
+
+    private void userRolesChanged(String userUuid, String organizationUuid, boolean broadcast) {
+        logger.debug("Invalidating caches for user {} in organization {}", userUuid, organizationUuid);
+        String userTag = CacheKeys.userTag(userUuid, organizationUuid);
+        evictTag(CacheKeys.PERMISSIONS, userTag, broadcast);
+        evictTag(CacheKeys.USER_ROLES, userTag, broadcast);
+        evictKey(CacheKeys.USER_ROLES, CacheKeys.organizationUserRoles(organizationUuid), broadcast);
+    }
+
+    private void roleUpdated(UUID roleUuid, String organizationUuid, boolean broadcast) {
+        logger.debug("Invalidating caches for role {} in organization {}", roleUuid, organizationUuid);
+        evictTag(CacheKeys.ROLES, CacheKeys.roleTag(roleUuid), broadcast);
+        evictTag(CacheKeys.ROLES, CacheKeys.organizationTag(organizationUuid), broadcast);
+        evictTag(CacheKeys.PERMISSIONS, CacheKeys.roleTag(roleUuid), broadcast);
+        evictTag(CacheKeys.PERMISSIONS,
+            organizationUuid == null ? CacheKeys.DENIAL_TAG : CacheKeys.denialTag(organizationUuid), broadcast);
+    }
+
+    private void roleDeleted(UUID roleUuid, String organizationUuid, boolean broadcast) {
+        roleUpdated(roleUuid, organizationUuid, broadcast);
+        if (organizationUuid == null) {
+            clear(CacheKeys.USER_ROLES, broadcast);
+        } else {
+            evictTag(CacheKeys.USER_ROLES, CacheKeys.organizationTag(organizationUuid), broadcast);
+        }
+    }
+
+    private void evictTag(String cacheName, String tag, boolean broadcast) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache instanceof TaggedCache taggedCache) {
+            if (broadcast) {
+                taggedCache.evictTag(tag);
+            } else {
+                taggedCache.evictTagLocally(tag);
+            }
+        } else if (cache != null) {
+            cache.clear();
+        }
+        if (broadcast) {
+            publisher.ifAvailable(p -> p.evictTag(cacheName, tag));
+        }
+    }
+
+    private void evictKey(String cacheName, CacheKey key, boolean broadcast) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache instanceof TaggedCache taggedCache && !broadcast) {
+            taggedCache.evictLocally(key);
+        } else if (cache != null) {
+            cache.evict(key);
+        }
+        if (broadcast) {
+            publisher.ifAvailable(p -> p.evictKey(cacheName, key));
+        }
+    }
+
+    private void clear(String cacheName, boolean broadcast) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache instanceof TaggedCache taggedCache && !broadcast) {
+            taggedCache.clearLocally();
+        } else if (cache != null) {
+            cache.clear();
+        }
+        if (broadcast) {
+            publisher.ifAvailable(p -> p.clear(cacheName));
+        }
+    }
+
+    /**
+     * Apply an invalidation published by another replica to the in-process tier only;
+     * the publishing replica has already evicted the shared tier.
+     */
+    public void applyRemote(CacheInvalidationMessage message) {
+        if (message.getType() == null
+            || !(cacheManager.getCache(message.getCacheName()) instanceof TaggedCache cache)) {
+            return;
+        }
+        switch (message.getType()) {
+            case EVICT_KEY -> cache.evictLocally(new CacheKey(message.getKey(), tagsOf(message)));
+            case EVICT_TAG -> cache.evictTagLocally(message.getTag());
+            case CLEAR -> cache.clearLocally();
+        }
+    }
+
+    private static String[] tagsOf(CacheInvalidationMessage message) {
+        return message.getKeyTags() != null ? message.getKeyTags().toArray(new String[0]) : new String[0];
+    }
+}
@@ -0,0 +1,55 @@
+package com.algobrewery.auth.cache;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Cache key carrying the invalidation tags of the entry it identifies.
+ * Equality is based on the key value only; tags are derived from the same arguments.
+ */
+public final class CacheKey implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String value;
+    private final String[] tags;
+
+    CacheKey(String value, String... tags) {
+        this.value = value;
+        this.tags = tags;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public List<String> getTags() {
+        return Arrays.asList(tags);
+    }
+
+    /**
+     * The same key indexed under other tags.
+     */
+    CacheKey withTags(List<String> tags) {
+        return new CacheKey(value, tags.toArray(new String[0]));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof CacheKey && value.equals(((CacheKey) o).value);
+    }
+
+    @Override
+    public int hashCode() {
+        return value.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
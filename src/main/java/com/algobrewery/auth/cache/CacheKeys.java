@@ -0,0 +1,114 @@
+package com.algobrewery.auth.cache;
+
+import com.algobrewery.auth.dto.PermissionCheckResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Factory for the keys and invalidation tags used by the service caches.
+ * Referenced from {@code @Cacheable} key expressions and from {@link CacheInvalidator}.
+ */
+public final class CacheKeys {
+
+    public static final String ROLES = "roles";
+    public static final String PERMISSIONS = "permissions";
+    public static final String USER_ROLES = "user_roles";
+
+    public static final String SYSTEM_TAG = "system";
+    public static final String ENDPOINT_TAG = "endpoints";
+    public static final String DENIAL_TAG = "denied";
+
+    private CacheKeys() {
+    }
+
+    // Tags
+
+    public static String userTag(String userUuid, String organizationUuid) {
+        return "user:" + userUuid + ":" + organizationUuid;
+    }
+
+    public static String organizationTag(String organizationUuid) {
+        return organizationUuid == null ? SYSTEM_TAG : "org:" + organizationUuid;
+    }
+
+    public static String roleTag(Object roleUuid) {
+        return "role:" + roleUuid;
+    }
+
+    /**
+     * Tag of the permission denials in an organization, which any change to one of its roles may turn into grants.
+     */
+    public static String denialTag(String organizationUuid) {
+        return DENIAL_TAG + ":" + organizationTag(organizationUuid);
+    }
+
+    /**
+     * The key as stored with its value. Permission decisions are created with the denial tags;
+     * a grant is stored under the tag of the granting role instead, so it is only evicted when
+     * that role (or the user's assignments) change.
+     */
+    public static Object storedKey(Object key, Object value) {
+        if (key instanceof CacheKey cacheKey && value instanceof PermissionCheckResponse response
+                && response.isHasPermission() && response.getRoleUuid() != null) {
+            List<String> tags = new ArrayList<>();
+            for (String tag : cacheKey.getTags()) {
+                if (!tag.equals(DENIAL_TAG) && !tag.startsWith(DENIAL_TAG + ":")) {
+                    tags.add(tag);
+                }
+            }
+            tags.add(roleTag(response.getRoleUuid()));
+            return cacheKey.withTags(tags);
+        }
+        return key;
+    }
+
+    // permissions cache
+
+    public static CacheKey permission(String userUuid, String organizationUuid, String action, String resource) {
+        return new CacheKey("permission|" + userUuid + "|" + organizationUuid + "|" + action + "|" + resource,
+            userTag(userUuid, organizationUuid), organizationTag(organizationUuid),
+            denialTag(organizationUuid), DENIAL_TAG);
+    }
+
+    public static CacheKey endpointPermission(String userUuid, String organizationUuid, String endpoint) {
+        return new CacheKey("endpoint|" + userUuid + "|" + organizationUuid + "|" + endpoint,
+            userTag(userUuid, organizationUuid), organizationTag(organizationUuid), ENDPOINT_TAG,
+            denialTag(organizationUuid), DENIAL_TAG);
+    }
+
+    // user_roles cache
+
+    public static CacheKey userRoles(String userUuid, String organizationUuid) {
+        return new CacheKey("user_roles|" + userUuid + "|" + organizationUuid,
+            userTag(userUuid, organizationUuid), organizationTag(organizationUuid));
+    }
+
+    public static CacheKey detailedUserRoles(String userUuid, String organizationUuid) {
+        return new CacheKey("detailed_user_roles|" + userUuid + "|" + organizationUuid,
+            userTag(userUuid, organizationUuid), organizationTag(organizationUuid));
+    }
+
+    public static CacheKey organizationUserRoles(String organizationUuid) {
+        return new CacheKey("org_user_roles|" + organizationUuid, organizationTag(organizationUuid));
+    }
+
+    // roles cache
+
+    public static CacheKey role(UUID roleUuid) {
+        return new CacheKey("role|" + roleUuid, roleTag(roleUuid));
+    }
+
+    public static CacheKey organizationRoles(String organizationUuid) {
+        return new CacheKey("org_roles|" + organizationUuid, organizationTag(organizationUuid));
+    }
+
+    public static CacheKey systemManagedRoles() {
+        return new CacheKey("system_managed_roles", SYSTEM_TAG);
+    }
+
+    public static CacheKey roleByName(String roleName, String organizationUuid) {
+        return new CacheKey("role_name|" + roleName + "|" + organizationUuid, organizationTag(organizationUuid));
+    }
+}
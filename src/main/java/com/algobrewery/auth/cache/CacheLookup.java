@@ -0,0 +1,77 @@
+package com.algobrewery.auth.cache;
+
+import java.util.function.Supplier;
+
+/**
+ * Records which cache tier served a lookup made on behalf of the current request.
+ * <p>
+ * A lookup is bound to the calling thread with {@link #bind(Supplier)}; {@link TaggedCache} and
+ * {@link TwoTierCache} mark it as it passes through the tiers, and run the value loader with
+ * the lookup bound so the loading code can reach it from whichever thread computes the value.
+ * Lookups that never touch a cache keep the {@link Result#NONE} result.
+ */
+public class CacheLookup {
+
+    public enum Result {
+        NONE("none"),
+        HIT("hit"),
+        SHARED_HIT("shared_hit"),
+        MISS("miss");
+
+        private final String value;
+
+        Result(String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return value;
+        }
+    }
+
+    private static final ThreadLocal<CacheLookup> CURRENT = new ThreadLocal<>();
+
+    private volatile Result result = Result.NONE;
+
+    /**
+     * The lookup bound to the current thread, or {@code null} outside of a bound lookup.
+     */
+    public static CacheLookup current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Run the action with this lookup bound to the current thread.
+     */
+    public <T> T bind(Supplier<T> action) {
+        CacheLookup previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public Result getResult() {
+        return result;
+    }
+
+    void markHit() {
+        if (result == Result.NONE) {
+            result = Result.HIT;
+        }
+    }
+
+    void markSharedHit() {
+        result = Result.SHARED_HIT;
+    }
+
+    void markMiss() {
+        result = Result.MISS;
+    }
+}
@@ -0,0 +1,83 @@
+package com.algobrewery.auth.cache;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Secondary index from invalidation tags to the {@link CacheKey}s currently stored in one cache.
+ * The tags a key was last registered under are remembered, so a key stored under other tags
+ * than it was looked up with (see {@link CacheKeys#storedKey}) is fully unregistered.
+ */
+public class CacheTagIndex {
+
+    private final ConcurrentHashMap<String, Set<CacheKey>> keysByTag = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<CacheKey, CacheKey> registered = new ConcurrentHashMap<>();
+
+    /**
+     * Index a key under each of its tags, replacing the tags it was registered under before.
+     */
+    public void register(Object key) {
+        if (key instanceof CacheKey cacheKey) {
+            CacheKey previous = registered.put(cacheKey, cacheKey);
+            for (String tag : cacheKey.getTags()) {
+                keysByTag.compute(tag, (t, keys) -> {
+                    Set<CacheKey> target = keys != null ? keys : ConcurrentHashMap.newKeySet();
+                    target.add(cacheKey);
+                    return target;
+                });
+            }
+            if (previous != null && previous != cacheKey) {
+                removeFromTags(previous, cacheKey.getTags());
+            }
+        }
+    }
+
+    /**
+     * Re-index a key under the tags of its stored value, unless it was evicted in the meantime.
+     */
+    public void retag(Object key) {
+        if (key instanceof CacheKey cacheKey && registered.containsKey(cacheKey)) {
+            register(cacheKey);
+        }
+    }
+
+    /**
+     * Remove a key that is no longer present in the cache.
+     */
+    public void unregister(Object key) {
+        if (key instanceof CacheKey cacheKey) {
+            CacheKey previous = registered.remove(cacheKey);
+            removeFromTags(previous != null ? previous : cacheKey, List.of());
+        }
+    }
+
+    private void removeFromTags(CacheKey cacheKey, List<String> keep) {
+        for (String tag : cacheKey.getTags()) {
+            if (!keep.contains(tag)) {
+                keysByTag.computeIfPresent(tag, (t, keys) -> {
+                    keys.remove(cacheKey);
+                    return keys.isEmpty() ? null : keys;
+                });
+            }
+        }
+    }
+
+    /**
+     * Remove and return all keys indexed under a tag.
+     */
+    public Set<CacheKey> removeTag(String tag) {
+        Set<CacheKey> keys = keysByTag.remove(tag);
+        return keys != null ? keys : Collections.emptySet();
+    }
+
+    public void clear() {
+        keysByTag.clear();
+        registered.clear();
+    }
+
+    public int tagCount() {
+        return keysByTag.size();
+    }
+}
@@ -0,0 +1,170 @@
+package com.algobrewery.auth.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Listens on the Postgres {@code authorization_changes} channel, fed by the triggers on
+ * {@code roles} and {@code user_roles} (see V8), and evicts the affected entries from the
+ * in-process caches of this replica.
+ * <p>
+ * A dedicated connection outside the pool is held open for {@code LISTEN}. When the connection
+ * is lost, notifications sent in the meantime are gone, so after reconnecting all in-process
+ * entries are dropped before listening resumes. The connection is only considered listening once
+ * the V8 triggers are found; without them nothing would ever be published on the channel.
+ */
+public class PostgresInvalidationListener implements SmartLifecycle, Runnable {
+
+    public static final String CHANNEL = "authorization_changes";
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresInvalidationListener.class);
+
+    private static final String COUNT_TRIGGERS = "SELECT COUNT(*) FROM pg_trigger "
+        + "WHERE tgname IN ('trg_roles_notify_change', 'trg_user_roles_notify_change') AND NOT tgisinternal";
+    private static final int TRIGGERS = 2;
+
+    private final CacheInvalidator cacheInvalidator;
+    private final ObjectMapper objectMapper;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int pollTimeoutMs;
+    private final long reconnectDelayMs;
+
+    private volatile boolean running;
+    private volatile boolean listening;
+    private Thread thread;
+
+    public PostgresInvalidationListener(CacheInvalidator cacheInvalidator, ObjectMapper objectMapper,
+                                        String url, String username, String password,
+                                        int pollTimeoutMs, long reconnectDelayMs) {
+        this.cacheInvalidator = cacheInvalidator;
+        this.objectMapper = objectMapper;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.pollTimeoutMs = pollTimeoutMs;
+        this.reconnectDelayMs = reconnectDelayMs;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this, "pg-cache-invalidation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Whether the LISTEN connection is currently established.
+     */
+    public boolean isListening() {
+        return listening;
+    }
+
+    @Override
+    public void run() {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    if (!triggersInstalled(statement)) {
+                        logger.error("The {} triggers (migration V8) are missing, cache entries will not be "
+                            + "invalidated across replicas; retrying in {} ms", CHANNEL, reconnectDelayMs);
+                        continue;
+                    }
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                if (reconnecting) {
+                    logger.info("Reconnected to {}, dropping in-process cache entries", CHANNEL);
+                    cacheInvalidator.clearLocally();
+                }
+                listening = true;
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            apply(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    logger.warn("Lost {} listener connection, retrying in {} ms: {}", CHANNEL, reconnectDelayMs,
+                        e.getMessage());
+                }
+            } catch (RuntimeException e) {
+                logger.error("{} listener failed, reconnecting in {} ms", CHANNEL, reconnectDelayMs, e);
+            } finally {
+                listening = false;
+                reconnecting = true;
+                sleep(reconnectDelayMs);
+            }
+        }
+    }
+
+    private boolean triggersInstalled(Statement statement) throws SQLException {
+        try (ResultSet rs = statement.executeQuery(COUNT_TRIGGERS)) {
+            return rs.next() && rs.getInt(1) == TRIGGERS;
+        }
+    }
+
+    private void apply(String payload) {
+        AuthorizationChangeNotification change;
+        try {
+            change = objectMapper.readValue(payload, AuthorizationChangeNotification.class);
+        } catch (IOException e) {
+            logger.warn("Ignoring malformed authorization change notification: {}", e.getMessage());
+            return;
+        }
+        try {
+            logger.debug("Applying database change: {}", change);
+            cacheInvalidator.applyDatabaseChange(change);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Ignoring malformed authorization change notification: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("Failed to apply {}, dropping in-process cache entries", change, e);
+            cacheInvalidator.clearLocally();
+        }
+    }
+
+    private void sleep(long millis) {
+        if (!running) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.algobrewery.auth.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Shared (L2) cache store in Redis.
+ * Entries live under {@code <prefix><cache>:<key>} and every tag of a {@link CacheKey} is a
+ * Redis set of the entry keys stored under it, so tag evictions reach entries written by
+ * other replicas. Redis failures are logged and treated as misses, so an unavailable
+ * Redis degrades to the in-process cache and the database.
+ */
+public class RedisCacheStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisCacheStore.class);
+
+    private static final int CLEAR_BATCH_SIZE = 500;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final String prefix;
+
+    public RedisCacheStore(RedisTemplate<String, Object> redisTemplate, String prefix) {
+        this.redisTemplate = redisTemplate;
+        this.prefix = prefix;
+    }
+
+    /**
+     * Get a cached value, or null on a miss.
+     */
+    public Object get(String cacheName, Object key) {
+        try {
+            return redisTemplate.opsForValue().get(entryKey(cacheName, key));
+        } catch (RuntimeException e) {
+            logger.warn("Redis lookup failed for cache {}: {}", cacheName, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Store a value and index it under the tags of its key. Null values are not stored.
+     */
+    public void put(String cacheName, Object key, Object value, Duration ttl) {
+        if (value == null) {
+            return;
+        }
+        String entryKey = entryKey(cacheName, key);
+        try {
+            redisTemplate.opsForValue().set(entryKey, value, ttl);
+            if (key instanceof CacheKey cacheKey) {
+                for (String tag : cacheKey.getTags()) {
+                    String tagKey = tagKey(cacheName, tag);
+                    redisTemplate.opsForSet().add(tagKey, entryKey);
+                    redisTemplate.expire(tagKey, ttl);
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Redis write failed for cache {}: {}", cacheName, e.getMessage());
+        }
+    }
+
+    public void evict(String cacheName, Object key) {
+        try {
+            redisTemplate.delete(entryKey(cacheName, key));
+        } catch (RuntimeException e) {
+            logger.warn("Redis eviction failed for cache {}: {}", cacheName, e.getMessage());
+        }
+    }
+
+    /**
+     * Delete every entry indexed under a tag, together with the tag set itself.
+     */
+    public void evictTag(String cacheName, String tag) {
+        String tagKey = tagKey(cacheName, tag);
+        try {
+            Set<Object> members = redisTemplate.opsForSet().members(tagKey);
+            List<String> keys = new ArrayList<>();
+            keys.add(tagKey);
+            if (members != null) {
+                for (Object member : members) {
+                    keys.add(member.toString());
+                }
+            }
+            redisTemplate.delete(keys);
+        } catch (RuntimeException e) {
+            logger.warn("Redis tag eviction failed for cache {}: {}", cacheName, e.getMessage());
+        }
+    }
+
+    /**
+     * Delete every entry and tag set of a cache, scanning instead of using KEYS.
+     */
+    public void clear(String cacheName) {
+        ScanOptions options = ScanOptions.scanOptions()
+            .match(prefix + cacheName + ":*")
+            .count(CLEAR_BATCH_SIZE)
+            .build();
+        try {
+            redisTemplate.execute((RedisCallback<Void>) connection -> {
+                List<byte[]> batch = new ArrayList<>(CLEAR_BATCH_SIZE);
+                try (Cursor<byte[]> cursor = connection.keyCommands().scan(options)) {
+                    while (cursor.hasNext()) {
+                        batch.add(cursor.next());
+                        if (batch.size() == CLEAR_BATCH_SIZE) {
+                            delete(connection, batch);
+                        }
+                    }
+                }
+                delete(connection, batch);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Redis clear failed for cache {}: {}", cacheName, e.getMessage());
+        }
+    }
+
+    private static void delete(RedisConnection connection, List<byte[]> keys) {
+        if (!keys.isEmpty()) {
+            connection.keyCommands().del(keys.toArray(new byte[0][]));
+            keys.clear();
+        }
+    }
+
+    private String entryKey(String cacheName, Object key) {
+        return prefix + cacheName + ":" + key;
+    }
+
+    private String tagKey(String cacheName, String tag) {
+        return prefix + cacheName + ":tag:" + tag;
+    }
+}
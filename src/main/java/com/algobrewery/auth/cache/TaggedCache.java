@@ -0,0 +1,172 @@
+package com.algobrewery.auth.cache;
+
+import com.algobrewery.auth.jfr.CacheMissEvent;
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Cache decorator that indexes {@link CacheKey}s by tag so that entries belonging to
+ * one user, organization or role can be evicted without clearing the whole cache.
+ * Keys are indexed after the delegate call so an eviction triggered by that call cannot
+ * unregister the freshly stored entry, under the tags of {@link CacheKeys#storedKey}. An async
+ * lookup is indexed right away so an in-flight load can be evicted; once the load completes the
+ * key is re-indexed for the loaded value, or unregistered if the load failed.
+ * Async retrievals report whether they were served from the cache to the current
+ * {@link CacheLookup}, if any, and loads after a miss emit a {@link CacheMissEvent}.
+ */
+public class TaggedCache implements Cache {
+
+    private final Cache delegate;
+    private final CacheTagIndex index;
+
+    public TaggedCache(Cache delegate, CacheTagIndex index) {
+        this.delegate = delegate;
+        this.index = index;
+    }
+
+    /**
+     * Evict every entry indexed under the tag, including shared entries of a two-tier cache.
+     */
+    public void evictTag(String tag) {
+        evictTagLocally(tag);
+        if (delegate instanceof TwoTierCache twoTierCache) {
+            twoTierCache.evictSharedTag(tag);
+        }
+    }
+
+    /**
+     * Evict the in-process entries indexed under the tag, leaving a shared tier untouched.
+     */
+    public void evictTagLocally(String tag) {
+        for (CacheKey key : index.removeTag(tag)) {
+            evictLocally(key);
+        }
+    }
+
+    public void evictLocally(Object key) {
+        if (delegate instanceof TwoTierCache twoTierCache) {
+            twoTierCache.evictLocal(key);
+        } else {
+            delegate.evict(key);
+        }
+        index.unregister(key);
+    }
+
+    public void clearLocally() {
+        if (delegate instanceof TwoTierCache twoTierCache) {
+            twoTierCache.clearLocal();
+        } else {
+            delegate.clear();
+        }
+        index.clear();
+    }
+
+    public Cache getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        T value = delegate.get(key, valueLoader);
+        index.register(CacheKeys.storedKey(key, value));
+        return value;
+    }
+
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        return delegate.retrieve(key);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        CacheLookup lookup = CacheLookup.current();
+        if (lookup != null) {
+            lookup.markHit();
+        }
+        CompletableFuture<T> value = delegate.retrieve(key, () -> {
+            CacheMissEvent event = new CacheMissEvent();
+            event.begin();
+            CompletableFuture<T> loaded;
+            if (lookup != null) {
+                lookup.markMiss();
+                loaded = lookup.bind(valueLoader);
+            } else {
+                loaded = valueLoader.get();
+            }
+            if (event.isEnabled()) {
+                loaded.whenComplete((result, error) -> event.commit(getName(), key, error != null));
+            }
+            return loaded;
+        });
+        index.register(key);
+        return value.whenComplete((result, error) -> {
+            if (error != null) {
+                index.unregister(key);
+            } else {
+                index.retag(CacheKeys.storedKey(key, result));
+            }
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+        index.register(CacheKeys.storedKey(key, value));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = delegate.putIfAbsent(key, value);
+        index.register(CacheKeys.storedKey(key, existing != null ? existing.get() : value));
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+        index.unregister(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = delegate.evictIfPresent(key);
+        index.unregister(key);
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        index.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = delegate.invalidate();
+        index.clear();
+        return invalidated;
+    }
+}
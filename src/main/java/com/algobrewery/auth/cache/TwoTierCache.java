@@ -0,0 +1,146 @@
+package com.algobrewery.auth.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Near cache: an in-process (L1) cache in front of a shared Redis (L2) store.
+ * Misses in L1 are looked up in L2 before the value loader runs, and loaded values are
+ * written to both tiers. Evictions go to both tiers; the {@code *Local} variants only
+ * touch L1 and are used when applying invalidations published by other replicas.
+ * Asynchronous L2 lookups run on the given executor rather than the common pool.
+ */
+public class TwoTierCache implements Cache {
+
+    private final Cache local;
+    private final RedisCacheStore shared;
+    private final Duration ttl;
+    private final Executor executor;
+
+    public TwoTierCache(Cache local, RedisCacheStore shared, Duration ttl, Executor executor) {
+        this.local = local;
+        this.shared = shared;
+        this.ttl = ttl;
+        this.executor = executor;
+    }
+
+    public Cache getLocal() {
+        return local;
+    }
+
+    /**
+     * Evict every shared entry indexed under the tag.
+     */
+    public void evictSharedTag(String tag) {
+        shared.evictTag(getName(), tag);
+    }
+
+    public void evictLocal(Object key) {
+        local.evict(key);
+    }
+
+    public void clearLocal() {
+        local.clear();
+    }
+
+    @Override
+    public String getName() {
+        return local.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper wrapper = local.get(key);
+        if (wrapper != null) {
+            return wrapper;
+        }
+        Object value = shared.get(getName(), key);
+        if (value == null) {
+            return null;
+        }
+        local.put(key, value);
+        return new SimpleValueWrapper(value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return local.get(key, () -> {
+            Object cached = shared.get(getName(), key);
+            if (cached != null) {
+                return (T) cached;
+            }
+            T value = valueLoader.call();
+            shared.put(getName(), CacheKeys.storedKey(key, value), value, ttl);
+            return value;
+        });
+    }
+
+    /**
+     * Only L1 is consulted here; annotation-driven async caching always goes through
+     * {@link #retrieve(Object, Supplier)}, which falls back to L2.
+     */
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        return local.retrieve(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        CacheLookup lookup = CacheLookup.current();
+        return local.retrieve(key, () -> CompletableFuture.supplyAsync(() -> shared.get(getName(), key), executor)
+            .thenCompose(cached -> {
+                if (cached != null) {
+                    if (lookup != null) {
+                        lookup.markSharedHit();
+                    }
+                    return CompletableFuture.completedFuture((T) cached);
+                }
+                return valueLoader.get().thenApply(value -> {
+                    shared.put(getName(), CacheKeys.storedKey(key, value), value, ttl);
+                    return value;
+                });
+            }));
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        local.put(key, value);
+        shared.put(getName(), CacheKeys.storedKey(key, value), value, ttl);
+    }
+
+    @Override
+    public void evict(Object key) {
+        local.evict(key);
+        shared.evict(getName(), key);
+    }
+
+    @Override
+    public void clear() {
+        local.clear();
+        shared.clear(getName());
+    }
+}
@@ -0,0 +1,123 @@
+package com.algobrewery.auth.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executor for the blocking database work behind the service {@code CompletableFuture}s,
+ * so it never runs on {@code ForkJoinPool.commonPool()}.
+ * <p>
+ * {@code app.executor.db.mode=bounded} (default) uses a fixed-size pool with a bounded queue;
+ * when both are full the task is rejected and the request fails fast with 503 instead of
+ * queueing without limit. Pool size, queue depth and rejections are exported as
+ * {@code executor.*} metrics tagged {@code name=db}.
+ * {@code mode=virtual} runs each task on a virtual thread (JDK 21+). It has no queue: once
+ * {@code concurrency-limit} tasks are in flight further tasks are rejected with the same 503,
+ * and in-flight tasks, the limit and rejections are exported under the same metric names.
+ */
+@Configuration
+public class AsyncConfig {
+
+    public static final String DB_EXECUTOR = "dbExecutor";
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncConfig.class);
+
+    private static final String EXECUTOR_NAME = "db";
+
+    @Value("${app.executor.db.mode:bounded}")
+    private String mode;
+
+    @Value("${app.executor.db.pool-size:16}")
+    private int poolSize;
+
+    @Value("${app.executor.db.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${app.executor.db.concurrency-limit:64}")
+    private int concurrencyLimit;
+
+    @Bean(name = DB_EXECUTOR)
+    public Executor dbExecutor(ObjectProvider<MeterRegistry> meterRegistry) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if ("virtual".equalsIgnoreCase(mode)) {
+            logger.info("Using virtual threads for database work (concurrency limit {})", concurrencyLimit);
+            SimpleAsyncTaskExecutor virtualThreads = new SimpleAsyncTaskExecutor("db-");
+            virtualThreads.setVirtualThreads(true);
+            return limited(virtualThreads, registry);
+        }
+
+        logger.info("Using bounded pool for database work (size {}, queue {})", poolSize, queueCapacity);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            poolSize, poolSize, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(queueCapacity),
+            new CustomizableThreadFactory("db-"),
+            rejectionHandler(rejectedCounter(registry)));
+        executor.allowCoreThreadTimeOut(true);
+        if (registry == null) {
+            return executor;
+        }
+        return ExecutorServiceMetrics.monitor(registry, executor, EXECUTOR_NAME, Tags.empty());
+    }
+
+    /**
+     * Cap the tasks in flight on an executor that has no limit of its own, rejecting the rest.
+     */
+    ConcurrencyLimitedExecutor limited(Executor delegate, MeterRegistry registry) {
+        Counter rejected = rejectedCounter(registry);
+        ConcurrencyLimitedExecutor executor = new ConcurrencyLimitedExecutor(delegate, concurrencyLimit,
+            rejected == null ? () -> { } : rejected::increment);
+        if (registry != null) {
+            Gauge.builder("executor.active", executor, ConcurrencyLimitedExecutor::getInFlight)
+                .description("Tasks in flight")
+                .tag("name", EXECUTOR_NAME)
+                .register(registry);
+            Gauge.builder("executor.pool.max", executor, ConcurrencyLimitedExecutor::getLimit)
+                .description("Maximum tasks in flight")
+                .tag("name", EXECUTOR_NAME)
+                .register(registry);
+            Gauge.builder("executor.queued", () -> 0)
+                .description("Tasks queued; always 0, tasks over the limit are rejected")
+                .tag("name", EXECUTOR_NAME)
+                .register(registry);
+        }
+        return executor;
+    }
+
+    private static Counter rejectedCounter(MeterRegistry registry) {
+        return registry == null ? null : Counter.builder("executor.rejected")
+            .description("Tasks rejected because the executor was saturated")
+            .tag("name", EXECUTOR_NAME)
+            .register(registry);
+    }
+
+    /**
+     * Count and reject tasks the pool cannot accept.
+     */
+    private static RejectedExecutionHandler rejectionHandler(Counter rejected) {
+        return (task, executor) -> {
+            if (rejected != null) {
+                rejected.increment();
+            }
+            throw new RejectedExecutionException("Database executor saturated: " + executor.getQueue().size()
+                + " tasks queued");
+        };
+    }
+}
@@ -0,0 +1,40 @@
+package com.algobrewery.auth.config;
+
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Migrates new and existing databases along the same path. Databases created by Hibernate before
+ * the migrations were applied have no schema history; they are baselined at {@link #BASELINE_VERSION}
+ * ({@code spring.flyway.baseline-on-migrate}) and upgraded by V6 onwards. An empty database first
+ * receives that same schema from {@link #BASELINE_SCHEMA}, since V1-V5 cannot be applied as shipped.
+ */
+@Component
+public class BaselineMigrationStrategy implements FlywayMigrationStrategy {
+
+    private static final Logger logger = LoggerFactory.getLogger(BaselineMigrationStrategy.class);
+
+    public static final String BASELINE_VERSION = "5";
+    public static final String BASELINE_SCHEMA = "db/baseline/schema.sql";
+
+    private static final String SELECT_ROLES_MISSING = "SELECT to_regclass('roles') IS NULL";
+
+    @Override
+    public void migrate(Flyway flyway) {
+        DataSource dataSource = flyway.getConfiguration().getDataSource();
+        if (flyway.info().current() == null
+                && Boolean.TRUE.equals(new JdbcTemplate(dataSource).queryForObject(SELECT_ROLES_MISSING, Boolean.class))) {
+            logger.info("Creating the baseline schema (version {}) in an empty database", BASELINE_VERSION);
+            new ResourceDatabasePopulator(new ClassPathResource(BASELINE_SCHEMA)).execute(dataSource);
+        }
+        flyway.migrate();
+    }
+}
@@ -1,25 +1,109 @@
 package com.algobrewery.auth.config;
 
+import com.algobrewery.auth.cache.CacheKeys;
+import com.algobrewery.auth.cache.CacheTagIndex;
+import com.algobrewery.auth.cache.RedisCacheStore;
+import com.algobrewery.auth.cache.TaggedCache;
+import com.algobrewery.auth.cache.TwoTierCache;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.Arrays;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
- * Cache configuration - using in-memory caching when Redis is not available.
+ * Cache configuration - bounded, TTL-aware in-memory caches backed by Caffeine.
+ * Each cache gets its own maximum size and expire-after-write from {@code app.cache.*}
+ * and records statistics, which Actuator exposes as {@code cache.*} metrics.
+ * <p>
+ * Caches run in async mode: {@code @Cacheable(sync = true)} methods returning
+ * {@code CompletableFuture} store the completed value, concurrent misses for the same key
+ * share one in-flight load, and exceptionally completed loads are never cached.
+ * Every cache is wrapped in a {@link TaggedCache} so writes can evict entries by tag.
+ * When a {@link RedisCacheStore} is configured (see {@link RedisCacheConfig}), the Caffeine
+ * caches become the L1 tier of a {@link TwoTierCache} shared through Redis, whose lookups run
+ * on the {@code dbExecutor}.
  */
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
+    @Value("${app.cache.ttl.roles:300000}")
+    private long rolesTtlMillis;
+
+    @Value("${app.cache.ttl.permissions:60000}")
+    private long permissionsTtlMillis;
+
+    @Value("${app.cache.ttl.user-roles:300000}")
+    private long userRolesTtlMillis;
+
+    @Value("${app.cache.max-size.roles:10000}")
+    private long rolesMaxSize;
+
+    @Value("${app.cache.max-size.permissions:100000}")
+    private long permissionsMaxSize;
+
+    @Value("${app.cache.max-size.user-roles:50000}")
+    private long userRolesMaxSize;
+
     @Bean
-    public CacheManager cacheManager() {
-        // Use simple in-memory caching when Redis is not available
-        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
-        cacheManager.setCacheNames(Arrays.asList("roles", "permissions", "user_roles"));
+    public CacheManager cacheManager(ObjectProvider<RedisCacheStore> redisCacheStore,
+                                     @Qualifier("dbExecutor") Executor dbExecutor) {
+        RedisCacheStore sharedStore = redisCacheStore.getIfAvailable();
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(
+            buildCache(CacheKeys.ROLES, rolesTtlMillis, rolesMaxSize, sharedStore, dbExecutor),
+            buildCache(CacheKeys.PERMISSIONS, permissionsTtlMillis, permissionsMaxSize, sharedStore, dbExecutor),
+            buildCache(CacheKeys.USER_ROLES, userRolesTtlMillis, userRolesMaxSize, sharedStore, dbExecutor)));
         return cacheManager;
     }
+
+    /**
+     * Bind Caffeine statistics of tagged caches, which Actuator cannot unwrap on its own.
+     */
+    @Bean
+    public CacheMeterBinderProvider<TaggedCache> taggedCacheMeterBinderProvider() {
+        return new CacheMeterBinderProvider<TaggedCache>() {
+            @Override
+            public MeterBinder getMeterBinder(TaggedCache cache, Iterable<Tag> tags) {
+                Cache delegate = cache.getDelegate() instanceof TwoTierCache twoTierCache
+                    ? twoTierCache.getLocal() : cache.getDelegate();
+                if (delegate instanceof CaffeineCache caffeineCache) {
+                    return new CaffeineCacheMetrics<>(caffeineCache.getNativeCache(), cache.getName(), tags);
+                }
+                return null;
+            }
+        };
+    }
+
+    private Cache buildCache(String name, long ttlMillis, long maxSize, RedisCacheStore sharedStore,
+                             Executor executor) {
+        CacheTagIndex index = new CacheTagIndex();
+        AsyncCache<Object, Object> cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofMillis(ttlMillis))
+            .evictionListener((key, value, cause) -> index.unregister(key))
+            .recordStats()
+            .buildAsync();
+        Cache local = new CaffeineCache(name, cache, true);
+        if (sharedStore != null) {
+            return new TaggedCache(new TwoTierCache(local, sharedStore, Duration.ofMillis(ttlMillis), executor), index);
+        }
+        return new TaggedCache(local, index);
+    }
 }
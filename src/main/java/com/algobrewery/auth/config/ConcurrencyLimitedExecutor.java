@@ -0,0 +1,62 @@
+package com.algobrewery.auth.config;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executor that runs at most {@code limit} tasks of its delegate at once and rejects the rest
+ * with {@link RejectedExecutionException}, instead of blocking the caller until a task finishes.
+ */
+class ConcurrencyLimitedExecutor implements Executor {
+
+    private final Executor delegate;
+    private final Semaphore permits;
+    private final int limit;
+    private final AtomicLong rejected = new AtomicLong();
+    private final Runnable onReject;
+
+    ConcurrencyLimitedExecutor(Executor delegate, int limit, Runnable onReject) {
+        this.delegate = delegate;
+        this.permits = new Semaphore(limit);
+        this.limit = limit;
+        this.onReject = onReject;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (!permits.tryAcquire()) {
+            rejected.incrementAndGet();
+            onReject.run();
+            throw new RejectedExecutionException("Database executor saturated: " + limit + " tasks in flight");
+        }
+        try {
+            delegate.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RuntimeException | Error e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Tasks accepted and not yet finished.
+     */
+    int getInFlight() {
+        return limit - permits.availablePermits();
+    }
+
+    long getRejected() {
+        return rejected.get();
+    }
+}
@@ -0,0 +1,35 @@
+package com.algobrewery.auth.config;
+
+import com.algobrewery.auth.cache.CacheInvalidator;
+import com.algobrewery.auth.cache.PostgresInvalidationListener;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cross-replica cache invalidation through Postgres {@code LISTEN/NOTIFY}, enabled with
+ * {@code app.cache.pg-notify.enabled}. Requires the notification triggers from V8; no Redis
+ * is involved. The listener connects with the application's datasource settings.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.cache.pg-notify.enabled", havingValue = "true")
+public class PostgresNotifyConfig {
+
+    @Value("${app.cache.pg-notify.poll-timeout-ms:1000}")
+    private int pollTimeoutMs;
+
+    @Value("${app.cache.pg-notify.reconnect-delay-ms:5000}")
+    private long reconnectDelayMs;
+
+    @Bean
+    public PostgresInvalidationListener postgresInvalidationListener(CacheInvalidator cacheInvalidator,
+                                                                     ObjectMapper objectMapper,
+                                                                     DataSourceProperties dataSourceProperties) {
+        return new PostgresInvalidationListener(cacheInvalidator, objectMapper,
+            dataSourceProperties.determineUrl(), dataSourceProperties.determineUsername(),
+            dataSourceProperties.determinePassword(), pollTimeoutMs, reconnectDelayMs);
+    }
+}
@@ -0,0 +1,113 @@
+package com.algobrewery.auth.config;
+
+import com.algobrewery.auth.cache.CacheInvalidationListener;
+import com.algobrewery.auth.cache.CacheInvalidationPublisher;
+import com.algobrewery.auth.cache.CacheInvalidator;
+import com.algobrewery.auth.cache.RedisCacheStore;
+import com.algobrewery.auth.model.RoleManagementType;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Shared Redis tier for the service caches, enabled with {@code app.cache.redis.enabled}.
+ * Each cache becomes an in-process near cache in front of Redis, and cache invalidations
+ * are published on a channel so every replica drops its in-process entries.
+ * Redis auto-configuration stays excluded; the connection is built from {@code app.cache.redis.*}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.cache.redis.enabled", havingValue = "true")
+public class RedisCacheConfig {
+
+    @Value("${app.cache.redis.host:localhost}")
+    private String host;
+
+    @Value("${app.cache.redis.port:6379}")
+    private int port;
+
+    @Value("${app.cache.redis.password:}")
+    private String password;
+
+    @Value("${app.cache.redis.key-prefix:rp:cache:}")
+    private String keyPrefix;
+
+    @Value("${app.cache.redis.channel:rp:cache:invalidation}")
+    private String channel;
+
+    @Bean
+    public LettuceConnectionFactory cacheRedisConnectionFactory() {
+        RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(host, port);
+        if (!password.isEmpty()) {
+            configuration.setPassword(password);
+        }
+        return new LettuceConnectionFactory(configuration);
+    }
+
+    @Bean
+    public RedisCacheStore redisCacheStore(RedisConnectionFactory connectionFactory, ObjectMapper objectMapper) {
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(StringRedisSerializer.UTF_8);
+        template.setValueSerializer(new GenericJackson2JsonRedisSerializer(cacheValueMapper(objectMapper)));
+        template.afterPropertiesSet();
+        return new RedisCacheStore(template, keyPrefix);
+    }
+
+    /**
+     * Mapper for cached values. Values are DTOs, lists and Optionals, so they carry their type;
+     * only the types the caches hold may be named, so Redis contents cannot instantiate arbitrary classes.
+     */
+    public static ObjectMapper cacheValueMapper(ObjectMapper objectMapper) {
+        BasicPolymorphicTypeValidator typeValidator = BasicPolymorphicTypeValidator.builder()
+            .allowIfSubType("com.algobrewery.auth.dto.")
+            .allowIfSubType(RoleManagementType.class)
+            .allowIfSubType(JsonNode.class)
+            .allowIfSubType(ArrayList.class)
+            .allowIfSubType(Optional.class)
+            .allowIfSubType(UUID.class)
+            .allowIfSubType(Instant.class)
+            .build();
+        ObjectMapper valueMapper = objectMapper.copy().registerModule(new Jdk8Module());
+        valueMapper.activateDefaultTyping(typeValidator, ObjectMapper.DefaultTyping.EVERYTHING, JsonTypeInfo.As.PROPERTY);
+        return valueMapper;
+    }
+
+    @Bean
+    public CacheInvalidationPublisher cacheInvalidationPublisher(RedisConnectionFactory connectionFactory,
+                                                                 ObjectMapper objectMapper) {
+        return new CacheInvalidationPublisher(new StringRedisTemplate(connectionFactory), objectMapper, channel);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                           CacheInvalidator cacheInvalidator,
+                                                                           CacheInvalidationPublisher publisher,
+                                                                           ObjectMapper objectMapper) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+            new CacheInvalidationListener(cacheInvalidator, objectMapper, publisher.getNodeId()),
+            new ChannelTopic(publisher.getChannel()));
+        return container;
+    }
+}
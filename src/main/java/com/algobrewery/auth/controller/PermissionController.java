@@ -1,8 +1,12 @@
 package com.algobrewery.auth.controller;
 
+import com.algobrewery.auth.dto.BatchPermissionCheckRequest;
+import com.algobrewery.auth.dto.BatchPermissionCheckResponse;
 import com.algobrewery.auth.dto.PermissionCheckRequest;
 import com.algobrewery.auth.dto.PermissionCheckResponse;
 import com.algobrewery.auth.dto.EndpointPermissionCheckRequest;
+import com.algobrewery.auth.dto.WhoCanAccessResponse;
+import com.algobrewery.auth.metrics.PermissionMetrics;
 import com.algobrewery.auth.service.PermissionService;
 import com.algobrewery.auth.util.HeaderValidationUtil;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,8 +17,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * REST controller for permission checking operations.
+ * Handlers return the service futures so request threads are released while checks run.
+ * Checks are timed around the cached service calls so that cache hits are measured too.
  */
 @RestController
 @CrossOrigin(origins = "*")
@@ -22,11 +30,15 @@ public class PermissionController {
 
     private static final Logger logger = LoggerFactory.getLogger(PermissionController.class);
 
+    private static final int MAX_WHO_CAN_ACCESS_PAGE_SIZE = 1000;
+
     private final PermissionService permissionService;
+    private final PermissionMetrics permissionMetrics;
 
     @Autowired
-    public PermissionController(PermissionService permissionService) {
+    public PermissionController(PermissionService permissionService, PermissionMetrics permissionMetrics) {
         this.permissionService = permissionService;
+        this.permissionMetrics = permissionMetrics;
     }
 
     /**
@@ -35,7 +47,7 @@ public class PermissionController {
      * User UUID and Organization UUID are now provided via headers.
      */
     @PostMapping("/permission/check")
-    public ResponseEntity<PermissionCheckResponse> checkPermission(
+    public CompletableFuture<ResponseEntity<PermissionCheckResponse>> checkPermission(
             @Valid @RequestBody PermissionCheckRequest request,
             HttpServletRequest httpRequest) {
         
@@ -48,9 +60,9 @@ public class PermissionController {
         logger.debug("Checking permission for user: {}, action: {}, resource: {}", 
                     userUuid, request.getAction(), request.getResource());
         
-        PermissionCheckResponse response = permissionService.checkPermission(
-            userUuid, organizationUuid, request).join();
-        return ResponseEntity.ok(response);
+        return permissionMetrics.recordCheck(PermissionMetrics.ACTION,
+                () -> permissionService.checkPermission(userUuid, organizationUuid, request))
+            .thenApply(ResponseEntity::ok);
     }
 
     /**
@@ -59,7 +71,7 @@ public class PermissionController {
      * User UUID and Organization UUID are now provided via headers.
      */
     @PostMapping("/has-permission")
-    public ResponseEntity<PermissionCheckResponse> hasPermission(
+    public CompletableFuture<ResponseEntity<PermissionCheckResponse>> hasPermission(
             @Valid @RequestBody PermissionCheckRequest request,
             HttpServletRequest httpRequest) {
         
@@ -72,9 +84,9 @@ public class PermissionController {
         logger.debug("Checking permission for user: {}, action: {}, resource: {}", 
                     userUuid, request.getAction(), request.getResource());
         
-        PermissionCheckResponse response = permissionService.checkPermission(
-            userUuid, organizationUuid, request).join();
-        return ResponseEntity.ok(response);
+        return permissionMetrics.recordCheck(PermissionMetrics.ACTION,
+                () -> permissionService.checkPermission(userUuid, organizationUuid, request))
+            .thenApply(ResponseEntity::ok);
     }
 
     /**
@@ -83,7 +95,7 @@ public class PermissionController {
      * User UUID and Organization UUID are now provided via headers.
      */
     @PostMapping("/check-permission")
-    public ResponseEntity<PermissionCheckResponse> checkPermissionByEndpoint(
+    public CompletableFuture<ResponseEntity<PermissionCheckResponse>> checkPermissionByEndpoint(
             @Valid @RequestBody EndpointPermissionCheckRequest request,
             HttpServletRequest httpRequest) {
         
@@ -101,8 +113,62 @@ public class PermissionController {
         serviceRequest.setEndpoint(request.getEndpoint());
         serviceRequest.setResourceId(request.getResourceId());
         
-        PermissionCheckResponse response = permissionService.checkPermissionByEndpoint(
-            userUuid, organizationUuid, serviceRequest).join();
-        return ResponseEntity.ok(response);
+        return permissionMetrics.recordCheck(PermissionMetrics.ENDPOINT,
+                () -> permissionService.checkPermissionByEndpoint(userUuid, organizationUuid, serviceRequest))
+            .thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * Check several permissions for one user in a single call.
+     * POST /permission/check-batch
+     * User UUID and Organization UUID are provided via headers; results are returned in request order.
+     */
+    @PostMapping("/permission/check-batch")
+    public CompletableFuture<ResponseEntity<BatchPermissionCheckResponse>> checkPermissions(
+            @Valid @RequestBody BatchPermissionCheckRequest request,
+            HttpServletRequest httpRequest) {
+        
+        // Validate required headers
+        HeaderValidationUtil.validateRequiredHeaders(httpRequest);
+        
+        String userUuid = HeaderValidationUtil.getUserUuid(httpRequest);
+        String organizationUuid = HeaderValidationUtil.getOrganizationUuid(httpRequest);
+        
+        logger.debug("Checking {} permissions for user: {}", request.getChecks().size(), userUuid);
+        
+        return permissionMetrics.recordBatch(
+                () -> permissionService.checkPermissions(userUuid, organizationUuid, request.getChecks()))
+            .thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * List the users of an organization who can perform an action on a resource.
+     * GET /permission/who-can-access?action={action}&resource={resource}&page_size={n}&page_token={token}
+     * Organization UUID is provided via x-app-org-uuid header.
+     */
+    @GetMapping("/permission/who-can-access")
+    public CompletableFuture<ResponseEntity<WhoCanAccessResponse>> getUsersWithAccess(
+            @RequestParam String action,
+            @RequestParam String resource,
+            @RequestParam(name = "page_size", defaultValue = "100") int pageSize,
+            @RequestParam(name = "page_token", required = false) String pageToken,
+            HttpServletRequest httpRequest) {
+        
+        // Validate required headers
+        HeaderValidationUtil.validateOrganizationHeader(httpRequest);
+        
+        String organizationUuid = HeaderValidationUtil.getOrganizationUuid(httpRequest);
+        
+        if (action.isBlank() || resource.isBlank()) {
+            throw new IllegalArgumentException("Action and resource are required");
+        }
+        if (pageSize < 1 || pageSize > MAX_WHO_CAN_ACCESS_PAGE_SIZE) {
+            throw new IllegalArgumentException("page_size must be between 1 and " + MAX_WHO_CAN_ACCESS_PAGE_SIZE);
+        }
+        
+        logger.debug("Listing users who can {} {} in organization: {}", action, resource, organizationUuid);
+        
+        return permissionService.getUsersWithAccess(organizationUuid, action, resource, pageToken, pageSize)
+            .thenApply(ResponseEntity::ok);
     }
 }
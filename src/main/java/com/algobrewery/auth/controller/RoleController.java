@@ -1,5 +1,6 @@
 package com.algobrewery.auth.controller;
 
+import com.algobrewery.auth.dto.PageResponse;
 import com.algobrewery.auth.dto.RoleRequest;
 import com.algobrewery.auth.dto.RoleResponse;
 import com.algobrewery.auth.service.RoleService;
@@ -10,15 +11,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * REST controller for role management operations.
+ * Handlers return the service futures so request threads are released while the database work runs.
  */
 @RestController
 @RequestMapping("/role")
@@ -27,6 +32,9 @@ public class RoleController {
 
     private static final Logger logger = LoggerFactory.getLogger(RoleController.class);
 
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final RoleService roleService;
 
     @Autowired
@@ -40,8 +48,8 @@ public class RoleController {
      * Organization UUID is now provided via x-app-org-uuid header.
      */
     @PostMapping
-    public ResponseEntity<RoleResponse> createRole(@Valid @RequestBody RoleRequest request,
-                                                  HttpServletRequest httpRequest) {
+    public CompletableFuture<ResponseEntity<RoleResponse>> createRole(@Valid @RequestBody RoleRequest request,
+                                                                     HttpServletRequest httpRequest) {
         // Validate required headers
         HeaderValidationUtil.validateRequiredHeaders(httpRequest);
         
@@ -53,8 +61,8 @@ public class RoleController {
         
         logger.info("Creating role: {} in organization: {}", request.getRoleName(), organizationUuid);
         
-        RoleResponse response = roleService.createRole(request, userUuid).join();
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        return roleService.createRole(request, userUuid)
+            .thenApply(response -> ResponseEntity.status(HttpStatus.CREATED).body(response));
     }
 
     /**
@@ -63,9 +71,9 @@ public class RoleController {
      * Organization UUID is now provided via x-app-org-uuid header.
      */
     @PutMapping("/{roleUuid}")
-    public ResponseEntity<RoleResponse> updateRole(@PathVariable UUID roleUuid,
-                                                  @Valid @RequestBody RoleRequest request,
-                                                  HttpServletRequest httpRequest) {
+    public CompletableFuture<ResponseEntity<RoleResponse>> updateRole(@PathVariable UUID roleUuid,
+                                                                     @Valid @RequestBody RoleRequest request,
+                                                                     HttpServletRequest httpRequest) {
         // Validate required headers
         HeaderValidationUtil.validateRequiredHeaders(httpRequest);
         
@@ -77,8 +85,8 @@ public class RoleController {
         
         logger.info("Updating role: {} in organization: {}", roleUuid, organizationUuid);
         
-        RoleResponse response = roleService.updateRole(roleUuid, request).join();
-        return ResponseEntity.ok(response);
+        return roleService.updateRole(roleUuid, request)
+            .thenApply(ResponseEntity::ok);
     }
 
     /**
@@ -87,8 +95,8 @@ public class RoleController {
      * Organization UUID is now provided via x-app-org-uuid header.
      */
     @DeleteMapping("/{roleUuid}")
-    public ResponseEntity<Void> deleteRole(@PathVariable UUID roleUuid,
-                                          HttpServletRequest httpRequest) {
+    public CompletableFuture<ResponseEntity<Void>> deleteRole(@PathVariable UUID roleUuid,
+                                                             HttpServletRequest httpRequest) {
         // Validate required headers
         HeaderValidationUtil.validateRequiredHeaders(httpRequest);
         
@@ -97,8 +105,8 @@ public class RoleController {
         
         logger.info("Deleting role: {} in organization: {}", roleUuid, organizationUuid);
         
-        roleService.deleteRole(roleUuid).join();
-        return ResponseEntity.noContent().build();
+        return roleService.deleteRole(roleUuid)
+            .thenApply(ignored -> ResponseEntity.noContent().<Void>build());
     }
 
     /**
@@ -106,34 +114,93 @@ public class RoleController {
      * GET /role/{role_uuid}
      */
     @GetMapping("/{roleUuid}")
-    public ResponseEntity<RoleResponse> getRole(@PathVariable UUID roleUuid) {
+    public CompletableFuture<ResponseEntity<RoleResponse>> getRole(@PathVariable UUID roleUuid) {
         logger.debug("Getting role: {}", roleUuid);
         
-        RoleResponse response = roleService.getRole(roleUuid).join();
-        return ResponseEntity.ok(response);
+        return roleService.getRole(roleUuid)
+            .thenApply(ResponseEntity::ok);
     }
 
     /**
      * Get roles by organization UUID.
-     * GET /role/organization
+     * GET /role/organization?action={action}&resource={resource}
      * Organization UUID is now provided via x-app-org-uuid header.
+     * When action and resource are given, only roles granting that action on the resource are returned.
      */
     @GetMapping("/organization")
-    public ResponseEntity<List<RoleResponse>> getRolesByOrganization(HttpServletRequest httpRequest) {
+    public CompletableFuture<ResponseEntity<List<RoleResponse>>> getRolesByOrganization(
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) String resource,
+            HttpServletRequest httpRequest) {
         // Validate required headers
         HeaderValidationUtil.validateOrganizationHeader(httpRequest);
         
         String organizationUuid = HeaderValidationUtil.getOrganizationUuid(httpRequest);
         
-        logger.debug("Getting roles for organization: {}", organizationUuid);
+        boolean hasAction = action != null && !action.isBlank();
+        boolean hasResource = resource != null && !resource.isBlank();
+        if (hasAction != hasResource) {
+            throw new IllegalArgumentException("Both action and resource are required to filter roles");
+        }
         
-        try {
-            List<RoleResponse> responses = roleService.getRolesByOrganization(organizationUuid).join();
-            return ResponseEntity.ok(responses);
-        } catch (Exception e) {
-            logger.error("Error getting roles for organization: {}", e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        CompletableFuture<List<RoleResponse>> roles;
+        if (hasAction) {
+            logger.debug("Getting roles granting {} on {} for organization: {}", action, resource, organizationUuid);
+            roles = roleService.getRolesByOrganizationGranting(organizationUuid, action, resource);
+        } else {
+            logger.debug("Getting roles for organization: {}", organizationUuid);
+            roles = roleService.getRolesByOrganization(organizationUuid);
         }
+        
+        return roles
+            .thenApply(ResponseEntity::ok)
+            .exceptionally(e -> {
+                logger.error("Error getting roles for organization: {}", e.getMessage(), e);
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            });
+    }
+
+    /**
+     * Get one page of the roles of an organization, oldest first.
+     * GET /role/organization/page?page_size={n}&page_token={token}
+     * Organization UUID is provided via x-app-org-uuid header.
+     */
+    @GetMapping("/organization/page")
+    public CompletableFuture<ResponseEntity<PageResponse<RoleResponse>>> getRolesByOrganizationPage(
+            @RequestParam(name = "page_size", defaultValue = "100") int pageSize,
+            @RequestParam(name = "page_token", required = false) String pageToken,
+            HttpServletRequest httpRequest) {
+        // Validate required headers
+        HeaderValidationUtil.validateOrganizationHeader(httpRequest);
+        
+        String organizationUuid = HeaderValidationUtil.getOrganizationUuid(httpRequest);
+        
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("page_size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        
+        logger.debug("Getting a page of roles for organization: {}", organizationUuid);
+        
+        return roleService.getRolesByOrganizationPage(organizationUuid, pageToken, pageSize)
+            .thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * Export all roles of an organization as newline-delimited JSON, oldest first.
+     * GET /role/organization/export
+     * Organization UUID is provided via x-app-org-uuid header.
+     */
+    @GetMapping("/organization/export")
+    public ResponseEntity<StreamingResponseBody> exportRolesByOrganization(HttpServletRequest httpRequest) {
+        // Validate required headers
+        HeaderValidationUtil.validateOrganizationHeader(httpRequest);
+        
+        String organizationUuid = HeaderValidationUtil.getOrganizationUuid(httpRequest);
+        
+        StreamingResponseBody body = outputStream -> roleService.exportRolesByOrganization(organizationUuid, outputStream);
+        return ResponseEntity.ok()
+            .contentType(NDJSON)
+            .body(body);
     }
 
     /**
@@ -141,15 +208,14 @@ public class RoleController {
      * GET /role/system-managed
      */
     @GetMapping("/system-managed")
-    public ResponseEntity<List<RoleResponse>> getSystemManagedRoles() {
+    public CompletableFuture<ResponseEntity<List<RoleResponse>>> getSystemManagedRoles() {
         logger.debug("Getting system-managed roles");
         
-        try {
-            List<RoleResponse> responses = roleService.getSystemManagedRoles().join();
-            return ResponseEntity.ok(responses);
-        } catch (Exception e) {
-            logger.error("Error getting system-managed roles: {}", e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        return roleService.getSystemManagedRoles()
+            .thenApply(ResponseEntity::ok)
+            .exceptionally(e -> {
+                logger.error("Error getting system-managed roles: {}", e.getMessage(), e);
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            });
     }
 }
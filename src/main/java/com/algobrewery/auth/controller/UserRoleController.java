@@ -1,5 +1,9 @@
 package com.algobrewery.auth.controller;
 
+import com.algobrewery.auth.dto.BulkRoleAssignmentRequest;
+import com.algobrewery.auth.dto.BulkRoleAssignmentResponse;
+import com.algobrewery.auth.dto.EffectivePermissionsResponse;
+import com.algobrewery.auth.dto.PageResponse;
 import com.algobrewery.auth.dto.UserRoleAssignmentRequest;
 import com.algobrewery.auth.dto.UserRoleAssignmentResponse;
 import com.algobrewery.auth.service.UserRoleService;
@@ -9,15 +13,21 @@ import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * REST controller for user-role assignment operations.
+ * Handlers return the service futures so request threads are released while the database work runs.
  */
 @RestController
 @RequestMapping("/user")
@@ -26,6 +36,9 @@ public class UserRoleController {
 
     private static final Logger logger = LoggerFactory.getLogger(UserRoleController.class);
 
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final UserRoleService userRoleService;
 
     @Autowired
@@ -39,7 +52,7 @@ public class UserRoleController {
      * Organization UUID is now provided via x-app-org-uuid header.
      */
     @PostMapping("/{userUuid}/roles")
-    public ResponseEntity<UserRoleAssignmentResponse> assignRoleToUser(
+    public CompletableFuture<ResponseEntity<UserRoleAssignmentResponse>> assignRoleToUser(
             @PathVariable String userUuid,
             @Valid @RequestBody UserRoleAssignmentRequest request,
             HttpServletRequest httpRequest) {
@@ -53,9 +66,77 @@ public class UserRoleController {
         logger.info("Assigning role {} to user {} in organization {}", 
                    request.getRoleUuid(), userUuid, organizationUuid);
         
-        UserRoleAssignmentResponse response = userRoleService.assignRoleToUser(
-            userUuid, request.getRoleUuid(), organizationUuid, assignerUuid).join();
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        return userRoleService.assignRoleToUser(
+            userUuid, request.getRoleUuid(), organizationUuid, assignerUuid)
+            .thenApply(response -> ResponseEntity.status(HttpStatus.CREATED).body(response));
+    }
+
+    /**
+     * Assign roles to many users of an organization in one request.
+     * POST /user/roles/bulk
+     * Organization UUID and assigner UUID are provided via headers; each assignment gets its own result.
+     */
+    @PostMapping("/roles/bulk")
+    public CompletableFuture<ResponseEntity<BulkRoleAssignmentResponse>> assignRolesToUsers(
+            @Valid @RequestBody BulkRoleAssignmentRequest request,
+            HttpServletRequest httpRequest) {
+        
+        // Validate required headers
+        HeaderValidationUtil.validateRequiredHeaders(httpRequest);
+        
+        String organizationUuid = HeaderValidationUtil.getOrganizationUuid(httpRequest);
+        String assignerUuid = HeaderValidationUtil.getUserUuid(httpRequest);
+        
+        logger.info("Bulk assigning {} roles in organization {}", request.getAssignments().size(), organizationUuid);
+        
+        return userRoleService.assignRolesToUsers(request.getAssignments(), organizationUuid, assignerUuid)
+            .thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * Get one page of the role assignments of an organization, oldest first.
+     * GET /user/roles/organization/page?page_size={n}&page_token={token}
+     * Organization UUID is provided via x-app-org-uuid header.
+     */
+    @GetMapping("/roles/organization/page")
+    public CompletableFuture<ResponseEntity<PageResponse<UserRoleAssignmentResponse>>> getUserRolesByOrganizationPage(
+            @RequestParam(name = "page_size", defaultValue = "100") int pageSize,
+            @RequestParam(name = "page_token", required = false) String pageToken,
+            HttpServletRequest httpRequest) {
+        
+        // Validate required headers
+        HeaderValidationUtil.validateOrganizationHeader(httpRequest);
+        
+        String organizationUuid = HeaderValidationUtil.getOrganizationUuid(httpRequest);
+        
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("page_size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        
+        logger.debug("Getting a page of user roles for organization: {}", organizationUuid);
+        
+        return userRoleService.getUserRolesByOrganizationPage(organizationUuid, pageToken, pageSize)
+            .thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * Export all role assignments of an organization as newline-delimited JSON, oldest first.
+     * GET /user/roles/organization/export
+     * Organization UUID is provided via x-app-org-uuid header.
+     */
+    @GetMapping("/roles/organization/export")
+    public ResponseEntity<StreamingResponseBody> exportUserRolesByOrganization(HttpServletRequest httpRequest) {
+        
+        // Validate required headers
+        HeaderValidationUtil.validateOrganizationHeader(httpRequest);
+        
+        String organizationUuid = HeaderValidationUtil.getOrganizationUuid(httpRequest);
+        
+        StreamingResponseBody body = outputStream ->
+            userRoleService.exportUserRolesByOrganization(organizationUuid, outputStream);
+        return ResponseEntity.ok()
+            .contentType(NDJSON)
+            .body(body);
     }
 
     /**
@@ -64,7 +145,7 @@ public class UserRoleController {
      * Organization UUID is now provided via x-app-org-uuid header.
      */
     @DeleteMapping("/{userUuid}/roles/{roleUuid}")
-    public ResponseEntity<Void> removeRoleFromUser(
+    public CompletableFuture<ResponseEntity<Void>> removeRoleFromUser(
             @PathVariable String userUuid,
             @PathVariable String roleUuid,
             HttpServletRequest httpRequest) {
@@ -77,8 +158,8 @@ public class UserRoleController {
         logger.info("Removing role {} from user {} in organization {}", 
                    roleUuid, userUuid, organizationUuid);
         
-        userRoleService.removeRoleFromUser(userUuid, roleUuid, organizationUuid).join();
-        return ResponseEntity.noContent().build();
+        return userRoleService.removeRoleFromUser(userUuid, roleUuid, organizationUuid)
+            .thenApply(ignored -> ResponseEntity.noContent().<Void>build());
     }
 
     /**
@@ -87,7 +168,7 @@ public class UserRoleController {
      * Organization UUID is now provided via x-app-org-uuid header.
      */
     @GetMapping("/{userUuid}/roles")
-    public ResponseEntity<List<UserRoleAssignmentResponse>> getUserRoles(
+    public CompletableFuture<ResponseEntity<List<UserRoleAssignmentResponse>>> getUserRoles(
             @PathVariable String userUuid,
             HttpServletRequest httpRequest) {
         
@@ -98,7 +179,70 @@ public class UserRoleController {
         
         logger.debug("Getting roles for user {} in organization {}", userUuid, organizationUuid);
         
-        List<UserRoleAssignmentResponse> responses = userRoleService.getUserRoles(userUuid, organizationUuid).join();
-        return ResponseEntity.ok(responses);
+        return userRoleService.getUserRoles(userUuid, organizationUuid)
+            .thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * Get the effective permissions of a user, merged across all roles.
+     * GET /user/{user_uuid}/effective-permissions
+     * Organization UUID is provided via x-app-org-uuid header.
+     * The response carries an ETag; clients revalidate with If-None-Match and get 304 when unchanged.
+     */
+    @GetMapping("/{userUuid}/effective-permissions")
+    public CompletableFuture<ResponseEntity<EffectivePermissionsResponse>> getEffectivePermissions(
+            @PathVariable String userUuid,
+            HttpServletRequest httpRequest) {
+        
+        // Validate required headers
+        HeaderValidationUtil.validateOrganizationHeader(httpRequest);
+        
+        String organizationUuid = HeaderValidationUtil.getOrganizationUuid(httpRequest);
+        
+        logger.debug("Getting effective permissions for user {} in organization {}", userUuid, organizationUuid);
+        
+        String ifNoneMatch = httpRequest.getHeader(HttpHeaders.IF_NONE_MATCH);
+        
+        return userRoleService.getEffectivePermissions(userUuid, organizationUuid)
+            .thenApply(response -> toConditionalResponse(response, ifNoneMatch));
+    }
+
+    /**
+     * Build the effective-permissions response, or 304 when the client's ETag is current.
+     */
+    private ResponseEntity<EffectivePermissionsResponse> toConditionalResponse(EffectivePermissionsResponse response,
+                                                                               String ifNoneMatch) {
+        String etag = "\"" + response.getVersion() + "\"";
+        
+        if (etagMatches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .build();
+        }
+        
+        return ResponseEntity.ok()
+            .eTag(etag)
+            .cacheControl(CacheControl.noCache().cachePrivate())
+            .body(response);
+    }
+
+    /**
+     * Check if an If-None-Match header value matches the given ETag, ignoring weak validators.
+     */
+    private boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
     }
 }
@@ -0,0 +1,25 @@
+package com.algobrewery.auth.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for batch permission check requests.
+ * User UUID and Organization UUID are provided via headers (x-app-user-uuid and x-app-org-uuid).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchPermissionCheckRequest {
+
+    @NotEmpty(message = "At least one check is required")
+    @Size(max = 100, message = "A batch must not exceed 100 checks")
+    @Valid
+    private List<PermissionCheckItem> checks;
+}
@@ -0,0 +1,19 @@
+package com.algobrewery.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for batch permission check responses.
+ * Results are returned in the same order as the checks in the request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchPermissionCheckResponse {
+
+    private List<PermissionCheckResponse> results;
+}
@@ -0,0 +1,25 @@
+package com.algobrewery.auth.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for bulk user-role assignment requests.
+ * Organization UUID and assigner UUID are provided via headers (x-app-org-uuid and x-app-user-uuid).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRoleAssignmentRequest {
+
+    @NotEmpty(message = "At least one assignment is required")
+    @Size(max = 5000, message = "A bulk request must not exceed 5000 assignments")
+    @Valid
+    private List<RoleAssignmentItem> assignments;
+}
@@ -0,0 +1,30 @@
+package com.algobrewery.auth.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for bulk user-role assignment responses.
+ * Results are returned in the same order as the assignments in the request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRoleAssignmentResponse {
+
+    @JsonProperty("organization_uuid")
+    private String organizationUuid;
+
+    private int assigned;
+
+    @JsonProperty("already_assigned")
+    private int alreadyAssigned;
+
+    private int rejected;
+
+    private List<RoleAssignmentResult> results;
+}
@@ -0,0 +1,30 @@
+package com.algobrewery.auth.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * DTO for the merged set of permissions a user holds in an organization.
+ * The version changes whenever the granted permissions change and is used as the ETag.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EffectivePermissionsResponse {
+
+    @JsonProperty("user_uuid")
+    private String userUuid;
+
+    @JsonProperty("organization_uuid")
+    private String organizationUuid;
+
+    private String version;
+
+    // Action -> granted resources, merged across all of the user's roles
+    private Map<String, Set<String>> permissions;
+}
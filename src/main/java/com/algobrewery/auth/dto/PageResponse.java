@@ -0,0 +1,26 @@
+package com.algobrewery.auth.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for one page of a keyset-paginated listing.
+ * Pass next_page_token back as page_token to get the next page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageResponse<T> {
+
+    private List<T> items;
+
+    // Absent on the last page
+    @JsonProperty("next_page_token")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextPageToken;
+}
@@ -0,0 +1,27 @@
+package com.algobrewery.auth.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a single check inside a batch permission check request.
+ * Either an endpoint or an action and resource pair must be provided.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PermissionCheckItem {
+
+    private String action;
+
+    private String resource;
+
+    // Optional field for endpoint-based checks
+    private String endpoint;
+
+    // Optional field for resource ID
+    @JsonProperty("resource_id")
+    private String resourceId;
+}
@@ -0,0 +1,24 @@
+package com.algobrewery.auth.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a single (user, role) pair inside a bulk assignment request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoleAssignmentItem {
+
+    @NotBlank(message = "User UUID is required")
+    @JsonProperty("user_uuid")
+    private String userUuid;
+
+    @NotBlank(message = "Role UUID is required")
+    @JsonProperty("role_uuid")
+    private String roleUuid;
+}
@@ -0,0 +1,36 @@
+package com.algobrewery.auth.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * DTO for the outcome of a single assignment inside a bulk assignment response.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RoleAssignmentResult {
+
+    public static final String ASSIGNED = "assigned";
+    public static final String ALREADY_ASSIGNED = "already_assigned";
+    public static final String ROLE_NOT_FOUND = "role_not_found";
+    public static final String ROLE_NOT_IN_ORGANIZATION = "role_not_in_organization";
+
+    @JsonProperty("user_uuid")
+    private String userUuid;
+
+    @JsonProperty("role_uuid")
+    private String roleUuid;
+
+    private String status;
+
+    // Only set for newly created assignments
+    @JsonProperty("user_role_uuid")
+    private UUID userRoleUuid;
+}
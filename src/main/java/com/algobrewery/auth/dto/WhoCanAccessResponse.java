@@ -0,0 +1,33 @@
+package com.algobrewery.auth.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for one page of the users granted an action on a resource in an organization.
+ * Users are ordered by UUID; pass next_page_token back as page_token to get the next page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WhoCanAccessResponse {
+
+    @JsonProperty("organization_uuid")
+    private String organizationUuid;
+
+    private String action;
+
+    private String resource;
+
+    private List<String> users;
+
+    // Absent on the last page
+    @JsonProperty("next_page_token")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextPageToken;
+}
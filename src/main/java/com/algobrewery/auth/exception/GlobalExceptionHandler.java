@@ -13,6 +13,7 @@ import org.springframework.http.converter.HttpMessageNotReadableException;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Global exception handler for consistent error responses.
@@ -45,6 +46,9 @@ public class GlobalExceptionHandler {
         if (cause instanceof IllegalArgumentException) {
             return handleIllegalArgumentException((IllegalArgumentException) cause);
         }
+        if (cause instanceof RejectedExecutionException) {
+            return handleRejectedExecutionException((RejectedExecutionException) cause);
+        }
         
         // For other types of exceptions, return internal server error
         ErrorResponse error = new ErrorResponse(
@@ -57,6 +61,20 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
     }
 
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ErrorResponse> handleRejectedExecutionException(RejectedExecutionException ex) {
+        logger.warn("Rejected execution exception: {}", ex.getMessage());
+
+        ErrorResponse error = new ErrorResponse(
+            HttpStatus.SERVICE_UNAVAILABLE.value(),
+            "Service Unavailable",
+            "Server is busy, please retry",
+            Instant.now()
+        );
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleValidationException(MethodArgumentNotValidException ex) {
         logger.warn("Validation exception: {}", ex.getMessage());
@@ -0,0 +1,52 @@
+package com.algobrewery.auth.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for a cache miss, lasting until the loaded value is available.
+ * Keys are recorded by kind (e.g. {@code permission}) and pseudonym, since they contain user
+ * and organization ids.
+ */
+@Name("com.algobrewery.auth.CacheMiss")
+@Label("Cache Miss")
+@Category({"Roles and Permissions", "Cache"})
+@Description("Value loaded after a miss in every cache tier")
+@StackTrace(false)
+public class CacheMissEvent extends Event {
+
+    @Label("Cache")
+    String cache;
+
+    @Label("Key Kind")
+    String keyKind;
+
+    @Label("Key")
+    @Description("Pseudonym of the cache key")
+    String key;
+
+    @Label("Failed")
+    @Description("Whether the load completed exceptionally (the value is not cached)")
+    boolean failed;
+
+    /**
+     * End the event when the load completes and commit it if it passes the recording's settings.
+     */
+    public void commit(String cache, Object key, boolean failed) {
+        end();
+        if (!shouldCommit()) {
+            return;
+        }
+        String value = String.valueOf(key);
+        int separator = value.indexOf('|');
+        this.cache = cache;
+        this.keyKind = separator < 0 ? value : value.substring(0, separator);
+        this.key = PermissionCheckEvent.pseudonym(value);
+        this.failed = failed;
+        commit();
+    }
+}
@@ -0,0 +1,30 @@
+package com.algobrewery.auth.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for an endpoint that no endpoint mapping matches, which is always denied.
+ */
+@Name("com.algobrewery.auth.EndpointMappingMiss")
+@Label("Endpoint Mapping Miss")
+@Category({"Roles and Permissions", "Authorization"})
+@Description("Endpoint check for an endpoint without a mapping")
+@StackTrace(false)
+public class EndpointMappingMissEvent extends Event {
+
+    @Label("Endpoint")
+    String endpoint;
+
+    public static void emit(String endpoint) {
+        EndpointMappingMissEvent event = new EndpointMappingMissEvent();
+        if (event.shouldCommit()) {
+            event.endpoint = endpoint;
+            event.commit();
+        }
+    }
+}
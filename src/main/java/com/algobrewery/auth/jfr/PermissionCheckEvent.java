@@ -0,0 +1,99 @@
+package com.algobrewery.auth.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Flight Recorder event for one permission check (or batch of checks), from the role lookup to
+ * the decision. User and organization ids are recorded as stable pseudonyms so recordings can
+ * be shared without exposing them while still grouping checks by tenant.
+ * <p>
+ * Usage: {@code begin()} before looking up roles, {@link #addPolicyNodesVisited(int)} while
+ * evaluating when {@code isEnabled()}, then {@link #commit(String, String, String, String, int, int, boolean, String)}.
+ */
+@Name("com.algobrewery.auth.PermissionCheck")
+@Label("Permission Check")
+@Category({"Roles and Permissions", "Authorization"})
+@Description("Role lookup and policy evaluation for a permission check")
+@StackTrace(false)
+public class PermissionCheckEvent extends Event {
+
+    @Label("User")
+    @Description("Pseudonym of the user UUID")
+    String user;
+
+    @Label("Organization")
+    @Description("Pseudonym of the organization UUID")
+    String organization;
+
+    @Label("Action")
+    String action;
+
+    @Label("Resource")
+    String resource;
+
+    @Label("Checks")
+    @Description("Number of checks answered, greater than one for batches")
+    int checks;
+
+    @Label("Roles Evaluated")
+    int roles;
+
+    @Label("Policy Nodes Visited")
+    @Description("Bitset probes and wildcard trie nodes visited while evaluating the policies")
+    int policyNodesVisited;
+
+    @Label("Granted")
+    boolean granted;
+
+    @Label("Source")
+    @Description("Where the user's roles came from: database or model")
+    String source;
+
+    public void addPolicyNodesVisited(int visited) {
+        policyNodesVisited += visited;
+    }
+
+    /**
+     * Fill in the check and commit the event if it passes the recording's settings.
+     */
+    public void commit(String userUuid, String organizationUuid, String action, String resource,
+                       int checks, int roles, boolean granted, String source) {
+        if (!shouldCommit()) {
+            return;
+        }
+        this.user = pseudonym(userUuid);
+        this.organization = pseudonym(organizationUuid);
+        this.action = action;
+        this.resource = resource;
+        this.checks = checks;
+        this.roles = roles;
+        this.granted = granted;
+        this.source = source;
+        commit();
+    }
+
+    /**
+     * Stable, non-reversible short form of an identifier: the first 8 bytes of its SHA-256 in hex.
+     */
+    static String pseudonym(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
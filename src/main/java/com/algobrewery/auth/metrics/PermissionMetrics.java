@@ -0,0 +1,169 @@
+package com.algobrewery.auth.metrics;
+
+import com.algobrewery.auth.cache.CacheLookup;
+import com.algobrewery.auth.dto.BatchPermissionCheckResponse;
+import com.algobrewery.auth.dto.PermissionCheckResponse;
+import com.algobrewery.auth.policy.CompiledPolicyRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer metrics for permission decisions.
+ * <ul>
+ *   <li>{@code authz.check} - check latency as seen by the caller, with a percentile histogram,
+ *   tagged by {@code endpoint_type}, {@code decision}, {@code cache} (which tier answered) and
+ *   {@code roles} (bucketed number of roles evaluated; 0 when the answer was cached)</li>
+ *   <li>{@code authz.check.db.round.trips} - database round trips made by checks, per
+ *   {@code endpoint_type}; divide by the {@code authz.check} count for trips per check</li>
+ *   <li>{@code authz.policy.registry.size} - roles, shared documents and compiled policies held
+ *   by the {@link CompiledPolicyRegistry}</li>
+ * </ul>
+ * Sizes and hit ratios of the response caches are exported as {@code cache.*} by
+ * {@link com.algobrewery.auth.config.CacheConfig}, and repository calls as
+ * {@code spring.data.repository.invocations}.
+ */
+@Component
+public class PermissionMetrics {
+
+    public static final String CHECK = "authz.check";
+    public static final String DB_ROUND_TRIPS = "authz.check.db.round.trips";
+    public static final String REGISTRY_SIZE = "authz.policy.registry.size";
+
+    public static final String ACTION = "action";
+    public static final String ENDPOINT = "endpoint";
+    public static final String BATCH = "batch";
+
+    private final MeterRegistry registry;
+
+    @Autowired
+    public PermissionMetrics(ObjectProvider<MeterRegistry> meterRegistry, CompiledPolicyRegistry compiledPolicyRegistry) {
+        this.registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        Gauge.builder(REGISTRY_SIZE, compiledPolicyRegistry, CompiledPolicyRegistry::size)
+            .description("Roles with a registered compiled policy")
+            .tag("pool", "roles")
+            .register(registry);
+        Gauge.builder(REGISTRY_SIZE, compiledPolicyRegistry, CompiledPolicyRegistry::documentCount)
+            .description("Distinct policy documents shared by registered roles")
+            .tag("pool", "documents")
+            .register(registry);
+        Gauge.builder(REGISTRY_SIZE, compiledPolicyRegistry, CompiledPolicyRegistry::compiledCount)
+            .description("Distinct compiled policies shared by registered roles")
+            .tag("pool", "compiled")
+            .register(registry);
+    }
+
+    /**
+     * Time a single permission check made through the (cached) service.
+     */
+    public CompletableFuture<PermissionCheckResponse> recordCheck(String endpointType,
+                                                                  Supplier<CompletableFuture<PermissionCheckResponse>> check) {
+        return record(endpointType, check, response -> response.isHasPermission() ? "grant" : "deny");
+    }
+
+    /**
+     * Time a batch of permission checks; the decision is {@code mixed} unless all results agree.
+     */
+    public CompletableFuture<BatchPermissionCheckResponse> recordBatch(Supplier<CompletableFuture<BatchPermissionCheckResponse>> check) {
+        return record(BATCH, check, response -> {
+            long granted = response.getResults().stream().filter(PermissionCheckResponse::isHasPermission).count();
+            return granted == response.getResults().size() ? "grant" : granted == 0 ? "deny" : "mixed";
+        });
+    }
+
+    /**
+     * The check being recorded on behalf of the current request, or a detached check that is
+     * never recorded when there is none (e.g. internal callers).
+     */
+    public static Check currentCheck() {
+        return CacheLookup.current() instanceof Check check ? check : new Check(null, null);
+    }
+
+    private <T> CompletableFuture<T> record(String endpointType, Supplier<CompletableFuture<T>> check,
+                                            Function<T, String> decision) {
+        Check sample = new Check(this, endpointType);
+        CompletableFuture<T> result;
+        try {
+            result = sample.bind(check);
+        } catch (RuntimeException e) {
+            sample.stop("error");
+            throw e;
+        }
+        return result.whenComplete((value, error) -> sample.stop(error != null ? "error" : decision.apply(value)));
+    }
+
+    /**
+     * One permission check: the cache lookup made for it and the work done when it was evaluated.
+     */
+    public static final class Check extends CacheLookup {
+
+        private final PermissionMetrics metrics;
+        private final String endpointType;
+        private final long startNanos = System.nanoTime();
+        private final AtomicInteger roles = new AtomicInteger();
+        private final AtomicInteger databaseRoundTrips = new AtomicInteger();
+
+        private Check(PermissionMetrics metrics, String endpointType) {
+            this.metrics = metrics;
+            this.endpointType = endpointType;
+        }
+
+        /**
+         * Record that the user's roles were evaluated.
+         */
+        public void rolesEvaluated(int count) {
+            roles.addAndGet(count);
+        }
+
+        /**
+         * Record a database round trip made to answer the check.
+         */
+        public void databaseRoundTrip() {
+            databaseRoundTrips.incrementAndGet();
+        }
+
+        private void stop(String decision) {
+            if (metrics == null) {
+                return;
+            }
+            Timer.builder(CHECK)
+                .description("Permission check latency")
+                .tag("endpoint_type", endpointType)
+                .tag("decision", decision)
+                .tag("cache", getResult().getValue())
+                .tag("roles", rolesBucket(roles.get()))
+                .publishPercentileHistogram()
+                .register(metrics.registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            int trips = databaseRoundTrips.get();
+            if (trips > 0) {
+                Counter.builder(DB_ROUND_TRIPS)
+                    .description("Database round trips made by permission checks")
+                    .tag("endpoint_type", endpointType)
+                    .register(metrics.registry)
+                    .increment(trips);
+            }
+        }
+    }
+
+    /**
+     * Bucket role counts so the tag has a bounded number of values.
+     */
+    static String rolesBucket(int roles) {
+        if (roles <= 2) {
+            return Integer.toString(roles);
+        }
+        return roles <= 5 ? "3-5" : roles <= 10 ? "6-10" : "11+";
+    }
+}
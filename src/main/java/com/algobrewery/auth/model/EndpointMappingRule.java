@@ -0,0 +1,73 @@
+package com.algobrewery.auth.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Entity representing a gateway endpoint pattern mapped to an action and resource.
+ * Rows are merged with the routes from {@code endpoint-mappings.yml} on each reload.
+ */
+@Entity
+@Table(name = "endpoint_mappings", uniqueConstraints = {
+    @UniqueConstraint(name = "idx_endpoint_mappings_route", columnNames = {"http_methods", "path_pattern"})
+})
+@EntityListeners(AuditingEntityListener.class)
+@Data
+@NoArgsConstructor
+public class EndpointMappingRule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "endpoint_mapping_uuid", nullable = false)
+    private UUID endpointMappingUuid;
+
+    /**
+     * Comma-separated HTTP methods, e.g. {@code PUT,PATCH}.
+     */
+    @NotBlank
+    @Size(max = 50)
+    @Column(name = "http_methods", nullable = false, length = 50)
+    private String httpMethods;
+
+    @NotBlank
+    @Size(max = 255)
+    @Column(name = "path_pattern", nullable = false)
+    private String pathPattern;
+
+    @NotBlank
+    @Size(max = 100)
+    @Column(name = "action", nullable = false, length = 100)
+    private String action;
+
+    @NotBlank
+    @Size(max = 100)
+    @Column(name = "resource", nullable = false, length = 100)
+    private String resource;
+
+    @Column(name = "enabled", nullable = false)
+    private boolean enabled = true;
+
+    @CreatedDate
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @LastModifiedDate
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    public EndpointMappingRule(String httpMethods, String pathPattern, String action, String resource) {
+        this.httpMethods = httpMethods;
+        this.pathPattern = pathPattern;
+        this.action = action;
+        this.resource = resource;
+    }
+}
@@ -1,5 +1,6 @@
 package com.algobrewery.auth.model;
 
+import com.algobrewery.auth.policy.RolePolicyInterningListener;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.persistence.*;
@@ -21,14 +22,15 @@ import java.util.UUID;
 /**
  * Entity representing a role in the system.
  * Roles define permissions through a JSON policy document.
+ * Loaded policies are interned and shared between roles, so they must be treated as read-only.
  */
 @Entity
 @Table(name = "roles", indexes = {
-    @Index(name = "idx_roles_organization_uuid", columnList = "organization_uuid"),
+    @Index(name = "idx_roles_organization_created", columnList = "organization_uuid, created_at, role_uuid"),
     @Index(name = "idx_roles_management_type", columnList = "role_management_type"),
     @Index(name = "idx_roles_name", columnList = "role_name")
 })
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, RolePolicyInterningListener.class})
 @Data
 @NoArgsConstructor
 public class Role {
@@ -57,7 +59,7 @@ public class Role {
 
     @NotNull
     @JdbcTypeCode(SqlTypes.JSON)
-    @Column(name = "policy", nullable = false, columnDefinition = "JSON")
+    @Column(name = "policy", nullable = false)
     private JsonNode policy;
 
     @CreatedDate
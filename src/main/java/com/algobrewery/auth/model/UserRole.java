@@ -18,7 +18,9 @@ import java.util.UUID;
 @Entity
 @Table(name = "user_roles", indexes = {
     @Index(name = "idx_user_roles_user_uuid", columnList = "user_uuid"),
-    @Index(name = "idx_user_roles_organization_uuid", columnList = "organization_uuid")
+    @Index(name = "idx_user_roles_organization_created", columnList = "organization_uuid, created_at, user_role_uuid")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "idx_user_roles_unique", columnNames = {"user_uuid", "role_uuid", "organization_uuid"})
 })
 @EntityListeners(AuditingEntityListener.class)
 @Data
@@ -34,9 +36,9 @@ public class UserRole {
     @Column(name = "user_uuid", nullable = false, length = 50)
     private String userUuid;
 
-    @NotBlank
-    @Column(name = "role_uuid", nullable = false, length = 50)
-    private String roleUuid;
+    @NotNull
+    @Column(name = "role_uuid", nullable = false)
+    private UUID roleUuid;
 
     @NotBlank
     @Column(name = "organization_uuid", nullable = false, length = 50)
@@ -51,7 +53,7 @@ public class UserRole {
     private String createdBy;
 
     // Custom constructor for UserRoleService
-    public UserRole(String userUuid, String roleUuid, String organizationUuid, String createdBy) {
+    public UserRole(String userUuid, UUID roleUuid, String organizationUuid, String createdBy) {
         this.userUuid = userUuid;
         this.roleUuid = roleUuid;
         this.organizationUuid = organizationUuid;
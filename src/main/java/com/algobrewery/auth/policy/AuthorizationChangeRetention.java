@@ -0,0 +1,53 @@
+package com.algobrewery.auth.policy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/**
+ * Deletes {@code authorization_changes} entries older than {@code change-retention-ms}. The V7
+ * triggers write the feed on every role and assignment change whether or not the
+ * {@link AuthorizationModel} is enabled, so retention runs in every deployment.
+ */
+@Component
+public class AuthorizationChangeRetention {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthorizationChangeRetention.class);
+
+    private static final String DELETE_OLD_CHANGES = "DELETE FROM authorization_changes WHERE changed_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.authorization-model.change-retention-ms:86400000}")
+    private long changeRetentionMs;
+
+    @Autowired
+    public AuthorizationChangeRetention(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Scheduled(fixedDelayString = "${app.authorization-model.prune-interval-ms:600000}",
+               initialDelayString = "${app.authorization-model.prune-interval-ms:600000}")
+    public void prune() {
+        try {
+            int deleted = jdbcTemplate.update(DELETE_OLD_CHANGES,
+                Timestamp.from(Instant.now().minusMillis(changeRetentionMs)));
+            if (deleted > 0) {
+                logger.debug("Deleted {} authorization changes older than {} ms", deleted, changeRetentionMs);
+            }
+        } catch (BadSqlGrammarException e) {
+            // Schema not managed by the migrations (e.g. generated by Hibernate in tests)
+            logger.debug("No authorization_changes feed to prune", e);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to prune the authorization change feed", e);
+        }
+    }
+}
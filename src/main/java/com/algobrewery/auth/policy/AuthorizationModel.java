@@ -0,0 +1,769 @@
+package com.algobrewery.auth.policy;
+
+import com.algobrewery.auth.cache.AuthorizationChangeNotification;
+import com.algobrewery.auth.cache.CacheInvalidator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * In-memory copy of the {@code roles} and {@code user_roles} tables, so permission checks
+ * can be answered without a database round trip ({@code app.authorization-model.enabled}).
+ * <p>
+ * The model is bootstrapped with cursor reads once the application is ready. Role policies
+ * are compiled through the {@link CompiledPolicyRegistry}; assignments are indexed by a
+ * {@code long} key built from interned organization and user ids. It is then kept current by
+ * polling the {@code authorization_changes} feed written by database triggers (see V7), which
+ * also captures writes made by other replicas, and rebuilt from scratch every
+ * {@code full-refresh-interval-ms} as a safety net; only the decisions of roles and assignments
+ * the rebuild finds out of date are evicted then. Cached permission decisions of the users and
+ * roles touched by applied changes are evicted from this replica's in-process tier, since
+ * decisions made just before a change was applied may have been cached. Old entries of the feed
+ * are deleted by {@link AuthorizationChangeRetention}, which runs whether or not the model is enabled.
+ * <p>
+ * Change ids are drawn when a trigger fires but become visible when its transaction commits, so
+ * a lower id can appear after a higher one has been read. Ids skipped by the feed are kept as
+ * gaps and looked up again on every poll until they show up or {@code gap-grace-ms} passes
+ * (the transaction rolled back, or runs unusually long and is caught by the next full refresh).
+ * <p>
+ * For reverse lookups ({@link #usersGranted}) the model also keeps the members of every role
+ * in every organization as a compressed bitmap of user ids, and per organization the ids of the
+ * roles with members there, so a lookup only evaluates the compiled policies of that organization's
+ * roles. Published bitmaps are never modified; assignment changes replace them with updated copies.
+ * <p>
+ * {@code authz.model.staleness} reports how long ago the model last caught up with the feed.
+ * Startup fails if the feed does not exist. Until the first load completes, {@link #isReady()}
+ * is false, callers use the database and the load is retried on every refresh.
+ */
+@Component
+@ConditionalOnProperty(name = "app.authorization-model.enabled", havingValue = "true")
+public class AuthorizationModel {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthorizationModel.class);
+
+    private static final int[] NO_ROLES = new int[0];
+
+    private static final int MAX_GAPS = 1000;
+
+    private static final int MAX_DRIFT_EVICTIONS = 1000;
+
+    private static final String SELECT_ROLES =
+        "SELECT role_uuid, role_name, policy, created_at, updated_at FROM roles";
+    private static final String SELECT_ROLE = SELECT_ROLES + " WHERE role_uuid = ?";
+    // Grouped by organization and user so each assignment set is complete when the cursor moves past it
+    private static final String SELECT_ASSIGNMENTS = "SELECT user_uuid, role_uuid, organization_uuid FROM user_roles "
+        + "ORDER BY organization_uuid, user_uuid, created_at";
+    private static final String SELECT_USER_ASSIGNMENTS =
+        "SELECT role_uuid FROM user_roles WHERE user_uuid = ? AND organization_uuid = ? ORDER BY created_at";
+    private static final String SELECT_CHANGES =
+        "SELECT change_id, table_name, operation, role_uuid, user_uuid, organization_uuid FROM authorization_changes "
+            + "WHERE change_id > ? ORDER BY change_id LIMIT ?";
+    private static final String SELECT_CHANGES_BY_ID =
+        "SELECT change_id, table_name, operation, role_uuid, user_uuid, organization_uuid FROM authorization_changes "
+            + "WHERE change_id IN (%s)";
+    private static final String SELECT_CHANGE_IDS_AFTER =
+        "SELECT change_id FROM authorization_changes WHERE change_id > ? ORDER BY change_id";
+    private static final String SELECT_LAST_CHANGE = "SELECT COALESCE(MAX(change_id), 0) FROM authorization_changes";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final CompiledPolicyRegistry compiledPolicyRegistry;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final CacheInvalidator cacheInvalidator;
+
+    @Value("${app.authorization-model.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${app.authorization-model.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.authorization-model.full-refresh-interval-ms:600000}")
+    private long fullRefreshIntervalMs;
+
+    @Value("${app.authorization-model.gap-grace-ms:60000}")
+    private long gapGraceMs;
+
+    private volatile State state;
+    private volatile long lastChangeId;
+    // Change ids below lastChangeId not seen yet, with the time they were found missing; guarded by this
+    private final Map<Long, Instant> gaps = new LinkedHashMap<>();
+    private volatile Instant syncedAt;
+    private volatile Instant loadedAt;
+    private volatile boolean bootstrapped;
+
+    @Autowired
+    public AuthorizationModel(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper, CompiledPolicyRegistry compiledPolicyRegistry,
+                              ObjectProvider<MeterRegistry> meterRegistry, CacheInvalidator cacheInvalidator) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.compiledPolicyRegistry = compiledPolicyRegistry;
+        this.meterRegistry = meterRegistry;
+        this.cacheInvalidator = cacheInvalidator;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        registerMetrics();
+        try {
+            jdbcTemplate.queryForObject(SELECT_LAST_CHANGE, Long.class);
+        } catch (BadSqlGrammarException e) {
+            throw new IllegalStateException("The authorization_changes feed (migration V7) is missing; apply the "
+                + "migrations or set app.authorization-model.enabled=false", e);
+        }
+        bootstrapped = true;
+        try {
+            load();
+        } catch (RuntimeException e) {
+            logger.error("Failed to load the authorization model, checks will use the database", e);
+        }
+    }
+
+    public boolean isReady() {
+        return state != null;
+    }
+
+    /**
+     * Roles assigned to the user in the organization, in assignment order.
+     */
+    public List<RoleGrant> rolesFor(String userUuid, String organizationUuid) {
+        State current = state;
+        if (current == null || userUuid == null || organizationUuid == null) {
+            return List.of();
+        }
+        Integer organizationId = current.subjects.get(organizationUuid);
+        Integer userId = current.subjects.get(userUuid);
+        if (organizationId == null || userId == null) {
+            return List.of();
+        }
+        int[] roleIds = current.assignments.get(key(organizationId, userId));
+        if (roleIds == null) {
+            return List.of();
+        }
+        List<RoleGrant> grants = new ArrayList<>(roleIds.length);
+        for (int roleId : roleIds) {
+            RoleGrant grant = current.grants.get(roleId);
+            if (grant != null) {
+                grants.add(grant);
+            }
+        }
+        return grants;
+    }
+
+    /**
+     * Users of the organization holding a role that grants the action on the resource, in
+     * ascending order of user UUID, starting after {@code afterUserUuid} (exclusive, may be null).
+     */
+    public List<String> usersGranted(String organizationUuid, String action, String resource,
+                                     String afterUserUuid, int limit) {
+        State current = state;
+        if (current == null || organizationUuid == null || limit <= 0) {
+            return List.of();
+        }
+        Integer organizationId = current.subjects.get(organizationUuid);
+        if (organizationId == null) {
+            return List.of();
+        }
+
+        RoaringBitmap users = new RoaringBitmap();
+        for (int roleId : current.grantingRoles(organizationId, action, resource)) {
+            RoaringBitmap members = current.members.get(key(organizationId, roleId));
+            if (members != null) {
+                users.or(members);
+            }
+        }
+
+        // Keep the smallest UUIDs after the cursor in a bounded max-heap instead of sorting every member
+        String[] names = current.subjectNames;
+        PriorityQueue<String> page = new PriorityQueue<>(limit + 1, Comparator.reverseOrder());
+        IntIterator ids = users.getIntIterator();
+        while (ids.hasNext()) {
+            String userUuid = names[ids.next()];
+            if (afterUserUuid != null && userUuid.compareTo(afterUserUuid) <= 0) {
+                continue;
+            }
+            if (page.size() < limit) {
+                page.add(userUuid);
+            } else if (userUuid.compareTo(page.peek()) < 0) {
+                page.poll();
+                page.add(userUuid);
+            }
+        }
+        List<String> result = new ArrayList<>(page);
+        Collections.sort(result);
+        return result;
+    }
+
+    /**
+     * Time since the model last caught up with the change feed.
+     */
+    public Duration getStaleness() {
+        Instant synced = syncedAt;
+        return synced == null ? Duration.ZERO : Duration.between(synced, Instant.now());
+    }
+
+    /**
+     * Apply new entries of the change feed, then rebuild the model when a full refresh is due.
+     * Loads the model if the initial load failed.
+     */
+    @Scheduled(fixedDelayString = "${app.authorization-model.refresh-interval-ms:1000}")
+    public void refresh() {
+        try {
+            if (state == null) {
+                if (bootstrapped) {
+                    load();
+                }
+                return;
+            }
+            Instant pollStarted = Instant.now();
+            int applied;
+            do {
+                applied = applyChanges();
+            } while (applied == batchSize);
+            syncedAt = pollStarted;
+            if (Duration.between(loadedAt, Instant.now()).toMillis() >= fullRefreshIntervalMs) {
+                State previous = state;
+                load();
+                evictDrift(previous, state);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to refresh the authorization model, staleness is {}", getStaleness(), e);
+        }
+    }
+
+    /**
+     * Rebuild the whole model and swap it in. Both tables are read through cursors inside a
+     * read-only transaction (the driver only honours the fetch size there), and assignment sets
+     * are stored as the cursor completes them.
+     */
+    synchronized void load() {
+        Instant started = Instant.now();
+        long changeId = jdbcTemplate.queryForObject(SELECT_LAST_CHANGE, Long.class);
+        State loaded = new State();
+
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streaming.setFetchSize(fetchSize);
+        readOnlyTransaction.executeWithoutResult(status -> {
+            streaming.query(SELECT_ROLES, rs -> loaded.putGrant(toGrant(rs)));
+            AssignmentLoader assignments = new AssignmentLoader(loaded);
+            streaming.query(SELECT_ASSIGNMENTS, assignments);
+            assignments.flush();
+        });
+        loaded.members.forEach((key, members) -> members.runOptimize());
+
+        state = loaded;
+        lastChangeId = changeId;
+        gaps.clear();
+        // Transactions still open at the start of the load hold ids below changeId
+        long previous = Math.max(0, changeId - batchSize);
+        for (long id : jdbcTemplate.queryForList(SELECT_CHANGE_IDS_AFTER, Long.class, previous)) {
+            if (id > changeId) {
+                break;
+            }
+            addGaps(previous, id, started);
+            previous = id;
+        }
+        syncedAt = started;
+        loadedAt = started;
+        logger.info("Loaded authorization model: {} roles, {} assignment sets in {} ms", loaded.roleCount.get(),
+            loaded.assignments.size(), Duration.between(started, Instant.now()).toMillis());
+    }
+
+    /**
+     * Evict the cached decisions of the roles and assignments a full load found to differ from the
+     * incrementally maintained model, i.e. changes the feed missed or that committed during the load.
+     * When too many differ, the in-process caches are cleared instead.
+     */
+    private void evictDrift(State previous, State loaded) {
+        Set<AuthorizationChangeNotification> drift = new LinkedHashSet<>();
+        loaded.roleIds.forEach((roleUuid, roleId) -> {
+            RoleGrant grant = loaded.grants.get(roleId);
+            RoleGrant before = previous.grant(roleUuid);
+            boolean same = grant == null ? before == null
+                : before != null && before.getPolicy() == grant.getPolicy() && before.getRoleName().equals(grant.getRoleName());
+            if (!same) {
+                drift.add(roleChange(roleUuid, grant == null ? "DELETE" : "UPDATE"));
+            }
+        });
+        previous.roleIds.forEach((roleUuid, roleId) -> {
+            if (previous.grants.get(roleId) != null && !loaded.roleIds.containsKey(roleUuid)) {
+                drift.add(roleChange(roleUuid, "DELETE"));
+            }
+        });
+        compareAssignments(loaded, previous, drift);
+        compareAssignments(previous, loaded, drift);
+
+        if (drift.isEmpty()) {
+            return;
+        }
+        logger.info("Full load of the authorization model found {} roles and assignment sets out of date", drift.size());
+        if (drift.size() > MAX_DRIFT_EVICTIONS) {
+            cacheInvalidator.clearLocally();
+        } else {
+            drift.forEach(cacheInvalidator::applyDatabaseChange);
+        }
+    }
+
+    /**
+     * Record every assignment set of {@code source} whose roles differ in {@code other}.
+     */
+    private static void compareAssignments(State source, State other, Set<AuthorizationChangeNotification> drift) {
+        String[] names = source.subjectNames;
+        source.assignments.forEach((key, roleIds) -> {
+            String organizationUuid = names[(int) (key >>> 32)];
+            String userUuid = names[(int) key];
+            if (!source.roleUuids(roleIds).equals(other.assignedRoles(userUuid, organizationUuid))) {
+                drift.add(new AuthorizationChangeNotification(AuthorizationChangeNotification.USER_ROLES, "UPDATE",
+                    null, userUuid, organizationUuid));
+            }
+        });
+    }
+
+    private static AuthorizationChangeNotification roleChange(UUID roleUuid, String operation) {
+        // The organization is not kept in the model; without it every cached denial is evicted
+        return new AuthorizationChangeNotification(AuthorizationChangeNotification.ROLES, operation,
+            roleUuid.toString(), null, null);
+    }
+
+    /**
+     * Apply the gaps that became visible and one batch of the change feed, returning the number
+     * of new entries read.
+     */
+    private synchronized int applyChanges() {
+        State current = state;
+        Instant now = Instant.now();
+        ChangeBatch batch = new ChangeBatch();
+
+        if (!gaps.isEmpty()) {
+            String placeholders = String.join(", ", Collections.nCopies(gaps.size(), "?"));
+            jdbcTemplate.query(String.format(SELECT_CHANGES_BY_ID, placeholders), rs -> {
+                gaps.remove(rs.getLong("change_id"));
+                batch.add(rs);
+            }, gaps.keySet().toArray());
+            expireGaps(now);
+        }
+
+        long[] last = {lastChangeId};
+        AtomicInteger count = new AtomicInteger();
+        jdbcTemplate.query(SELECT_CHANGES, rs -> {
+            count.incrementAndGet();
+            long changeId = rs.getLong("change_id");
+            addGaps(last[0], changeId, now);
+            last[0] = changeId;
+            batch.add(rs);
+        }, lastChangeId, batchSize);
+
+        for (String roleUuid : batch.roles) {
+            reloadRole(current, UUID.fromString(roleUuid));
+        }
+        for (List<String> assignment : batch.assignments) {
+            reloadAssignments(current, assignment.get(0), assignment.get(1));
+        }
+        batch.changes.forEach(cacheInvalidator::applyDatabaseChange);
+        lastChangeId = last[0];
+        if (count.get() > 0) {
+            logger.debug("Applied {} authorization changes up to {}, {} gaps open", count.get(), last[0], gaps.size());
+        }
+        return count.get();
+    }
+
+    /**
+     * Remember the ids between two consecutive entries of the feed as gaps.
+     */
+    private void addGaps(long previous, long changeId, Instant now) {
+        for (long id = previous + 1; id < changeId; id++) {
+            if (gaps.size() >= MAX_GAPS) {
+                logger.warn("More than {} authorization change ids missing, relying on the next full refresh", MAX_GAPS);
+                return;
+            }
+            gaps.put(id, now);
+        }
+    }
+
+    private void expireGaps(Instant now) {
+        Instant cutoff = now.minusMillis(gapGraceMs);
+        for (Iterator<Instant> missingSince = gaps.values().iterator(); missingSince.hasNext(); ) {
+            if (missingSince.next().isBefore(cutoff)) {
+                missingSince.remove();
+            }
+        }
+    }
+
+    private void reloadRole(State current, UUID roleUuid) {
+        List<RoleGrant> grants = jdbcTemplate.query(SELECT_ROLE, (rs, rowNum) -> toGrant(rs), roleUuid);
+        if (grants.isEmpty()) {
+            current.removeGrant(roleUuid);
+            compiledPolicyRegistry.evict(roleUuid);
+        } else {
+            current.putGrant(grants.get(0));
+        }
+    }
+
+    private void reloadAssignments(State current, String userUuid, String organizationUuid) {
+        int[] roleIds = jdbcTemplate.query(SELECT_USER_ASSIGNMENTS,
+            (rs, rowNum) -> current.internRole(rs.getObject("role_uuid", UUID.class)), userUuid, organizationUuid)
+            .stream().mapToInt(Integer::intValue).toArray();
+        int organizationId = current.intern(organizationUuid);
+        int userId = current.intern(userUuid);
+        long key = key(organizationId, userId);
+        int[] previous = roleIds.length == 0
+            ? current.assignments.remove(key)
+            : current.assignments.put(key, roleIds);
+
+        if (previous != null) {
+            for (int roleId : previous) {
+                if (!contains(roleIds, roleId)) {
+                    updateMembers(current, organizationId, roleId, userId, false);
+                }
+            }
+        }
+        for (int roleId : roleIds) {
+            updateMembers(current, organizationId, roleId, userId, true);
+        }
+    }
+
+    /**
+     * Add or remove a user from the members of a role by publishing an updated copy of its bitmap.
+     */
+    private void updateMembers(State current, int organizationId, int roleId, int userId, boolean member) {
+        long key = key(organizationId, roleId);
+        RoaringBitmap members = current.members.get(key);
+        if (member == (members != null && members.contains(userId))) {
+            return;
+        }
+        RoaringBitmap updated = members != null ? members.clone() : new RoaringBitmap();
+        if (member) {
+            updated.add(userId);
+        } else {
+            updated.remove(userId);
+        }
+        if (updated.isEmpty()) {
+            current.members.remove(key);
+            current.removeOrganizationRole(organizationId, roleId);
+        } else {
+            current.members.put(key, updated);
+            if (members == null) {
+                current.addOrganizationRole(organizationId, roleId);
+            }
+        }
+    }
+
+    private RoleGrant toGrant(ResultSet rs) throws SQLException {
+        UUID roleUuid = rs.getObject("role_uuid", UUID.class);
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        Instant version = (updatedAt != null ? updatedAt : rs.getTimestamp("created_at")).toInstant();
+        JsonNode policy;
+        try {
+            policy = objectMapper.readTree(rs.getString("policy"));
+        } catch (JsonProcessingException e) {
+            logger.error("Invalid policy JSON for role: {}", roleUuid, e);
+            policy = null;
+        }
+        CompiledPolicy compiled = compiledPolicyRegistry.policyFor(roleUuid, version, policy);
+        return new RoleGrant(roleUuid, rs.getString("role_name"), compiled);
+    }
+
+    private void registerMetrics() {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return;
+        }
+        TimeGauge.builder("authz.model.staleness", this, TimeUnit.MILLISECONDS, m -> m.getStaleness().toMillis())
+            .description("Time since the in-memory authorization model last caught up with the change feed")
+            .register(registry);
+        Gauge.builder("authz.model.roles", this, m -> m.state != null ? m.state.roleCount.get() : 0)
+            .description("Roles held by the in-memory authorization model")
+            .register(registry);
+        Gauge.builder("authz.model.assignments", this, m -> m.state != null ? m.state.assignments.size() : 0)
+            .description("User and organization assignment sets held by the in-memory authorization model")
+            .register(registry);
+    }
+
+    private static long key(int organizationId, int userId) {
+        return ((long) organizationId << 32) | (userId & 0xFFFFFFFFL);
+    }
+
+    private static boolean contains(int[] ids, int id) {
+        for (int candidate : ids) {
+            if (candidate == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A role as seen by permission checks.
+     */
+    public static final class RoleGrant {
+        private final UUID roleUuid;
+        private final String roleName;
+        private final CompiledPolicy policy;
+
+        RoleGrant(UUID roleUuid, String roleName, CompiledPolicy policy) {
+            this.roleUuid = roleUuid;
+            this.roleName = roleName;
+            this.policy = policy;
+        }
+
+        public UUID getRoleUuid() {
+            return roleUuid;
+        }
+
+        public String getRoleName() {
+            return roleName;
+        }
+
+        public CompiledPolicy getPolicy() {
+            return policy;
+        }
+    }
+
+    /**
+     * Builds the assignment sets of a generation from rows grouped by organization and user.
+     */
+    private static final class AssignmentLoader implements RowCallbackHandler {
+        private final State loaded;
+        private int[] roleIds = new int[8];
+        private int count;
+        private String organizationUuid;
+        private String userUuid;
+
+        private AssignmentLoader(State loaded) {
+            this.loaded = loaded;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            String organization = rs.getString("organization_uuid");
+            String user = rs.getString("user_uuid");
+            if (!user.equals(userUuid) || !organization.equals(organizationUuid)) {
+                flush();
+                organizationUuid = organization;
+                userUuid = user;
+            }
+            if (count == roleIds.length) {
+                roleIds = Arrays.copyOf(roleIds, count * 2);
+            }
+            roleIds[count++] = loaded.internRole(rs.getObject("role_uuid", UUID.class));
+        }
+
+        private void flush() {
+            if (count == 0) {
+                return;
+            }
+            int organizationId = loaded.intern(organizationUuid);
+            int userId = loaded.intern(userUuid);
+            loaded.assignments.load(key(organizationId, userId), Arrays.copyOf(roleIds, count));
+            for (int i = 0; i < count; i++) {
+                long key = key(organizationId, roleIds[i]);
+                RoaringBitmap members = loaded.members.get(key);
+                if (members == null) {
+                    members = new RoaringBitmap();
+                    loaded.members.load(key, members);
+                    loaded.addOrganizationRole(organizationId, roleIds[i]);
+                }
+                members.add(userId);
+            }
+            count = 0;
+        }
+    }
+
+    /**
+     * Roles and assignments touched by a batch of change feed entries.
+     */
+    private static final class ChangeBatch {
+        private final Set<String> roles = new LinkedHashSet<>();
+        private final Set<List<String>> assignments = new LinkedHashSet<>();
+        private final Set<AuthorizationChangeNotification> changes = new LinkedHashSet<>();
+
+        private void add(ResultSet rs) throws SQLException {
+            AuthorizationChangeNotification change = new AuthorizationChangeNotification(rs.getString("table_name"),
+                rs.getString("operation"), rs.getString("role_uuid"), rs.getString("user_uuid"),
+                rs.getString("organization_uuid"));
+            changes.add(change);
+            if (AuthorizationChangeNotification.ROLES.equals(change.getTable())) {
+                roles.add(change.getRoleUuid());
+            } else {
+                assignments.add(List.of(change.getUserUuid(), change.getOrganizationUuid()));
+            }
+        }
+    }
+
+    /**
+     * One generation of the model. Organization and user ids share one interned int id space and
+     * role UUIDs another; ids are only valid within the generation. Assignment sets are keyed by
+     * organization and user id and hold role ids, role members by organization and role id.
+     */
+    private static final class State {
+        private final LongKeyMap<int[]> assignments = new LongKeyMap<>();
+        private final LongKeyMap<RoaringBitmap> members = new LongKeyMap<>();
+        private final ConcurrentHashMap<String, Integer> subjects = new ConcurrentHashMap<>();
+        private final AtomicInteger nextSubject = new AtomicInteger();
+        // Written before the id is published in a bitmap, read after the bitmap
+        private volatile String[] subjectNames = new String[1024];
+        private final ConcurrentHashMap<UUID, Integer> roleIds = new ConcurrentHashMap<>();
+        // Indexed by role id, null for deleted roles; replaced by a larger copy when full
+        private volatile AtomicReferenceArray<RoleGrant> grants = new AtomicReferenceArray<>(256);
+        private final AtomicInteger roleCount = new AtomicInteger();
+        // Ids of the roles with members in each organization; replaced, never modified
+        private final ConcurrentHashMap<Integer, int[]> organizationRoles = new ConcurrentHashMap<>();
+
+        private int intern(String subject) {
+            return subjects.computeIfAbsent(subject, s -> {
+                int id = nextSubject.getAndIncrement();
+                String[] names = subjectNames;
+                if (id >= names.length) {
+                    names = Arrays.copyOf(names, names.length * 2);
+                }
+                names[id] = s;
+                subjectNames = names;
+                return id;
+            });
+        }
+
+        /**
+         * Id of a role, assigned on first sight. Only called by the thread updating the model.
+         */
+        private int internRole(UUID roleUuid) {
+            Integer id = roleIds.get(roleUuid);
+            if (id != null) {
+                return id;
+            }
+            int roleId = roleIds.size();
+            AtomicReferenceArray<RoleGrant> current = grants;
+            if (roleId >= current.length()) {
+                AtomicReferenceArray<RoleGrant> resized = new AtomicReferenceArray<>(current.length() * 2);
+                for (int i = 0; i < current.length(); i++) {
+                    resized.set(i, current.get(i));
+                }
+                grants = resized;
+            }
+            roleIds.put(roleUuid, roleId);
+            return roleId;
+        }
+
+        private RoleGrant grant(UUID roleUuid) {
+            Integer roleId = roleIds.get(roleUuid);
+            return roleId != null ? grants.get(roleId) : null;
+        }
+
+        /**
+         * UUIDs of the existing roles among the given role ids, in order.
+         */
+        private List<UUID> roleUuids(int[] ids) {
+            List<UUID> roleUuids = new ArrayList<>(ids.length);
+            for (int roleId : ids) {
+                RoleGrant grant = grants.get(roleId);
+                if (grant != null) {
+                    roleUuids.add(grant.getRoleUuid());
+                }
+            }
+            return roleUuids;
+        }
+
+        private List<UUID> assignedRoles(String userUuid, String organizationUuid) {
+            Integer organizationId = subjects.get(organizationUuid);
+            Integer userId = subjects.get(userUuid);
+            int[] ids = organizationId != null && userId != null ? assignments.get(key(organizationId, userId)) : null;
+            return ids != null ? roleUuids(ids) : List.of();
+        }
+
+        private void putGrant(RoleGrant grant) {
+            if (grants.getAndSet(internRole(grant.getRoleUuid()), grant) == null) {
+                roleCount.incrementAndGet();
+            }
+        }
+
+        private void removeGrant(UUID roleUuid) {
+            Integer roleId = roleIds.get(roleUuid);
+            if (roleId != null && grants.getAndSet(roleId, null) != null) {
+                roleCount.decrementAndGet();
+            }
+        }
+
+        /**
+         * Ids of the roles with members in the organization whose compiled policy grants the
+         * action on the resource. Only the roles of that organization are evaluated.
+         */
+        private int[] grantingRoles(int organizationId, String action, String resource) {
+            int[] candidates = organizationRoles.getOrDefault(organizationId, NO_ROLES);
+            int[] granting = new int[candidates.length];
+            int count = 0;
+            for (int roleId : candidates) {
+                RoleGrant grant = grants.get(roleId);
+                if (grant != null && grant.getPolicy().allows(action, resource)) {
+                    granting[count++] = roleId;
+                }
+            }
+            return Arrays.copyOf(granting, count);
+        }
+
+        /**
+         * Record that the role has members in the organization. Only called by the thread updating the model.
+         */
+        private void addOrganizationRole(int organizationId, int roleId) {
+            int[] roles = organizationRoles.getOrDefault(organizationId, NO_ROLES);
+            if (!contains(roles, roleId)) {
+                int[] updated = Arrays.copyOf(roles, roles.length + 1);
+                updated[roles.length] = roleId;
+                organizationRoles.put(organizationId, updated);
+            }
+        }
+
+        private void removeOrganizationRole(int organizationId, int roleId) {
+            int[] roles = organizationRoles.getOrDefault(organizationId, NO_ROLES);
+            int[] updated = Arrays.stream(roles).filter(id -> id != roleId).toArray();
+            if (updated.length == 0) {
+                organizationRoles.remove(organizationId);
+            } else if (updated.length < roles.length) {
+                organizationRoles.put(organizationId, updated);
+            }
+        }
+    }
+}
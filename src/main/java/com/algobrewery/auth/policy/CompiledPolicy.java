@@ -0,0 +1,121 @@
+package com.algobrewery.auth.policy;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Immutable, pre-compiled form of a role policy.
+ * Grants from the {@code data} and {@code features} sections are merged into one
+ * bitset of resource ids per action id, so a check is two map lookups and a bit test.
+ * Wildcard and prefix grants ({@code *}, {@code user_*}) are compiled into a
+ * {@link ResourcePrefixTrie} per action that is consulted when the bit test fails.
+ */
+public final class CompiledPolicy {
+
+    public static final CompiledPolicy EMPTY = new CompiledPolicy(null, new BitSet[0], new ResourcePrefixTrie[0]);
+
+    private final PermissionDictionary dictionary;
+    private final BitSet[] resourcesByAction;
+    private final ResourcePrefixTrie[] patternsByAction;
+
+    CompiledPolicy(PermissionDictionary dictionary, BitSet[] resourcesByAction, ResourcePrefixTrie[] patternsByAction) {
+        this.dictionary = dictionary;
+        this.resourcesByAction = resourcesByAction;
+        this.patternsByAction = patternsByAction;
+    }
+
+    /**
+     * Check if this policy grants the action on the resource.
+     */
+    public boolean allows(String action, String resource) {
+        if (resourcesByAction.length == 0 || resource == null) {
+            return false;
+        }
+        int actionId = dictionary.actionId(action);
+        if (actionId < 0 || actionId >= resourcesByAction.length) {
+            return false;
+        }
+        BitSet granted = resourcesByAction[actionId];
+        if (granted != null) {
+            int resourceId = dictionary.resourceId(resource);
+            if (resourceId >= 0 && granted.get(resourceId)) {
+                return true;
+            }
+        }
+        ResourcePrefixTrie patterns = patternsByAction[actionId];
+        return patterns != null && patterns.matches(resource);
+    }
+
+    /**
+     * Number of nodes a check of the action and resource visits: the bitset probe plus the
+     * trie nodes walked for wildcard grants. Used for diagnostics, not on the check path.
+     */
+    public int nodesVisited(String action, String resource) {
+        if (resourcesByAction.length == 0 || resource == null) {
+            return 0;
+        }
+        int actionId = dictionary.actionId(action);
+        if (actionId < 0 || actionId >= resourcesByAction.length) {
+            return 0;
+        }
+        BitSet granted = resourcesByAction[actionId];
+        int visited = 0;
+        if (granted != null) {
+            visited++;
+            int resourceId = dictionary.resourceId(resource);
+            if (resourceId >= 0 && granted.get(resourceId)) {
+                return visited;
+            }
+        }
+        ResourcePrefixTrie patterns = patternsByAction[actionId];
+        return patterns != null ? visited + patterns.nodesVisited(resource) : visited;
+    }
+
+    /**
+     * Check if this policy grants the action on the resource, using dictionary ids.
+     */
+    public boolean allows(int actionId, int resourceId) {
+        if (actionId < 0 || actionId >= resourcesByAction.length || resourceId < 0) {
+            return false;
+        }
+        BitSet granted = resourcesByAction[actionId];
+        if (granted != null && granted.get(resourceId)) {
+            return true;
+        }
+        ResourcePrefixTrie patterns = patternsByAction[actionId];
+        if (patterns == null) {
+            return false;
+        }
+        String resource = dictionary.resourceName(resourceId);
+        return resource != null && patterns.matches(resource);
+    }
+
+    /**
+     * Add every action and resource granted by this policy to the given map.
+     * Wildcard grants are added as their patterns, e.g. {@code user_*}.
+     */
+    public void collectGrants(Map<String, Set<String>> grants) {
+        for (int actionId = 0; actionId < resourcesByAction.length; actionId++) {
+            BitSet granted = resourcesByAction[actionId];
+            ResourcePrefixTrie patterns = patternsByAction[actionId];
+            if (granted == null && patterns == null) {
+                continue;
+            }
+            Set<String> resources = grants.computeIfAbsent(dictionary.actionName(actionId), k -> new TreeSet<>());
+            if (granted != null) {
+                for (int resourceId = granted.nextSetBit(0); resourceId >= 0; resourceId = granted.nextSetBit(resourceId + 1)) {
+                    resources.add(dictionary.resourceName(resourceId));
+                }
+            }
+            if (patterns != null) {
+                resources.addAll(patterns.patterns());
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return resourcesByAction.length == 0;
+    }
+}
@@ -0,0 +1,279 @@
+package com.algobrewery.auth.policy;
+
+import com.algobrewery.auth.model.Role;
+import com.algobrewery.auth.repository.RolePolicyView;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of compiled role policies keyed by role UUID.
+ * Entries are versioned by the role's last modification time and recompiled when a newer
+ * version of the role is seen, so checks never evaluate the raw JSON policy.
+ * <p>
+ * Policies are interned so that tenant roles copied from the same template share memory:
+ * <ul>
+ *   <li>identical JSON documents share one read-only tree whose string values are shared
+ *   across all documents ({@link #intern(Role)})</li>
+ *   <li>documents with the same normalized grants (same content hash) share one
+ *   {@link CompiledPolicy}</li>
+ * </ul>
+ * Both pools are reference counted by the registered roles and entries are dropped when the
+ * last role using them is updated or deleted.
+ */
+@Component
+public class CompiledPolicyRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompiledPolicyRegistry.class);
+
+    private final PermissionDictionary dictionary;
+    private final ConcurrentHashMap<UUID, Entry> policies = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<JsonNode, SharedDocument> documents = new ConcurrentHashMap<>();
+    private final Map<String, SharedPolicy> compiledByHash = new HashMap<>();
+    private final ConcurrentHashMap<String, TextNode> texts = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CompiledPolicyRegistry(PermissionDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Get the compiled policy for a role, compiling it if the role is new or has changed.
+     */
+    public CompiledPolicy policyFor(Role role) {
+        return policyFor(role.getRoleUuid(), versionOf(role), role.getPolicy());
+    }
+
+    /**
+     * Get the compiled policy for a role loaded through a {@link RolePolicyView} projection.
+     */
+    public CompiledPolicy policyFor(RolePolicyView view) {
+        Instant version = view.getUpdatedAt() != null ? view.getUpdatedAt() : view.getCreatedAt();
+        return policyFor(view.getRoleUuid(), version, view.getPolicy());
+    }
+
+    /**
+     * Get the compiled policy for a role identified by UUID and version.
+     */
+    public CompiledPolicy policyFor(UUID roleUuid, Instant version, JsonNode policy) {
+        return entryFor(roleUuid, version, policy).compiled();
+    }
+
+    /**
+     * Compile and register the policy of a role that was just created or updated.
+     */
+    public CompiledPolicy register(Role role) {
+        return register(role.getRoleUuid(), versionOf(role), role.getPolicy()).compiled();
+    }
+
+    /**
+     * Register the role and replace its policy with the shared, interned document.
+     * The returned tree is shared between roles and must not be modified.
+     */
+    public JsonNode intern(Role role) {
+        if (role.getPolicy() == null) {
+            return null;
+        }
+        JsonNode shared = entryFor(role.getRoleUuid(), versionOf(role), role.getPolicy()).document.document;
+        role.setPolicy(shared);
+        return shared;
+    }
+
+    /**
+     * Drop the compiled policy of a deleted role.
+     */
+    public synchronized void evict(UUID roleUuid) {
+        Entry removed = policies.remove(roleUuid);
+        if (removed != null) {
+            release(removed.document);
+        }
+    }
+
+    public int size() {
+        return policies.size();
+    }
+
+    /**
+     * Number of distinct policy documents currently shared by the registered roles.
+     */
+    public int documentCount() {
+        return documents.size();
+    }
+
+    /**
+     * Number of distinct compiled policies currently shared by the registered roles.
+     */
+    public synchronized int compiledCount() {
+        return compiledByHash.size();
+    }
+
+    public PermissionDictionary getDictionary() {
+        return dictionary;
+    }
+
+    private Entry entryFor(UUID roleUuid, Instant version, JsonNode policy) {
+        if (roleUuid == null) {
+            return unregisteredEntry(version, policy);
+        }
+        Entry entry = policies.get(roleUuid);
+        if (entry != null && Objects.equals(entry.version, version)) {
+            return entry;
+        }
+        return register(roleUuid, version, policy);
+    }
+
+    private synchronized Entry register(UUID roleUuid, Instant version, JsonNode policy) {
+        if (roleUuid == null) {
+            return unregisteredEntry(version, policy);
+        }
+        Entry existing = policies.get(roleUuid);
+        if (existing != null && Objects.equals(existing.version, version)
+                && Objects.equals(existing.document.document, policy)) {
+            return existing;
+        }
+        SharedDocument document = acquire(policy);
+        Entry entry = new Entry(version, document);
+        policies.put(roleUuid, entry);
+        logger.debug("Compiled policy for role: {}", roleUuid);
+        if (existing != null) {
+            release(existing.document);
+        }
+        return entry;
+    }
+
+    /**
+     * Entry for a policy that is not attached to a persisted role: reuses a shared document
+     * when one exists, but takes no reference on it.
+     */
+    private Entry unregisteredEntry(Instant version, JsonNode policy) {
+        SharedDocument shared = policy != null ? documents.get(policy) : null;
+        if (shared != null) {
+            return new Entry(version, shared);
+        }
+        return new Entry(version, new SharedDocument(policy, null,
+            new SharedPolicy(null, PolicyCompiler.compile(policy, dictionary))));
+    }
+
+    /**
+     * Take a reference on the shared document equal to the policy, creating it if needed.
+     */
+    private SharedDocument acquire(JsonNode policy) {
+        if (policy == null) {
+            return new SharedDocument(null, null, new SharedPolicy(null, CompiledPolicy.EMPTY));
+        }
+        SharedDocument document = documents.get(policy);
+        if (document == null) {
+            String hash = PolicyCompiler.contentHash(policy);
+            SharedPolicy compiled = compiledByHash.get(hash);
+            if (compiled == null) {
+                compiled = new SharedPolicy(hash, PolicyCompiler.compile(policy, dictionary));
+                compiledByHash.put(hash, compiled);
+            }
+            compiled.references++;
+            document = new SharedDocument(canonicalCopy(policy), hash, compiled);
+            documents.put(document.document, document);
+        }
+        document.references++;
+        return document;
+    }
+
+    private void release(SharedDocument document) {
+        if (document.hash == null || --document.references > 0) {
+            return;
+        }
+        documents.remove(document.document);
+        SharedPolicy compiled = document.compiled;
+        if (--compiled.references == 0) {
+            compiledByHash.remove(compiled.hash);
+        }
+    }
+
+    /**
+     * Deep copy of a policy document in which every string value is a shared {@link TextNode}.
+     */
+    private JsonNode canonicalCopy(JsonNode node) {
+        if (node.isTextual()) {
+            return texts.computeIfAbsent(node.textValue(), TextNode::valueOf);
+        }
+        if (node.isObject()) {
+            ObjectNode copy = JsonNodeFactory.instance.objectNode();
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                copy.set(field.getKey().intern(), canonicalCopy(field.getValue()));
+            }
+            return copy;
+        }
+        if (node.isArray()) {
+            ArrayNode copy = JsonNodeFactory.instance.arrayNode(node.size());
+            for (JsonNode element : node) {
+                copy.add(canonicalCopy(element));
+            }
+            return copy;
+        }
+        // Numbers, booleans and null are immutable value nodes
+        return node;
+    }
+
+    private static Instant versionOf(Role role) {
+        return role.getUpdatedAt() != null ? role.getUpdatedAt() : role.getCreatedAt();
+    }
+
+    private static final class Entry {
+        private final Instant version;
+        private final SharedDocument document;
+
+        private Entry(Instant version, SharedDocument document) {
+            this.version = version;
+            this.document = document;
+        }
+
+        private CompiledPolicy compiled() {
+            return document.compiled.policy;
+        }
+    }
+
+    /**
+     * Interned policy document, referenced by the roles whose policy equals it.
+     */
+    private static final class SharedDocument {
+        private final JsonNode document;
+        private final String hash;
+        private final SharedPolicy compiled;
+        private int references;
+
+        private SharedDocument(JsonNode document, String hash, SharedPolicy compiled) {
+            this.document = document;
+            this.hash = hash;
+            this.compiled = compiled;
+        }
+    }
+
+    /**
+     * Compiled policy shared by all documents with the same content hash.
+     */
+    private static final class SharedPolicy {
+        private final String hash;
+        private final CompiledPolicy policy;
+        private int references;
+
+        private SharedPolicy(String hash, CompiledPolicy policy) {
+            this.hash = hash;
+            this.policy = policy;
+        }
+    }
+}
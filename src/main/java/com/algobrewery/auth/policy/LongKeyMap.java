@@ -0,0 +1,144 @@
+package com.algobrewery.auth.policy;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Map from primitive {@code long} keys for the per-assignment indexes of the {@link AuthorizationModel}.
+ * <p>
+ * Entries added with {@link #load} while a generation is built sit in open-addressed arrays, so
+ * an entry costs a {@code long} and a reference instead of a boxed key and a hash node. The
+ * generation is then published read-only; later changes ({@link #put}, {@link #remove}) go to a
+ * concurrent overlay that is small compared to the loaded entries and dropped with the generation.
+ * {@link #load} must not be called once the map is visible to other threads; the other methods
+ * may be called by one writer while others read.
+ */
+final class LongKeyMap<V> {
+
+    private static final Object REMOVED = new Object();
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private Object[] values = new Object[INITIAL_CAPACITY];
+    private int loaded;
+    private final ConcurrentHashMap<Long, Object> changes = new ConcurrentHashMap<>();
+    private volatile int size;
+
+    /**
+     * Add or replace an entry of the generation being built.
+     */
+    void load(long key, V value) {
+        if ((loaded + 1) * 4L > values.length * 3L) {
+            resize(values.length * 2);
+        }
+        int slot = slot(keys, values, key);
+        if (values[slot] == null) {
+            keys[slot] = key;
+            loaded++;
+            size++;
+        }
+        values[slot] = value;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        if (!changes.isEmpty()) {
+            Object changed = changes.get(key);
+            if (changed != null) {
+                return changed == REMOVED ? null : (V) changed;
+            }
+        }
+        return loadedValue(key);
+    }
+
+    /**
+     * Add or replace an entry of a published map, returning the previous value.
+     */
+    V put(long key, V value) {
+        V previous = get(key);
+        changes.put(key, value);
+        if (previous == null) {
+            size++;
+        }
+        return previous;
+    }
+
+    /**
+     * Remove an entry of a published map, returning the previous value.
+     */
+    V remove(long key) {
+        V previous = get(key);
+        if (previous != null) {
+            if (loadedValue(key) != null) {
+                changes.put(key, REMOVED);
+            } else {
+                changes.remove(key);
+            }
+            size--;
+        }
+        return previous;
+    }
+
+    int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEach(EntryConsumer<V> consumer) {
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null) {
+                V value = get(keys[slot]);
+                if (value != null) {
+                    consumer.accept(keys[slot], value);
+                }
+            }
+        }
+        for (Map.Entry<Long, Object> change : changes.entrySet()) {
+            if (change.getValue() != REMOVED && loadedValue(change.getKey()) == null) {
+                consumer.accept(change.getKey(), (V) change.getValue());
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private V loadedValue(long key) {
+        return (V) values[slot(keys, values, key)];
+    }
+
+    private void resize(int capacity) {
+        long[] resizedKeys = new long[capacity];
+        Object[] resizedValues = new Object[capacity];
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null) {
+                int target = slot(resizedKeys, resizedValues, keys[slot]);
+                resizedKeys[target] = keys[slot];
+                resizedValues[target] = values[slot];
+            }
+        }
+        keys = resizedKeys;
+        values = resizedValues;
+    }
+
+    /**
+     * Slot holding the key, or the empty slot where it would be added (linear probing).
+     */
+    private static int slot(long[] keys, Object[] values, long key) {
+        int mask = values.length - 1;
+        int slot = mix(key) & mask;
+        while (values[slot] != null && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    @FunctionalInterface
+    interface EntryConsumer<V> {
+        void accept(long key, V value);
+    }
+}
@@ -0,0 +1,114 @@
+package com.algobrewery.auth.policy;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Global dictionary that interns action and resource names into dense integer ids.
+ * Ids are only assigned while compiling policies; lookups for unknown names never allocate.
+ */
+@Component
+public class PermissionDictionary {
+
+    public static final int UNKNOWN = -1;
+
+    private final ConcurrentHashMap<String, Integer> actionIds = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> resourceIds = new ConcurrentHashMap<>();
+
+    private volatile String[] actions = new String[16];
+    private volatile String[] resources = new String[64];
+    private int actionCount;
+    private int resourceCount;
+
+    /**
+     * Get the id of an action, or {@link #UNKNOWN} if no policy grants it.
+     */
+    public int actionId(String action) {
+        if (action == null) {
+            return UNKNOWN;
+        }
+        Integer id = actionIds.get(action);
+        return id == null ? UNKNOWN : id;
+    }
+
+    /**
+     * Get the id of a resource, or {@link #UNKNOWN} if no policy references it.
+     */
+    public int resourceId(String resource) {
+        if (resource == null) {
+            return UNKNOWN;
+        }
+        Integer id = resourceIds.get(resource);
+        return id == null ? UNKNOWN : id;
+    }
+
+    /**
+     * Intern an action name, assigning a new id if needed.
+     */
+    public int internAction(String action) {
+        Integer id = actionIds.get(action);
+        return id != null ? id : assignAction(action);
+    }
+
+    /**
+     * Intern a resource name, assigning a new id if needed.
+     */
+    public int internResource(String resource) {
+        Integer id = resourceIds.get(resource);
+        return id != null ? id : assignResource(resource);
+    }
+
+    /**
+     * Resolve an action id back to its name.
+     */
+    public String actionName(int id) {
+        String[] snapshot = actions;
+        return id >= 0 && id < snapshot.length ? snapshot[id] : null;
+    }
+
+    /**
+     * Resolve a resource id back to its name.
+     */
+    public String resourceName(int id) {
+        String[] snapshot = resources;
+        return id >= 0 && id < snapshot.length ? snapshot[id] : null;
+    }
+
+    public int actionCount() {
+        return actionIds.size();
+    }
+
+    public int resourceCount() {
+        return resourceIds.size();
+    }
+
+    private synchronized int assignAction(String action) {
+        Integer existing = actionIds.get(action);
+        if (existing != null) {
+            return existing;
+        }
+        int id = actionCount++;
+        actions = store(actions, id, action);
+        actionIds.put(action, id);
+        return id;
+    }
+
+    private synchronized int assignResource(String resource) {
+        Integer existing = resourceIds.get(resource);
+        if (existing != null) {
+            return existing;
+        }
+        int id = resourceCount++;
+        resources = store(resources, id, resource);
+        resourceIds.put(resource, id);
+        return id;
+    }
+
+    private static String[] store(String[] names, int id, String name) {
+        String[] target = id < names.length ? names : Arrays.copyOf(names, names.length * 2);
+        target[id] = name;
+        return target;
+    }
+}
@@ -0,0 +1,182 @@
+package com.algobrewery.auth.policy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Compiles JSON role policies into {@link CompiledPolicy} instances.
+ * <p>
+ * A resource ending in {@code *} is a prefix pattern: {@code *} grants every resource,
+ * {@code user_*} every resource starting with {@code user_} and {@code task:project/*} every
+ * resource below {@code task:project/}. Other resources are matched exactly.
+ */
+public final class PolicyCompiler {
+
+    public static final String WILDCARD = "*";
+
+    private static final String[] SECTIONS = {"data", "features"};
+
+    private PolicyCompiler() {
+    }
+
+    /**
+     * Compile a policy document of the form {@code {"data": {action: [resources]}, "features": {...}}}.
+     * Sections, actions or resources that are not of the expected JSON type are ignored.
+     */
+    public static CompiledPolicy compile(JsonNode policy, PermissionDictionary dictionary) {
+        if (policy == null || !policy.isObject()) {
+            return CompiledPolicy.EMPTY;
+        }
+
+        BitSet[] resourcesByAction = new BitSet[0];
+        List<List<String>> prefixesByAction = new ArrayList<>();
+        boolean granted = false;
+
+        for (String section : SECTIONS) {
+            JsonNode sectionNode = policy.get(section);
+            if (sectionNode == null || !sectionNode.isObject()) {
+                continue;
+            }
+
+            Iterator<Map.Entry<String, JsonNode>> actions = sectionNode.fields();
+            while (actions.hasNext()) {
+                Map.Entry<String, JsonNode> entry = actions.next();
+                if (!entry.getValue().isArray()) {
+                    continue;
+                }
+
+                for (JsonNode resourceNode : entry.getValue()) {
+                    if (!resourceNode.isTextual()) {
+                        continue;
+                    }
+                    int actionId = dictionary.internAction(entry.getKey());
+                    if (actionId >= resourcesByAction.length) {
+                        resourcesByAction = Arrays.copyOf(resourcesByAction, actionId + 1);
+                    }
+                    while (prefixesByAction.size() <= actionId) {
+                        prefixesByAction.add(null);
+                    }
+
+                    String resource = resourceNode.asText();
+                    if (resource.endsWith(WILDCARD)) {
+                        if (prefixesByAction.get(actionId) == null) {
+                            prefixesByAction.set(actionId, new ArrayList<>());
+                        }
+                        prefixesByAction.get(actionId).add(resource.substring(0, resource.length() - WILDCARD.length()));
+                    } else {
+                        if (resourcesByAction[actionId] == null) {
+                            resourcesByAction[actionId] = new BitSet();
+                        }
+                        resourcesByAction[actionId].set(dictionary.internResource(resource));
+                    }
+                    granted = true;
+                }
+            }
+        }
+
+        if (!granted) {
+            return CompiledPolicy.EMPTY;
+        }
+        ResourcePrefixTrie[] patternsByAction = new ResourcePrefixTrie[resourcesByAction.length];
+        for (int actionId = 0; actionId < patternsByAction.length; actionId++) {
+            List<String> prefixes = prefixesByAction.get(actionId);
+            if (prefixes != null) {
+                patternsByAction[actionId] = ResourcePrefixTrie.compile(prefixes);
+            }
+        }
+        return new CompiledPolicy(dictionary, resourcesByAction, patternsByAction);
+    }
+
+    /**
+     * Policy fragments of the form {@code {section: {action: [pattern]}}}, one for every section
+     * and every pattern that grants the resource: the resource itself, {@code *} and each of its
+     * prefixes followed by {@code *}. A policy grants the action on the resource exactly when it
+     * contains (JSONB {@code @>}) at least one of the fragments, which lets the database answer
+     * the question from the GIN index on the policy column.
+     */
+    public static ArrayNode grantFragments(String action, String resource) {
+        List<String> patterns = new ArrayList<>(resource.length() + 2);
+        patterns.add(resource);
+        for (int length = 0; length <= resource.length(); length++) {
+            String pattern = resource.substring(0, length) + WILDCARD;
+            if (!pattern.equals(resource)) {
+                patterns.add(pattern);
+            }
+        }
+
+        ArrayNode fragments = JsonNodeFactory.instance.arrayNode(SECTIONS.length * patterns.size());
+        for (String section : SECTIONS) {
+            for (String pattern : patterns) {
+                ObjectNode fragment = fragments.addObject();
+                fragment.putObject(section).putArray(action).add(pattern);
+            }
+        }
+        return fragments;
+    }
+
+    /**
+     * SHA-256 hash of the normalized grants of a policy. Policies that grant the same resources
+     * for the same actions hash equally, regardless of section, ordering, duplicates or fields
+     * that are not grants.
+     */
+    public static String contentHash(JsonNode policy) {
+        StringBuilder canonical = new StringBuilder();
+        normalize(policy).forEach((action, resources) -> {
+            canonical.append(action).append('\u0000');
+            resources.forEach(resource -> canonical.append(resource).append('\u0000'));
+            canonical.append('\n');
+        });
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Sorted, de-duplicated grants of a policy, merged across sections.
+     */
+    static SortedMap<String, SortedSet<String>> normalize(JsonNode policy) {
+        SortedMap<String, SortedSet<String>> grants = new TreeMap<>();
+        if (policy == null || !policy.isObject()) {
+            return grants;
+        }
+        for (String section : SECTIONS) {
+            JsonNode sectionNode = policy.get(section);
+            if (sectionNode == null || !sectionNode.isObject()) {
+                continue;
+            }
+            Iterator<Map.Entry<String, JsonNode>> actions = sectionNode.fields();
+            while (actions.hasNext()) {
+                Map.Entry<String, JsonNode> entry = actions.next();
+                if (!entry.getValue().isArray()) {
+                    continue;
+                }
+                for (JsonNode resourceNode : entry.getValue()) {
+                    if (resourceNode.isTextual()) {
+                        grants.computeIfAbsent(entry.getKey(), k -> new TreeSet<>()).add(resourceNode.asText());
+                    }
+                }
+            }
+        }
+        return grants;
+    }
+}
@@ -0,0 +1,142 @@
+package com.algobrewery.auth.policy;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Immutable character trie over the prefixes of wildcard resource patterns such as
+ * {@code user_*} or {@code task:project/*}.
+ * <p>
+ * A lookup walks the resource name one character at a time and succeeds at the first node
+ * that ends a prefix, so its cost is bounded by the length of the resource name and does not
+ * depend on how many patterns the policy grants. The pattern {@code *} (empty prefix) matches
+ * every resource.
+ */
+final class ResourcePrefixTrie {
+
+    private static final char[] NO_LABELS = new char[0];
+    private static final ResourcePrefixTrie[] NO_CHILDREN = new ResourcePrefixTrie[0];
+
+    private final char[] labels;
+    private final ResourcePrefixTrie[] children;
+    private final boolean terminal;
+    private final Collection<String> patterns;
+
+    private ResourcePrefixTrie(char[] labels, ResourcePrefixTrie[] children, boolean terminal,
+                               Collection<String> patterns) {
+        this.labels = labels;
+        this.children = children;
+        this.terminal = terminal;
+        this.patterns = patterns;
+    }
+
+    /**
+     * Compile a trie from resource prefixes, i.e. patterns with their trailing {@code *} removed.
+     */
+    static ResourcePrefixTrie compile(Collection<String> prefixes) {
+        MutableNode root = new MutableNode();
+        TreeSet<String> patterns = new TreeSet<>();
+        for (String prefix : prefixes) {
+            MutableNode node = root;
+            for (int i = 0; i < prefix.length() && !node.terminal; i++) {
+                node = node.children.computeIfAbsent(prefix.charAt(i), c -> new MutableNode());
+            }
+            node.terminal = true;
+            patterns.add(prefix + PolicyCompiler.WILDCARD);
+        }
+        return root.compile(List.copyOf(patterns));
+    }
+
+    /**
+     * Check if the resource starts with any of the compiled prefixes.
+     */
+    boolean matches(String resource) {
+        ResourcePrefixTrie node = this;
+        for (int i = 0; ; i++) {
+            if (node.terminal) {
+                return true;
+            }
+            if (i == resource.length()) {
+                return false;
+            }
+            int index = indexOf(node.labels, resource.charAt(i));
+            if (index < 0) {
+                return false;
+            }
+            node = node.children[index];
+        }
+    }
+
+    /**
+     * Number of nodes {@link #matches(String)} visits for the resource.
+     */
+    int nodesVisited(String resource) {
+        ResourcePrefixTrie node = this;
+        for (int i = 0; ; i++) {
+            if (node.terminal || i == resource.length()) {
+                return i + 1;
+            }
+            int index = indexOf(node.labels, resource.charAt(i));
+            if (index < 0) {
+                return i + 1;
+            }
+            node = node.children[index];
+        }
+    }
+
+    /**
+     * Original patterns, including the trailing {@code *}.
+     */
+    Collection<String> patterns() {
+        return patterns;
+    }
+
+    private static int indexOf(char[] labels, char c) {
+        if (labels.length <= 8) {
+            for (int i = 0; i < labels.length; i++) {
+                if (labels[i] == c) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        int low = 0;
+        int high = labels.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char label = labels[mid];
+            if (label < c) {
+                low = mid + 1;
+            } else if (label > c) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private static final class MutableNode {
+        private final TreeMap<Character, MutableNode> children = new TreeMap<>();
+        private boolean terminal;
+
+        private ResourcePrefixTrie compile(Collection<String> patterns) {
+            if (terminal || children.isEmpty()) {
+                // Anything below a terminal node is already covered by its shorter prefix
+                return new ResourcePrefixTrie(NO_LABELS, NO_CHILDREN, terminal, patterns);
+            }
+            char[] labels = new char[children.size()];
+            ResourcePrefixTrie[] compiled = new ResourcePrefixTrie[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, MutableNode> child : children.entrySet()) {
+                labels[i] = child.getKey();
+                compiled[i] = child.getValue().compile(List.of());
+                i++;
+            }
+            return new ResourcePrefixTrie(labels, compiled, false, patterns);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.algobrewery.auth.policy;
+
+import com.algobrewery.auth.model.Role;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener that replaces the policy of every loaded or saved {@link Role} with the
+ * shared document from the {@link CompiledPolicyRegistry}, so roles with identical policies
+ * hold one JSON tree instead of a copy each.
+ */
+@Component
+public class RolePolicyInterningListener {
+
+    private final CompiledPolicyRegistry compiledPolicyRegistry;
+
+    @Autowired
+    public RolePolicyInterningListener(CompiledPolicyRegistry compiledPolicyRegistry) {
+        this.compiledPolicyRegistry = compiledPolicyRegistry;
+    }
+
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    public void intern(Role role) {
+        compiledPolicyRegistry.intern(role);
+    }
+}
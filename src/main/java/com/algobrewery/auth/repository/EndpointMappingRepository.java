@@ -0,0 +1,20 @@
+package com.algobrewery.auth.repository;
+
+import com.algobrewery.auth.model.EndpointMappingRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository interface for EndpointMappingRule entity.
+ */
+@Repository
+public interface EndpointMappingRepository extends JpaRepository<EndpointMappingRule, UUID> {
+
+    /**
+     * Find all enabled endpoint mappings.
+     */
+    List<EndpointMappingRule> findByEnabledTrue();
+}
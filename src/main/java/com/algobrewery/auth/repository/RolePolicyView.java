@@ -0,0 +1,22 @@
+package com.algobrewery.auth.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Lightweight projection of the role fields needed to evaluate a user's permissions.
+ */
+public interface RolePolicyView {
+
+    UUID getRoleUuid();
+
+    String getRoleName();
+
+    JsonNode getPolicy();
+
+    Instant getCreatedAt();
+
+    Instant getUpdatedAt();
+}
@@ -2,11 +2,13 @@ package com.algobrewery.auth.repository;
 
 import com.algobrewery.auth.model.Role;
 import com.algobrewery.auth.model.RoleManagementType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -27,6 +29,22 @@ public interface RoleRepository extends JpaRepository<Role, UUID> {
      */
     List<Role> findByOrganizationUuid(String organizationUuid);
 
+    /**
+     * Find the first roles of an organization in (created_at, role_uuid) order.
+     */
+    List<Role> findByOrganizationUuidOrderByCreatedAtAscRoleUuidAsc(String organizationUuid, Pageable pageable);
+
+    /**
+     * Find the roles of an organization that sort after the given key in (created_at, role_uuid) order.
+     */
+    @Query(value = "SELECT * FROM roles r WHERE r.organization_uuid = :organizationUuid " +
+                   "AND (r.created_at, r.role_uuid) > (:createdAt, :roleUuid) " +
+                   "ORDER BY r.created_at, r.role_uuid", nativeQuery = true)
+    List<Role> findByOrganizationUuidAfter(@Param("organizationUuid") String organizationUuid,
+                                           @Param("createdAt") Instant createdAt,
+                                           @Param("roleUuid") UUID roleUuid,
+                                           Pageable pageable);
+
     /**
      * Find roles by role management type.
      */
@@ -61,12 +79,28 @@ public interface RoleRepository extends JpaRepository<Role, UUID> {
     boolean existsByRoleNameAndOrganizationUuidIsNullAndRoleManagementType(@Param("roleName") String roleName, @Param("managementType") RoleManagementType managementType);
 
     /**
-     * Find roles by organization UUID with policy containing specific resource.
+     * Find roles by organization UUID whose policy lists a resource, under any action and section.
+     * Resources are compared as whole JSON strings, so {@code task} does not match {@code create_task}.
      */
-    @Query(value = "SELECT * FROM roles r WHERE r.organization_uuid = :organizationUuid AND r.policy::text LIKE %:resource%", nativeQuery = true)
+    @Query(value = "SELECT * FROM roles r WHERE r.organization_uuid = :organizationUuid " +
+                   "AND jsonb_path_exists(CAST(r.policy AS jsonb), '$.*.*[*] ? (@ == $resource)', " +
+                   "jsonb_build_object('resource', CAST(:resource AS text)))", nativeQuery = true)
     List<Role> findByOrganizationUuidAndPolicyContainingResource(@Param("organizationUuid") String organizationUuid, 
                                                                 @Param("resource") String resource);
 
+    /**
+     * Find roles by organization UUID whose policy contains at least one of the given fragments,
+     * passed as a JSON array (see {@link com.algobrewery.auth.policy.PolicyCompiler#grantFragments}).
+     * The {@code @> ANY} condition is answered from the GIN index {@code idx_roles_policy} on the
+     * {@code jsonb} policy column created by migration V1. PostgreSQL only: schemas generated by
+     * Hibernate (such as the H2 test profile) have neither the {@code jsonb} type nor the index.
+     */
+    @Query(value = "SELECT * FROM roles r WHERE r.organization_uuid = :organizationUuid " +
+                   "AND r.policy @> ANY (ARRAY(SELECT jsonb_array_elements(CAST(:fragments AS jsonb)))) " +
+                   "ORDER BY r.role_name", nativeQuery = true)
+    List<Role> findByOrganizationUuidAndPolicyContainingAny(@Param("organizationUuid") String organizationUuid,
+                                                           @Param("fragments") String fragments);
+
     /**
      * Count roles by role management type.
      */
@@ -1,11 +1,13 @@
 package com.algobrewery.auth.repository;
 
 import com.algobrewery.auth.model.UserRole;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -29,27 +31,43 @@ public interface UserRoleRepository extends JpaRepository<UserRole, UUID> {
     /**
      * Find user role by user UUID, role UUID, and organization UUID.
      */
-    Optional<UserRole> findByUserUuidAndRoleUuidAndOrganizationUuid(String userUuid, String roleUuid, String organizationUuid);
+    Optional<UserRole> findByUserUuidAndRoleUuidAndOrganizationUuid(String userUuid, UUID roleUuid, String organizationUuid);
 
     /**
      * Check if user role assignment exists.
      */
-    boolean existsByUserUuidAndRoleUuidAndOrganizationUuid(String userUuid, String roleUuid, String organizationUuid);
+    boolean existsByUserUuidAndRoleUuidAndOrganizationUuid(String userUuid, UUID roleUuid, String organizationUuid);
 
     /**
      * Find all user roles by organization UUID.
      */
     List<UserRole> findByOrganizationUuid(String organizationUuid);
 
+    /**
+     * Find the first user roles of an organization in (created_at, user_role_uuid) order.
+     */
+    List<UserRole> findByOrganizationUuidOrderByCreatedAtAscUserRoleUuidAsc(String organizationUuid, Pageable pageable);
+
+    /**
+     * Find the user roles of an organization that sort after the given key in (created_at, user_role_uuid) order.
+     */
+    @Query(value = "SELECT * FROM user_roles ur WHERE ur.organization_uuid = :organizationUuid " +
+           "AND (ur.created_at, ur.user_role_uuid) > (:createdAt, :userRoleUuid) " +
+           "ORDER BY ur.created_at, ur.user_role_uuid", nativeQuery = true)
+    List<UserRole> findByOrganizationUuidAfter(@Param("organizationUuid") String organizationUuid,
+                                               @Param("createdAt") Instant createdAt,
+                                               @Param("userRoleUuid") UUID userRoleUuid,
+                                               Pageable pageable);
+
     /**
      * Find user roles by role UUID.
      */
-    List<UserRole> findByRoleUuid(String roleUuid);
+    List<UserRole> findByRoleUuid(UUID roleUuid);
 
     /**
      * Delete user role assignment.
      */
-    void deleteByUserUuidAndRoleUuidAndOrganizationUuid(String userUuid, String roleUuid, String organizationUuid);
+    void deleteByUserUuidAndRoleUuidAndOrganizationUuid(String userUuid, UUID roleUuid, String organizationUuid);
 
     /**
      * Count user roles by user UUID and organization UUID.
@@ -59,8 +77,35 @@ public interface UserRoleRepository extends JpaRepository<UserRole, UUID> {
     /**
      * Find user roles with role details using join.
      */
-    @Query("SELECT ur FROM UserRole ur JOIN Role r ON ur.roleUuid = CAST(r.roleUuid AS string) " +
+    @Query("SELECT ur FROM UserRole ur JOIN Role r ON ur.roleUuid = r.roleUuid " +
            "WHERE ur.userUuid = :userUuid AND ur.organizationUuid = :organizationUuid")
     List<UserRole> findUserRolesWithRoleDetails(@Param("userUuid") String userUuid, 
                                                @Param("organizationUuid") String organizationUuid);
+
+    /**
+     * Find the roles and policies assigned to a user in an organization in a single joined query.
+     */
+    @Query("SELECT r.roleUuid AS roleUuid, r.roleName AS roleName, r.policy AS policy, " +
+           "r.createdAt AS createdAt, r.updatedAt AS updatedAt " +
+           "FROM UserRole ur JOIN Role r ON ur.roleUuid = r.roleUuid " +
+           "WHERE ur.userUuid = :userUuid AND ur.organizationUuid = :organizationUuid " +
+           "ORDER BY ur.createdAt")
+    List<RolePolicyView> findRolePoliciesForUser(@Param("userUuid") String userUuid,
+                                                 @Param("organizationUuid") String organizationUuid);
+
+    /**
+     * Find the users of an organization holding a role whose policy contains one of the given
+     * fragments (see {@link com.algobrewery.auth.policy.PolicyCompiler#grantFragments}), in byte order
+     * of user UUID after the given cursor. Byte order matches {@link String#compareTo} so pages
+     * line up with those served from the in-memory authorization model.
+     */
+    @Query(value = "SELECT DISTINCT ur.user_uuid COLLATE \"C\" AS user_uuid " +
+           "FROM user_roles ur JOIN roles r ON ur.role_uuid = r.role_uuid " +
+           "WHERE ur.organization_uuid = :organizationUuid AND ur.user_uuid COLLATE \"C\" > :afterUserUuid " +
+           "AND CAST(r.policy AS jsonb) @> ANY (ARRAY(SELECT jsonb_array_elements(CAST(:fragments AS jsonb)))) " +
+           "ORDER BY 1 LIMIT :limit", nativeQuery = true)
+    List<String> findUsersGranting(@Param("organizationUuid") String organizationUuid,
+                                   @Param("fragments") String fragments,
+                                   @Param("afterUserUuid") String afterUserUuid,
+                                   @Param("limit") int limit);
 }
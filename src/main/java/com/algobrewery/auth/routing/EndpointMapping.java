@@ -0,0 +1,47 @@
+package com.algobrewery.auth.routing;
+
+import java.util.Objects;
+
+/**
+ * Immutable action and resource an endpoint maps to. Instances are shared by every match.
+ */
+public final class EndpointMapping {
+
+    private final String action;
+    private final String resource;
+
+    public EndpointMapping(String action, String resource) {
+        this.action = Objects.requireNonNull(action, "action");
+        this.resource = Objects.requireNonNull(resource, "resource");
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public String getResource() {
+        return resource;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof EndpointMapping)) {
+            return false;
+        }
+        EndpointMapping other = (EndpointMapping) o;
+        return action.equals(other.action) && resource.equals(other.resource);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * action.hashCode() + resource.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return action + " " + resource;
+    }
+}
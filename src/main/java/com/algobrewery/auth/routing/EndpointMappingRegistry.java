@@ -0,0 +1,214 @@
+package com.algobrewery.auth.routing;
+
+import com.algobrewery.auth.cache.CacheInvalidator;
+import com.algobrewery.auth.model.EndpointMappingRule;
+import com.algobrewery.auth.repository.EndpointMappingRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Holds the current {@link EndpointRouter}, built from the routes in {@code endpoint-mappings.yml}
+ * and the enabled rows of the {@code endpoint_mappings} table.
+ * <p>
+ * Lookups read an immutable router snapshot without locking. The sources are polled every
+ * {@code app.endpoint-mappings.refresh-interval-ms}; when the YAML file or the table changed,
+ * a new router is built and swapped in atomically and cached endpoint decisions are evicted.
+ * Table changes are detected from a hash of the enabled rows' contents, so edits made with
+ * plain SQL that leave {@code updated_at} untouched are picked up as well.
+ * A database row overrides a YAML route for the same method and path pattern. Invalid mappings
+ * fail startup, but a failed reload is logged and the previous snapshot stays in use.
+ */
+@Component
+public class EndpointMappingRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(EndpointMappingRegistry.class);
+
+    private final ResourceLoader resourceLoader;
+    private final EndpointMappingRepository endpointMappingRepository;
+    private final CacheInvalidator cacheInvalidator;
+    private final String location;
+
+    private volatile EndpointRouter router = EndpointRouter.EMPTY;
+    private volatile String fingerprint;
+
+    @Autowired
+    public EndpointMappingRegistry(ResourceLoader resourceLoader,
+                                   EndpointMappingRepository endpointMappingRepository,
+                                   CacheInvalidator cacheInvalidator,
+                                   @Value("${app.endpoint-mappings.location:classpath:endpoint-mappings.yml}") String location) {
+        this.resourceLoader = resourceLoader;
+        this.endpointMappingRepository = endpointMappingRepository;
+        this.cacheInvalidator = cacheInvalidator;
+        this.location = location;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        reload();
+    }
+
+    /**
+     * Route an endpoint of the form {@code "METHOD /path"}, returning null when no route matches.
+     */
+    public EndpointMapping route(String endpoint) {
+        return router.route(endpoint);
+    }
+
+    /**
+     * Current router snapshot.
+     */
+    public EndpointRouter getRouter() {
+        return router;
+    }
+
+    /**
+     * Rebuild the router if the YAML file or the database mappings changed since the last load.
+     */
+    @Scheduled(fixedDelayString = "${app.endpoint-mappings.refresh-interval-ms:30000}",
+               initialDelayString = "${app.endpoint-mappings.refresh-interval-ms:30000}")
+    public void refresh() {
+        try {
+            List<EndpointMappingRule> rows = endpointMappingRepository.findByEnabledTrue();
+            String current = fingerprint(rows);
+            if (!current.equals(fingerprint)) {
+                reload(rows, current);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to reload endpoint mappings, keeping {} current routes", router.size(), e);
+        }
+    }
+
+    /**
+     * Unconditionally rebuild the router from both sources.
+     *
+     * @throws IllegalArgumentException if a mapping is malformed
+     * @throws IllegalStateException if the mappings file cannot be read
+     */
+    public void reload() {
+        List<EndpointMappingRule> rows = endpointMappingRepository.findByEnabledTrue();
+        reload(rows, fingerprint(rows));
+    }
+
+    private synchronized void reload(List<EndpointMappingRule> rows, String sourceFingerprint) {
+        Map<String, EndpointMappingRule> routes = new LinkedHashMap<>();
+        for (EndpointMappingRule rule : readFile()) {
+            addRoute(routes, rule);
+        }
+        for (EndpointMappingRule rule : rows) {
+            addRoute(routes, rule);
+        }
+
+        EndpointRouter.Builder builder = EndpointRouter.builder();
+        routes.forEach((route, rule) ->
+            builder.route(rule.getHttpMethods(), rule.getPathPattern(), rule.getAction(), rule.getResource()));
+        EndpointRouter previous = router;
+        router = builder.build();
+        fingerprint = sourceFingerprint;
+
+        logger.info("Loaded {} endpoint routes", router.size());
+        if (previous != EndpointRouter.EMPTY) {
+            cacheInvalidator.endpointMappingsChanged();
+        }
+    }
+
+    /**
+     * Register a rule once per HTTP method, replacing an earlier rule for the same method and pattern.
+     */
+    private static void addRoute(Map<String, EndpointMappingRule> routes, EndpointMappingRule rule) {
+        if (rule.getHttpMethods() == null || rule.getPathPattern() == null) {
+            throw new IllegalArgumentException("Endpoint mapping requires methods and a path: " + rule);
+        }
+        for (String method : rule.getHttpMethods().split(",")) {
+            String key = method.trim().toUpperCase(Locale.ROOT);
+            if (key.isEmpty()) {
+                continue;
+            }
+            String pattern = rule.getPathPattern().trim();
+            routes.put(key + " " + pattern, new EndpointMappingRule(key, pattern, rule.getAction(), rule.getResource()));
+        }
+    }
+
+    private List<EndpointMappingRule> readFile() {
+        Resource resource = resourceLoader.getResource(location);
+        try (InputStream in = resource.getInputStream()) {
+            return parse(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read endpoint mappings from " + location, e);
+        }
+    }
+
+    /**
+     * Parse a mappings document of the form {@code routes: [{methods, path, action, resource}, ...]}.
+     */
+    static List<EndpointMappingRule> parse(InputStream in) {
+        Object document = new Yaml(new SafeConstructor(new LoaderOptions())).load(in);
+        if (document == null) {
+            return List.of();
+        }
+        if (!(document instanceof Map<?, ?> root) || !(root.get("routes") instanceof List<?> entries)) {
+            throw new IllegalArgumentException("Endpoint mappings must define a 'routes' list");
+        }
+        return entries.stream()
+            .map(entry -> {
+                if (!(entry instanceof Map<?, ?> route)) {
+                    throw new IllegalArgumentException("Invalid endpoint mapping: " + entry);
+                }
+                return new EndpointMappingRule(value(route, "methods"), value(route, "path"),
+                    value(route, "action"), value(route, "resource"));
+            })
+            .toList();
+    }
+
+    private static String value(Map<?, ?> route, String field) {
+        Object value = route.get(field);
+        return value != null ? value.toString() : null;
+    }
+
+    /**
+     * Modification time of the mappings file and a SHA-256 hash of the enabled rows, independent of row order.
+     */
+    private String fingerprint(List<EndpointMappingRule> rows) {
+        long fileModified;
+        try {
+            fileModified = resourceLoader.getResource(location).lastModified();
+        } catch (IOException e) {
+            fileModified = -1;
+        }
+        List<String> lines = rows.stream()
+            .map(rule -> String.join("\t", rule.getHttpMethods(), rule.getPathPattern(), rule.getAction(),
+                rule.getResource()))
+            .sorted()
+            .toList();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String line : lines) {
+                digest.update(line.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            return fileModified + "|" + HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
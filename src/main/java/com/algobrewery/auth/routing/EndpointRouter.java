@@ -0,0 +1,217 @@
+package com.algobrewery.auth.routing;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable router from {@code "METHOD /path"} endpoints to {@link EndpointMapping}s.
+ * <p>
+ * Routes are compiled into one path-segment tree per HTTP method, so a lookup walks at most
+ * one node per path segment regardless of how many routes exist. Pattern segments are:
+ * <ul>
+ *   <li>a literal such as {@code tasks}</li>
+ *   <li>{@code {name}} or {@code *}, matching exactly one segment</li>
+ *   <li>{@code **} as the last segment, matching zero or more remaining segments</li>
+ * </ul>
+ * Literal segments take precedence over single-segment variables, which take precedence
+ * over {@code **}. Query strings are ignored and empty segments are skipped.
+ */
+public final class EndpointRouter {
+
+    public static final EndpointRouter EMPTY = builder().build();
+
+    private static final String DEEP_WILDCARD = "**";
+
+    private final Map<String, Node> roots;
+    private final int size;
+
+    private EndpointRouter(Map<String, Node> roots, int size) {
+        this.roots = roots;
+        this.size = size;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Route an endpoint of the form {@code "METHOD /path"}, returning null when no route matches.
+     */
+    public EndpointMapping route(String endpoint) {
+        if (endpoint == null) {
+            return null;
+        }
+        String trimmed = endpoint.trim();
+        int space = trimmed.indexOf(' ');
+        if (space <= 0) {
+            return null;
+        }
+        return route(trimmed.substring(0, space), trimmed.substring(space + 1).trim());
+    }
+
+    /**
+     * Route a method and path, returning null when no route matches.
+     */
+    public EndpointMapping route(String method, String path) {
+        if (method == null || path == null) {
+            return null;
+        }
+        Node root = roots.get(method.toUpperCase(Locale.ROOT));
+        if (root == null) {
+            return null;
+        }
+        int end = path.indexOf('?');
+        if (end < 0) {
+            end = path.length();
+        }
+        return match(root, path, skipSlashes(path, 0, end), end);
+    }
+
+    /**
+     * Number of (method, pattern) routes compiled into this router.
+     */
+    public int size() {
+        return size;
+    }
+
+    private static EndpointMapping match(Node node, String path, int start, int end) {
+        if (start >= end) {
+            return node.terminal != null ? node.terminal : node.deepMatch;
+        }
+        int slash = path.indexOf('/', start);
+        if (slash < 0 || slash > end) {
+            slash = end;
+        }
+        int next = skipSlashes(path, slash, end);
+
+        Node literal = node.literals.get(path.substring(start, slash));
+        if (literal != null) {
+            EndpointMapping mapping = match(literal, path, next, end);
+            if (mapping != null) {
+                return mapping;
+            }
+        }
+        if (node.variable != null) {
+            EndpointMapping mapping = match(node.variable, path, next, end);
+            if (mapping != null) {
+                return mapping;
+            }
+        }
+        return node.deepMatch;
+    }
+
+    private static int skipSlashes(String path, int index, int end) {
+        while (index < end && path.charAt(index) == '/') {
+            index++;
+        }
+        return index;
+    }
+
+    private static boolean isVariable(String segment) {
+        return "*".equals(segment) || (segment.length() > 2 && segment.startsWith("{") && segment.endsWith("}"));
+    }
+
+    /**
+     * Compiled, read-only tree node.
+     */
+    private static final class Node {
+        private final Map<String, Node> literals;
+        private final Node variable;
+        private final EndpointMapping terminal;
+        private final EndpointMapping deepMatch;
+
+        private Node(Map<String, Node> literals, Node variable, EndpointMapping terminal, EndpointMapping deepMatch) {
+            this.literals = literals;
+            this.variable = variable;
+            this.terminal = terminal;
+            this.deepMatch = deepMatch;
+        }
+    }
+
+    /**
+     * Collects routes and compiles them into an {@link EndpointRouter}.
+     * Mappings with equal action and resource are shared between routes.
+     */
+    public static final class Builder {
+
+        private final Map<String, MutableNode> roots = new HashMap<>();
+        private final Map<EndpointMapping, EndpointMapping> mappings = new HashMap<>();
+        private int size;
+
+        private Builder() {
+        }
+
+        /**
+         * Add a route for one or more comma-separated HTTP methods.
+         *
+         * @throws IllegalArgumentException if the route is malformed or already defined
+         */
+        public Builder route(String methods, String pattern, String action, String resource) {
+            if (methods == null || methods.isBlank() || pattern == null || pattern.isBlank()) {
+                throw new IllegalArgumentException("Route requires a method and a path pattern");
+            }
+            if (action == null || action.isBlank() || resource == null || resource.isBlank()) {
+                throw new IllegalArgumentException("Route " + methods + " " + pattern + " requires an action and resource");
+            }
+            EndpointMapping mapping = mappings.computeIfAbsent(new EndpointMapping(action.trim(), resource.trim()), m -> m);
+            String[] segments = pattern.trim().split("/+");
+            for (String method : methods.split(",")) {
+                String key = method.trim().toUpperCase(Locale.ROOT);
+                if (key.isEmpty()) {
+                    continue;
+                }
+                insert(roots.computeIfAbsent(key, k -> new MutableNode()), segments, key + " " + pattern, mapping);
+                size++;
+            }
+            return this;
+        }
+
+        public EndpointRouter build() {
+            Map<String, Node> compiled = new HashMap<>();
+            roots.forEach((method, node) -> compiled.put(method, node.compile()));
+            return new EndpointRouter(Map.copyOf(compiled), size);
+        }
+
+        private static void insert(MutableNode root, String[] segments, String route, EndpointMapping mapping) {
+            MutableNode node = root;
+            for (int i = 0; i < segments.length; i++) {
+                String segment = segments[i];
+                if (segment.isEmpty()) {
+                    continue;
+                }
+                if (DEEP_WILDCARD.equals(segment)) {
+                    if (i != segments.length - 1) {
+                        throw new IllegalArgumentException("'**' must be the last segment: " + route);
+                    }
+                    if (node.deepMatch != null && !node.deepMatch.equals(mapping)) {
+                        throw new IllegalArgumentException("Duplicate route: " + route);
+                    }
+                    node.deepMatch = mapping;
+                    return;
+                }
+                node = isVariable(segment)
+                    ? (node.variable != null ? node.variable : (node.variable = new MutableNode()))
+                    : node.literals.computeIfAbsent(segment, s -> new MutableNode());
+            }
+            if (node.terminal != null && !node.terminal.equals(mapping)) {
+                throw new IllegalArgumentException("Duplicate route: " + route);
+            }
+            node.terminal = mapping;
+        }
+    }
+
+    private static final class MutableNode {
+        private final Map<String, MutableNode> literals = new HashMap<>();
+        private MutableNode variable;
+        private EndpointMapping terminal;
+        private EndpointMapping deepMatch;
+
+        private Node compile() {
+            Map<String, Node> compiledLiterals = new HashMap<>();
+            literals.forEach((segment, child) -> compiledLiterals.put(segment, child.compile()));
+            return new Node(Map.copyOf(compiledLiterals), variable != null ? variable.compile() : null,
+                terminal, deepMatch);
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package com.algobrewery.auth.service;
 
+import com.algobrewery.auth.dto.BatchPermissionCheckResponse;
+import com.algobrewery.auth.dto.PermissionCheckItem;
 import com.algobrewery.auth.dto.PermissionCheckRequest;
 import com.algobrewery.auth.dto.PermissionCheckResponse;
+import com.algobrewery.auth.dto.WhoCanAccessResponse;
 
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -29,6 +33,29 @@ public interface PermissionService {
      * @return permission check response
      */
     CompletableFuture<PermissionCheckResponse> checkPermissionByEndpoint(String userUuid, String organizationUuid, PermissionCheckRequest request);
+
+    /**
+     * Check several permissions for a user at once, resolving the user's roles only once.
+     * 
+     * @param userUuid the user UUID from x-app-user-uuid header
+     * @param organizationUuid the organization UUID from x-app-org-uuid header
+     * @param checks the action/resource or endpoint checks to evaluate
+     * @return one result per check, in request order
+     */
+    CompletableFuture<BatchPermissionCheckResponse> checkPermissions(String userUuid, String organizationUuid, List<PermissionCheckItem> checks);
+
+    /**
+     * List the users of an organization who are granted an action on a resource.
+     * 
+     * @param organizationUuid the organization UUID from x-app-org-uuid header
+     * @param action the action to look up
+     * @param resource the resource to look up
+     * @param pageToken the next_page_token of the previous page, or null for the first page
+     * @param pageSize the maximum number of users to return
+     * @return one page of users, ordered by user UUID
+     */
+    CompletableFuture<WhoCanAccessResponse> getUsersWithAccess(String organizationUuid, String action, String resource,
+                                                               String pageToken, int pageSize);
     
     // Legacy methods for backward compatibility (deprecated)
     @Deprecated
@@ -1,8 +1,10 @@
 package com.algobrewery.auth.service;
 
+import com.algobrewery.auth.dto.PageResponse;
 import com.algobrewery.auth.dto.RoleRequest;
 import com.algobrewery.auth.dto.RoleResponse;
 
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -17,6 +19,11 @@ public interface RoleService {
     CompletableFuture<Void> deleteRole(UUID roleUuid);
     CompletableFuture<RoleResponse> getRole(UUID roleUuid);
     CompletableFuture<List<RoleResponse>> getRolesByOrganization(String organizationUuid);
+    CompletableFuture<PageResponse<RoleResponse>> getRolesByOrganizationPage(String organizationUuid, String pageToken,
+                                                                             int pageSize);
+    void exportRolesByOrganization(String organizationUuid, OutputStream outputStream);
+    CompletableFuture<List<RoleResponse>> getRolesByOrganizationGranting(String organizationUuid, String action,
+                                                                         String resource);
     CompletableFuture<List<RoleResponse>> getSystemManagedRoles();
     CompletableFuture<Optional<RoleResponse>> getRoleByNameAndOrganization(String roleName, String organizationUuid);
 }
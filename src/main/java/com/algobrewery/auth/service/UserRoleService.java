@@ -1,7 +1,12 @@
 package com.algobrewery.auth.service;
 
+import com.algobrewery.auth.dto.BulkRoleAssignmentResponse;
+import com.algobrewery.auth.dto.EffectivePermissionsResponse;
+import com.algobrewery.auth.dto.PageResponse;
+import com.algobrewery.auth.dto.RoleAssignmentItem;
 import com.algobrewery.auth.dto.UserRoleAssignmentResponse;
 
+import java.io.OutputStream;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
@@ -11,10 +16,17 @@ import java.util.concurrent.CompletableFuture;
 public interface UserRoleService {
     CompletableFuture<UserRoleAssignmentResponse> assignRoleToUser(String userUuid, String roleUuid, 
                                                                   String organizationUuid, String assignerUuid);
+    CompletableFuture<BulkRoleAssignmentResponse> assignRolesToUsers(List<RoleAssignmentItem> assignments,
+                                                                     String organizationUuid, String assignerUuid);
     CompletableFuture<Void> removeRoleFromUser(String userUuid, String roleUuid, String organizationUuid);
     CompletableFuture<List<UserRoleAssignmentResponse>> getUserRoles(String userUuid, String organizationUuid);
     CompletableFuture<List<UserRoleAssignmentResponse>> getUserRolesByOrganization(String organizationUuid);
+    CompletableFuture<PageResponse<UserRoleAssignmentResponse>> getUserRolesByOrganizationPage(String organizationUuid,
+                                                                                               String pageToken,
+                                                                                               int pageSize);
+    void exportUserRolesByOrganization(String organizationUuid, OutputStream outputStream);
     CompletableFuture<List<UserRoleAssignmentResponse>> getUserRolesWithDetails(String userUuid, String organizationUuid);
     CompletableFuture<Boolean> userHasRole(String userUuid, String roleUuid, String organizationUuid);
     CompletableFuture<Long> countUserRoles(String userUuid, String organizationUuid);
+    CompletableFuture<EffectivePermissionsResponse> getEffectivePermissions(String userUuid, String organizationUuid);
 }
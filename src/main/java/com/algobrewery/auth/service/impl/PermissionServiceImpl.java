@@ -1,91 +1,116 @@
 package com.algobrewery.auth.service.impl;
 
+import com.algobrewery.auth.dto.BatchPermissionCheckResponse;
+import com.algobrewery.auth.dto.PermissionCheckItem;
 import com.algobrewery.auth.dto.PermissionCheckRequest;
 import com.algobrewery.auth.dto.PermissionCheckResponse;
-import com.algobrewery.auth.model.Role;
-import com.algobrewery.auth.model.UserRole;
-import com.algobrewery.auth.repository.RoleRepository;
+import com.algobrewery.auth.dto.WhoCanAccessResponse;
+import com.algobrewery.auth.jfr.EndpointMappingMissEvent;
+import com.algobrewery.auth.jfr.PermissionCheckEvent;
+import com.algobrewery.auth.metrics.PermissionMetrics;
+import com.algobrewery.auth.policy.AuthorizationModel;
+import com.algobrewery.auth.policy.CompiledPolicy;
+import com.algobrewery.auth.policy.CompiledPolicyRegistry;
+import com.algobrewery.auth.policy.PolicyCompiler;
+import com.algobrewery.auth.repository.RolePolicyView;
 import com.algobrewery.auth.repository.UserRoleRepository;
+import com.algobrewery.auth.routing.EndpointMapping;
+import com.algobrewery.auth.routing.EndpointMappingRegistry;
 import com.algobrewery.auth.service.PermissionService;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
 
 /**
  * Implementation of PermissionService for permission checking operations.
+ * Checks emit {@link PermissionCheckEvent}s and unknown endpoints {@link EndpointMappingMissEvent}s
+ * for Flight Recorder; both cost next to nothing unless a recording enables them.
  */
 @Service
 public class PermissionServiceImpl implements PermissionService {
 
     private static final Logger logger = LoggerFactory.getLogger(PermissionServiceImpl.class);
 
+    private static final String SOURCE_DATABASE = "database";
+    private static final String SOURCE_MODEL = "model";
+
     private final UserRoleRepository userRoleRepository;
-    private final RoleRepository roleRepository;
-    private final ObjectMapper objectMapper;
+    private final CompiledPolicyRegistry compiledPolicyRegistry;
+    private final EndpointMappingRegistry endpointMappingRegistry;
+    private final ObjectProvider<AuthorizationModel> authorizationModel;
+    private final Executor dbExecutor;
 
     @Autowired
     public PermissionServiceImpl(UserRoleRepository userRoleRepository,
-                                 RoleRepository roleRepository,
-                                 ObjectMapper objectMapper) {
+                                 CompiledPolicyRegistry compiledPolicyRegistry,
+                                 EndpointMappingRegistry endpointMappingRegistry,
+                                 ObjectProvider<AuthorizationModel> authorizationModel,
+                                 @Qualifier("dbExecutor") Executor dbExecutor) {
         this.userRoleRepository = userRoleRepository;
-        this.roleRepository = roleRepository;
-        this.objectMapper = objectMapper;
+        this.compiledPolicyRegistry = compiledPolicyRegistry;
+        this.endpointMappingRegistry = endpointMappingRegistry;
+        this.authorizationModel = authorizationModel;
+        this.dbExecutor = dbExecutor;
     }
 
     /**
      * Check if user has permission for a specific action and resource (new header-based method).
      */
     @Override
-    @Cacheable(value = "permissions", key = "#userUuid + '_' + #organizationUuid + '_' + #request.action + '_' + #request.resource")
+    @Cacheable(value = "permissions", key = "T(com.algobrewery.auth.cache.CacheKeys).permission(#userUuid, #organizationUuid, #request.action, #request.resource)", sync = true)
     public CompletableFuture<PermissionCheckResponse> checkPermission(String userUuid, String organizationUuid, PermissionCheckRequest request) {
+        PermissionMetrics.Check check = PermissionMetrics.currentCheck();
+        AuthorizationModel model = readyModel();
+        if (model != null) {
+            // Answered from memory without a database round trip
+            PermissionCheckEvent event = new PermissionCheckEvent();
+            event.begin();
+            List<AuthorizationModel.RoleGrant> grants = model.rolesFor(userUuid, organizationUuid);
+            check.rolesEvaluated(grants.size());
+            PermissionCheckResponse response = evaluateGrants(grants, request.getAction(), request.getResource(), event);
+            event.commit(userUuid, organizationUuid, request.getAction(), request.getResource(), 1, grants.size(),
+                    response.isHasPermission(), SOURCE_MODEL);
+            return CompletableFuture.completedFuture(response);
+        }
         return CompletableFuture.supplyAsync(() -> {
             logger.debug("Checking permission for user: {}, action: {}, resource: {}",
                     userUuid, request.getAction(), request.getResource());
-
-            try {
-                // Get user's roles in the organization
-                List<UserRole> userRoles = userRoleRepository.findByUserUuidAndOrganizationUuid(
+            PermissionCheckEvent event = new PermissionCheckEvent();
+            event.begin();
+
+            // Get user's roles and their policies in the organization with a single query.
+            // Lookup failures complete the future exceptionally so that they are never cached as a denial.
+            check.databaseRoundTrip();
+            List<RolePolicyView> roles = userRoleRepository.findRolePoliciesForUser(
+                    userUuid, organizationUuid);
+            check.rolesEvaluated(roles.size());
+
+            if (roles.isEmpty()) {
+                logger.debug("No roles found for user: {} in organization: {}",
                         userUuid, organizationUuid);
-
-                if (userRoles.isEmpty()) {
-                    logger.debug("No roles found for user: {} in organization: {}",
-                            userUuid, organizationUuid);
-                    return new PermissionCheckResponse(false);
-                }
-
-                // Check each role for the required permission
-                for (UserRole userRole : userRoles) {
-                    Optional<Role> roleOpt = roleRepository.findByRoleUuid(
-                            java.util.UUID.fromString(userRole.getRoleUuid()));
-
-                    if (roleOpt.isPresent()) {
-                        Role role = roleOpt.get();
-                        if (hasPermission(role, request.getAction(), request.getResource())) {
-                            logger.debug("Permission granted for user: {} with role: {}",
-                                    userUuid, role.getRoleName());
-                            return new PermissionCheckResponse(true, role.getRoleUuid().toString(),
-                                    role.getRoleName(), "team");
-                        }
-                    }
-                }
-
-                logger.debug("Permission denied for user: {} action: {} resource: {}",
-                        userUuid, request.getAction(), request.getResource());
-                return new PermissionCheckResponse(false);
-
-            } catch (Exception e) {
-                logger.error("Error checking permission for user: {}", userUuid, e);
+                event.commit(userUuid, organizationUuid, request.getAction(), request.getResource(), 1, 0,
+                        false, SOURCE_DATABASE);
                 return new PermissionCheckResponse(false);
             }
-        });
+
+            PermissionCheckResponse response = evaluate(roles, request.getAction(), request.getResource(), event);
+            event.commit(userUuid, organizationUuid, request.getAction(), request.getResource(), 1, roles.size(),
+                    response.isHasPermission(), SOURCE_DATABASE);
+            logger.debug("Permission {} for user: {} action: {} resource: {}",
+                    response.isHasPermission() ? "granted" : "denied",
+                    userUuid, request.getAction(), request.getResource());
+            return response;
+        }, dbExecutor);
     }
 
     /**
@@ -98,34 +123,102 @@ public class PermissionServiceImpl implements PermissionService {
         return CompletableFuture.supplyAsync(() -> {
             logger.warn("Using deprecated checkPermission method. Please use header-based approach.");
             throw new UnsupportedOperationException("This method is deprecated. Use checkPermission(String userUuid, String organizationUuid, PermissionCheckRequest request) instead.");
-        });
+        }, dbExecutor);
     }
 
     /**
      * Check permission using endpoint mapping (new header-based method).
      */
     @Override
-    @Cacheable(value = "permissions", key = "#userUuid + '_' + #organizationUuid + '_' + #request.endpoint")
+    @Cacheable(value = "permissions", key = "T(com.algobrewery.auth.cache.CacheKeys).endpointPermission(#userUuid, #organizationUuid, #request.endpoint)", sync = true)
     public CompletableFuture<PermissionCheckResponse> checkPermissionByEndpoint(String userUuid, String organizationUuid, PermissionCheckRequest request) {
-        return CompletableFuture.supplyAsync(() -> {
-            logger.debug("Checking permission by endpoint for user: {}, endpoint: {}",
-                    userUuid, request.getEndpoint());
+        logger.debug("Checking permission by endpoint for user: {}, endpoint: {}",
+                userUuid, request.getEndpoint());
+
+        // Map endpoint to action and resource
+        EndpointMapping mapping = endpointMappingRegistry.route(request.getEndpoint());
+        if (mapping == null) {
+            logger.warn("Unknown endpoint: {}", request.getEndpoint());
+            EndpointMappingMissEvent.emit(request.getEndpoint());
+            return CompletableFuture.completedFuture(new PermissionCheckResponse(false));
+        }
 
-            // Map endpoint to action and resource
-            EndpointMapping mapping = mapEndpointToActionResource(request.getEndpoint());
-            if (mapping == null) {
-                logger.warn("Unknown endpoint: {}", request.getEndpoint());
-                return new PermissionCheckResponse(false);
+        // Create new request with mapped action and resource
+        PermissionCheckRequest mappedRequest = new PermissionCheckRequest();
+        mappedRequest.setAction(mapping.getAction());
+        mappedRequest.setResource(mapping.getResource());
+        mappedRequest.setResourceId(request.getResourceId());
+
+        // Chain the evaluation instead of blocking on it; the endpoint result itself is cached
+        return checkPermission(userUuid, organizationUuid, mappedRequest);
+    }
+
+    /**
+     * Check a batch of permissions, resolving the user's roles once for all checks.
+     */
+    @Override
+    public CompletableFuture<BatchPermissionCheckResponse> checkPermissions(String userUuid, String organizationUuid,
+                                                                           List<PermissionCheckItem> checks) {
+        logger.debug("Checking {} permissions for user: {}", checks.size(), userUuid);
+
+        for (PermissionCheckItem check : checks) {
+            if (isBlank(check.getEndpoint()) && (isBlank(check.getAction()) || isBlank(check.getResource()))) {
+                return CompletableFuture.failedFuture(
+                        new IllegalArgumentException("Each check requires either an endpoint or an action and resource"));
             }
+        }
 
-            // Create new request with mapped action and resource
-            PermissionCheckRequest mappedRequest = new PermissionCheckRequest();
-            mappedRequest.setAction(mapping.getAction());
-            mappedRequest.setResource(mapping.getResource());
-            mappedRequest.setResourceId(request.getResourceId());
+        PermissionMetrics.Check check = PermissionMetrics.currentCheck();
+        AuthorizationModel model = readyModel();
+        if (model != null) {
+            PermissionCheckEvent event = new PermissionCheckEvent();
+            event.begin();
+            List<AuthorizationModel.RoleGrant> grants = model.rolesFor(userUuid, organizationUuid);
+            check.rolesEvaluated(grants.size());
+            BatchPermissionCheckResponse response =
+                    evaluateAll(checks, (action, resource) -> evaluateGrants(grants, action, resource, event));
+            commitBatchEvent(event, userUuid, organizationUuid, grants.size(), response, SOURCE_MODEL);
+            return CompletableFuture.completedFuture(response);
+        }
 
-            return checkPermission(userUuid, organizationUuid, mappedRequest).join();
-        });
+        return CompletableFuture.supplyAsync(() -> {
+            PermissionCheckEvent event = new PermissionCheckEvent();
+            event.begin();
+            check.databaseRoundTrip();
+            List<RolePolicyView> roles = userRoleRepository.findRolePoliciesForUser(userUuid, organizationUuid);
+            check.rolesEvaluated(roles.size());
+            BatchPermissionCheckResponse response =
+                    evaluateAll(checks, (action, resource) -> evaluate(roles, action, resource, event));
+            commitBatchEvent(event, userUuid, organizationUuid, roles.size(), response, SOURCE_DATABASE);
+            return response;
+        }, dbExecutor);
+    }
+
+    /**
+     * Evaluate each check in order, resolving endpoints to actions and resources first.
+     */
+    private BatchPermissionCheckResponse evaluateAll(List<PermissionCheckItem> checks,
+                                                     BiFunction<String, String, PermissionCheckResponse> evaluator) {
+        List<PermissionCheckResponse> results = new ArrayList<>(checks.size());
+        for (PermissionCheckItem check : checks) {
+            String action = check.getAction();
+            String resource = check.getResource();
+
+            if (!isBlank(check.getEndpoint())) {
+                EndpointMapping mapping = endpointMappingRegistry.route(check.getEndpoint());
+                if (mapping == null) {
+                    logger.warn("Unknown endpoint: {}", check.getEndpoint());
+                    EndpointMappingMissEvent.emit(check.getEndpoint());
+                    results.add(new PermissionCheckResponse(false));
+                    continue;
+                }
+                action = mapping.getAction();
+                resource = mapping.getResource();
+            }
+
+            results.add(evaluator.apply(action, resource));
+        }
+        return new BatchPermissionCheckResponse(results);
     }
 
     /**
@@ -138,130 +231,113 @@ public class PermissionServiceImpl implements PermissionService {
         return CompletableFuture.supplyAsync(() -> {
             logger.warn("Using deprecated checkPermissionByEndpoint method. Please use header-based approach.");
             throw new UnsupportedOperationException("This method is deprecated. Use checkPermissionByEndpoint(String userUuid, String organizationUuid, PermissionCheckRequest request) instead.");
-        });
+        }, dbExecutor);
     }
 
     /**
-     * Check if role has permission for action and resource.
+     * Commit the event of a batch, which counts as granted only if every check was granted.
      */
-    private boolean hasPermission(Role role, String action, String resource) {
-        try {
-            JsonNode policy = role.getPolicy();
-
-            // Check data permissions
-            if (policy.has("data")) {
-                JsonNode dataNode = policy.get("data");
-                if (dataNode.has(action)) {
-                    JsonNode actionNode = dataNode.get(action);
-                    if (actionNode.isArray()) {
-                        for (JsonNode resourceNode : actionNode) {
-                            if (resourceNode.asText().equals(resource)) {
-                                return true;
-                            }
-                        }
-                    }
-                }
-            }
+    private static void commitBatchEvent(PermissionCheckEvent event, String userUuid, String organizationUuid,
+                                         int roles, BatchPermissionCheckResponse response, String source) {
+        boolean granted = response.getResults().stream().allMatch(PermissionCheckResponse::isHasPermission);
+        event.commit(userUuid, organizationUuid, null, null, response.getResults().size(), roles, granted, source);
+    }
 
-            // Check feature permissions
-            if (policy.has("features")) {
-                JsonNode featuresNode = policy.get("features");
-                if (featuresNode.has(action)) {
-                    JsonNode actionNode = featuresNode.get(action);
-                    if (actionNode.isArray()) {
-                        for (JsonNode resourceNode : actionNode) {
-                            if (resourceNode.asText().equals(resource)) {
-                                return true;
-                            }
-                        }
-                    }
-                }
+    /**
+     * Evaluate an action and resource against the user's roles, returning the first granting role.
+     */
+    private PermissionCheckResponse evaluate(List<RolePolicyView> roles, String action, String resource,
+                                             PermissionCheckEvent event) {
+        for (RolePolicyView role : roles) {
+            if (hasPermission(role, action, resource, event)) {
+                return new PermissionCheckResponse(true, role.getRoleUuid().toString(),
+                        role.getRoleName(), "team");
             }
-
-            return false;
-
-        } catch (Exception e) {
-            logger.error("Error parsing policy for role: {}", role.getRoleUuid(), e);
-            return false;
         }
+        return new PermissionCheckResponse(false);
     }
 
     /**
-     * Map endpoint to action and resource.
+     * Evaluate an action and resource against roles held by the in-memory authorization model.
      */
-    private EndpointMapping mapEndpointToActionResource(String endpoint) {
-        // User APIs
-        if (endpoint.startsWith("GET /users")) {
-            return new EndpointMapping("view", "user_basic_info");
-        } else if (endpoint.startsWith("POST /users")) {
-            return new EndpointMapping("execute", "create_user");
-        } else if (endpoint.startsWith("PATCH /users/") || endpoint.startsWith("PUT /users/")) {
-            return new EndpointMapping("edit", "user_basic_info");
-        } else if (endpoint.startsWith("DELETE /users/")) {
-            return new EndpointMapping("execute", "delete_user");
-        }
-
-        // Task APIs
-        else if (endpoint.startsWith("GET /tasks")) {
-            return new EndpointMapping("view", "task");
-        } else if (endpoint.startsWith("POST /tasks")) {
-            return new EndpointMapping("execute", "create_task");
-        } else if (endpoint.startsWith("PUT /tasks/") || endpoint.startsWith("PATCH /tasks/")) {
-            return new EndpointMapping("edit", "task");
-        } else if (endpoint.startsWith("DELETE /tasks/")) {
-            return new EndpointMapping("execute", "delete_task");
-        }
-
-        // Organization APIs
-        else if (endpoint.startsWith("GET /organization")) {
-            return new EndpointMapping("view", "organization");
-        } else if (endpoint.startsWith("PUT /organization") || endpoint.startsWith("PATCH /organization")) {
-            return new EndpointMapping("edit", "organization");
+    private static PermissionCheckResponse evaluateGrants(List<AuthorizationModel.RoleGrant> grants,
+                                                          String action, String resource,
+                                                          PermissionCheckEvent event) {
+        for (AuthorizationModel.RoleGrant grant : grants) {
+            if (allows(grant.getPolicy(), action, resource, event)) {
+                return new PermissionCheckResponse(true, grant.getRoleUuid().toString(),
+                        grant.getRoleName(), "team");
+            }
         }
+        return new PermissionCheckResponse(false);
+    }
 
-        // Client APIs
-        else if (endpoint.startsWith("GET /clients")) {
-            return new EndpointMapping("view", "client");
-        } else if (endpoint.startsWith("POST /clients")) {
-            return new EndpointMapping("execute", "create_client");
-        } else if (endpoint.startsWith("PUT /clients/") || endpoint.startsWith("PATCH /clients/")) {
-            return new EndpointMapping("edit", "client");
-        } else if (endpoint.startsWith("DELETE /clients/")) {
-            return new EndpointMapping("execute", "delete_client");
+    /**
+     * List the users granted an action on a resource, one page at a time.
+     * Served from the reverse index of the authorization model when it is loaded, otherwise
+     * with a keyset-paginated JSONB containment query; both order users by UUID.
+     */
+    @Override
+    public CompletableFuture<WhoCanAccessResponse> getUsersWithAccess(String organizationUuid, String action,
+                                                                      String resource, String pageToken, int pageSize) {
+        AuthorizationModel model = readyModel();
+        if (model != null) {
+            List<String> users = model.usersGranted(organizationUuid, action, resource, pageToken, pageSize + 1);
+            return CompletableFuture.completedFuture(toPage(organizationUuid, action, resource, users, pageSize));
         }
+        return CompletableFuture.supplyAsync(() -> {
+            logger.debug("Listing users granted {} on {} in organization: {}", action, resource, organizationUuid);
+            String fragments = PolicyCompiler.grantFragments(action, resource).toString();
+            List<String> users = userRoleRepository.findUsersGranting(organizationUuid, fragments,
+                    pageToken != null ? pageToken : "", pageSize + 1);
+            return toPage(organizationUuid, action, resource, users, pageSize);
+        }, dbExecutor);
+    }
 
-        // Comment APIs
-        else if (endpoint.startsWith("GET /comment")) {
-            return new EndpointMapping("view", "comment");
-        } else if (endpoint.startsWith("POST /comment")) {
-            return new EndpointMapping("execute", "create_comment");
-        } else if (endpoint.startsWith("PUT /comment/") || endpoint.startsWith("PATCH /comment/")) {
-            return new EndpointMapping("edit", "comment");
-        } else if (endpoint.startsWith("DELETE /comment/")) {
-            return new EndpointMapping("execute", "delete_comment");
+    /**
+     * Build a page from up to pageSize + 1 users; the extra user only signals that more follow.
+     */
+    private static WhoCanAccessResponse toPage(String organizationUuid, String action, String resource,
+                                               List<String> users, int pageSize) {
+        if (users.size() <= pageSize) {
+            return new WhoCanAccessResponse(organizationUuid, action, resource, users, null);
         }
-
-        return null;
+        List<String> page = users.subList(0, pageSize);
+        return new WhoCanAccessResponse(organizationUuid, action, resource, new ArrayList<>(page),
+                page.get(pageSize - 1));
     }
 
     /**
-     * Inner class for endpoint mapping.
+     * The in-memory authorization model, if it is enabled and loaded.
      */
-    private static class EndpointMapping {
-        private final String action;
-        private final String resource;
+    private AuthorizationModel readyModel() {
+        AuthorizationModel model = authorizationModel.getIfAvailable();
+        return model != null && model.isReady() ? model : null;
+    }
 
-        public EndpointMapping(String action, String resource) {
-            this.action = action;
-            this.resource = resource;
-        }
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
 
-        public String getAction() {
-            return action;
+    /**
+     * Check if role has permission for action and resource using its compiled policy.
+     */
+    private boolean hasPermission(RolePolicyView role, String action, String resource, PermissionCheckEvent event) {
+        try {
+            return allows(compiledPolicyRegistry.policyFor(role), action, resource, event);
+        } catch (Exception e) {
+            logger.error("Error evaluating policy for role: {}", role.getRoleUuid(), e);
+            return false;
         }
+    }
 
-        public String getResource() {
-            return resource;
+    /**
+     * Evaluate a compiled policy, counting the visited nodes when a recording wants the event.
+     */
+    private static boolean allows(CompiledPolicy policy, String action, String resource, PermissionCheckEvent event) {
+        if (event.isEnabled()) {
+            event.addPolicyNodesVisited(policy.nodesVisited(action, resource));
         }
+        return policy.allows(action, resource);
     }
-}
\ No newline at end of file
+}
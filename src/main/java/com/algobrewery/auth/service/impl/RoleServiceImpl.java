@@ -1,25 +1,42 @@
 package com.algobrewery.auth.service.impl;
 
+import com.algobrewery.auth.cache.CacheInvalidator;
+import com.algobrewery.auth.dto.PageResponse;
 import com.algobrewery.auth.dto.RoleRequest;
 import com.algobrewery.auth.dto.RoleResponse;
 import com.algobrewery.auth.model.Role;
 import com.algobrewery.auth.model.RoleManagementType;
+import com.algobrewery.auth.policy.CompiledPolicyRegistry;
+import com.algobrewery.auth.policy.PolicyCompiler;
 import com.algobrewery.auth.repository.RoleRepository;
 import com.algobrewery.auth.service.RoleService;
+import com.algobrewery.auth.util.PageTokenUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 /**
@@ -31,20 +48,36 @@ public class RoleServiceImpl implements RoleService {
 
     private static final Logger logger = LoggerFactory.getLogger(RoleServiceImpl.class);
 
+    private static final String SELECT_ORGANIZATION_ROLES = "SELECT role_uuid, role_name, organization_uuid, "
+        + "role_management_type, description, policy, created_at, updated_at FROM roles "
+        + "WHERE organization_uuid = ? ORDER BY created_at, role_uuid";
+
     private final RoleRepository roleRepository;
     private final ObjectMapper objectMapper;
+    private final CompiledPolicyRegistry compiledPolicyRegistry;
+    private final CacheInvalidator cacheInvalidator;
+    private final JdbcTemplate jdbcTemplate;
+    private final Executor dbExecutor;
+
+    @Value("${app.export.fetch-size:500}")
+    private int exportFetchSize;
 
     @Autowired
-    public RoleServiceImpl(RoleRepository roleRepository, ObjectMapper objectMapper) {
+    public RoleServiceImpl(RoleRepository roleRepository, ObjectMapper objectMapper,
+                           CompiledPolicyRegistry compiledPolicyRegistry, CacheInvalidator cacheInvalidator,
+                           JdbcTemplate jdbcTemplate, @Qualifier("dbExecutor") Executor dbExecutor) {
         this.roleRepository = roleRepository;
         this.objectMapper = objectMapper;
+        this.compiledPolicyRegistry = compiledPolicyRegistry;
+        this.cacheInvalidator = cacheInvalidator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.dbExecutor = dbExecutor;
     }
 
     /**
      * Create a new role.
      */
     @Override
-    @CacheEvict(value = "roles", allEntries = true)
     public CompletableFuture<RoleResponse> createRole(RoleRequest request, String createdBy) {
         return CompletableFuture.supplyAsync(() -> {
             logger.info("Creating role: {}", request.getRoleName());
@@ -68,17 +101,18 @@ public class RoleServiceImpl implements RoleService {
             );
 
             Role savedRole = roleRepository.save(role);
+            compiledPolicyRegistry.register(savedRole);
+            cacheInvalidator.roleCreated(savedRole.getRoleName(), savedRole.getOrganizationUuid());
             logger.info("Role created successfully: {}", savedRole.getRoleUuid());
 
             return mapToResponse(savedRole);
-        });
+        }, dbExecutor);
     }
 
     /**
      * Update an existing role.
      */
     @Override
-    @CacheEvict(value = "roles", allEntries = true)
     public CompletableFuture<RoleResponse> updateRole(UUID roleUuid, RoleRequest request) {
         return CompletableFuture.supplyAsync(() -> {
             logger.info("Updating role: {}", roleUuid);
@@ -96,17 +130,18 @@ public class RoleServiceImpl implements RoleService {
             // Note: roleManagementType and organizationUuid are not updated to maintain data integrity
 
             Role updatedRole = roleRepository.save(role);
+            compiledPolicyRegistry.register(updatedRole);
+            cacheInvalidator.roleUpdated(roleUuid, updatedRole.getOrganizationUuid());
             logger.info("Role updated successfully: {}", roleUuid);
 
             return mapToResponse(updatedRole);
-        });
+        }, dbExecutor);
     }
 
     /**
      * Delete a role.
      */
     @Override
-    @CacheEvict(value = "roles", allEntries = true)
     public CompletableFuture<Void> deleteRole(UUID roleUuid) {
         return CompletableFuture.runAsync(() -> {
             logger.info("Deleting role: {}", roleUuid);
@@ -120,15 +155,17 @@ public class RoleServiceImpl implements RoleService {
             }
 
             roleRepository.delete(role);
+            compiledPolicyRegistry.evict(roleUuid);
+            cacheInvalidator.roleDeleted(roleUuid, role.getOrganizationUuid());
             logger.info("Role deleted successfully: {}", roleUuid);
-        });
+        }, dbExecutor);
     }
 
     /**
      * Get role by UUID.
      */
     @Override
-    @Cacheable(value = "roles", key = "#roleUuid")
+    @Cacheable(value = "roles", key = "T(com.algobrewery.auth.cache.CacheKeys).role(#roleUuid)", sync = true)
     public CompletableFuture<RoleResponse> getRole(UUID roleUuid) {
         return CompletableFuture.supplyAsync(() -> {
             logger.debug("Getting role: {}", roleUuid);
@@ -137,14 +174,14 @@ public class RoleServiceImpl implements RoleService {
                 .orElseThrow(() -> new IllegalArgumentException("Role not found: " + roleUuid));
 
             return mapToResponse(role);
-        });
+        }, dbExecutor);
     }
 
     /**
      * Get roles by organization UUID.
      */
     @Override
-    @Cacheable(value = "roles", key = "'org_' + #organizationUuid")
+    @Cacheable(value = "roles", key = "T(com.algobrewery.auth.cache.CacheKeys).organizationRoles(#organizationUuid)", sync = true)
     public CompletableFuture<List<RoleResponse>> getRolesByOrganization(String organizationUuid) {
         return CompletableFuture.supplyAsync(() -> {
             logger.debug("Getting roles for organization: {}", organizationUuid);
@@ -153,14 +190,90 @@ public class RoleServiceImpl implements RoleService {
             return roles.stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
-        });
+        }, dbExecutor);
+    }
+
+    /**
+     * Get one page of the roles of an organization in (created_at, role_uuid) order.
+     * Pages are read with a keyset condition on the sort key instead of an offset and are not cached.
+     */
+    @Override
+    public CompletableFuture<PageResponse<RoleResponse>> getRolesByOrganizationPage(String organizationUuid,
+                                                                                    String pageToken, int pageSize) {
+        return CompletableFuture.supplyAsync(() -> {
+            logger.debug("Getting a page of roles for organization: {}", organizationUuid);
+
+            // One extra row tells whether another page follows
+            PageRequest limit = PageRequest.of(0, pageSize + 1);
+            List<Role> roles;
+            if (pageToken == null) {
+                roles = roleRepository.findByOrganizationUuidOrderByCreatedAtAscRoleUuidAsc(organizationUuid, limit);
+            } else {
+                PageTokenUtil.Cursor cursor = PageTokenUtil.decode(pageToken);
+                roles = roleRepository.findByOrganizationUuidAfter(organizationUuid, cursor.getCreatedAt(),
+                    cursor.getUuid(), limit);
+            }
+
+            String nextPageToken = null;
+            if (roles.size() > pageSize) {
+                roles = roles.subList(0, pageSize);
+                Role last = roles.get(pageSize - 1);
+                nextPageToken = PageTokenUtil.encode(last.getCreatedAt(), last.getRoleUuid());
+            }
+            return new PageResponse<>(roles.stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList()), nextPageToken);
+        }, dbExecutor);
+    }
+
+    /**
+     * Write every role of an organization as newline-delimited JSON, in (created_at, role_uuid) order.
+     * Rows are read through a JDBC cursor inside a read-only transaction, so only one fetch of
+     * rows is held in memory at a time and no entities are attached to the persistence context.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportRolesByOrganization(String organizationUuid, OutputStream outputStream) {
+        logger.info("Exporting roles for organization: {}", organizationUuid);
+
+        JdbcTemplate cursor = new JdbcTemplate(jdbcTemplate.getDataSource());
+        cursor.setFetchSize(exportFetchSize);
+        ObjectWriter writer = objectMapper.writerFor(RoleResponse.class);
+        cursor.query(SELECT_ORGANIZATION_ROLES, rs -> {
+            try {
+                outputStream.write(writer.writeValueAsBytes(mapRow(rs)));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, organizationUuid);
+    }
+
+    /**
+     * Get the roles of an organization that grant an action on a resource, including through
+     * wildcard patterns. Candidates come from an indexed JSONB containment query and are
+     * confirmed against the compiled policy, so results match the permission check.
+     */
+    @Override
+    public CompletableFuture<List<RoleResponse>> getRolesByOrganizationGranting(String organizationUuid, String action,
+                                                                                String resource) {
+        return CompletableFuture.supplyAsync(() -> {
+            logger.debug("Getting roles granting {} on {} for organization: {}", action, resource, organizationUuid);
+
+            String fragments = PolicyCompiler.grantFragments(action, resource).toString();
+            List<Role> roles = roleRepository.findByOrganizationUuidAndPolicyContainingAny(organizationUuid, fragments);
+            return roles.stream()
+                .filter(role -> compiledPolicyRegistry.policyFor(role).allows(action, resource))
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+        }, dbExecutor);
     }
 
     /**
      * Get system-managed roles.
      */
     @Override
-    @Cacheable(value = "roles", key = "'system_managed'")
+    @Cacheable(value = "roles", key = "T(com.algobrewery.auth.cache.CacheKeys).systemManagedRoles()", sync = true)
     public CompletableFuture<List<RoleResponse>> getSystemManagedRoles() {
         return CompletableFuture.supplyAsync(() -> {
             logger.debug("Getting system-managed roles");
@@ -169,21 +282,21 @@ public class RoleServiceImpl implements RoleService {
             return roles.stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
-        });
+        }, dbExecutor);
     }
 
     /**
      * Get role by name and organization UUID.
      */
     @Override
-    @Cacheable(value = "roles", key = "'name_' + #roleName + '_' + #organizationUuid")
+    @Cacheable(value = "roles", key = "T(com.algobrewery.auth.cache.CacheKeys).roleByName(#roleName, #organizationUuid)", sync = true)
     public CompletableFuture<Optional<RoleResponse>> getRoleByNameAndOrganization(String roleName, String organizationUuid) {
         return CompletableFuture.supplyAsync(() -> {
             logger.debug("Getting role by name: {} in organization: {}", roleName, organizationUuid);
 
             return roleRepository.findByRoleNameAndOrganizationUuid(roleName, organizationUuid)
                 .map(this::mapToResponse);
-        });
+        }, dbExecutor);
     }
 
     /**
@@ -196,6 +309,31 @@ public class RoleServiceImpl implements RoleService {
         // JsonNode is already validated JSON, so we just need to check for null
     }
 
+    /**
+     * Map a roles row to RoleResponse DTO.
+     */
+    private RoleResponse mapRow(ResultSet rs) throws SQLException {
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        return new RoleResponse(
+            UUID.fromString(rs.getString("role_uuid")),
+            rs.getString("role_name"),
+            rs.getString("organization_uuid"),
+            RoleManagementType.valueOf(rs.getString("role_management_type")),
+            rs.getString("description"),
+            readPolicy(rs.getString("policy")),
+            rs.getTimestamp("created_at").toInstant(),
+            updatedAt != null ? updatedAt.toInstant() : null
+        );
+    }
+
+    private JsonNode readPolicy(String policy) {
+        try {
+            return policy != null ? objectMapper.readTree(policy) : null;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid policy JSON", e);
+        }
+    }
+
     /**
      * Map Role entity to RoleResponse DTO.
      */
@@ -1,23 +1,58 @@
 package com.algobrewery.auth.service.impl;
 
+import com.algobrewery.auth.cache.CacheInvalidator;
+import com.algobrewery.auth.dto.BulkRoleAssignmentResponse;
+import com.algobrewery.auth.dto.EffectivePermissionsResponse;
+import com.algobrewery.auth.dto.PageResponse;
+import com.algobrewery.auth.dto.RoleAssignmentItem;
+import com.algobrewery.auth.dto.RoleAssignmentResult;
 import com.algobrewery.auth.dto.UserRoleAssignmentResponse;
 import com.algobrewery.auth.model.Role;
 import com.algobrewery.auth.model.UserRole;
+import com.algobrewery.auth.policy.CompiledPolicyRegistry;
+import com.algobrewery.auth.repository.RolePolicyView;
 import com.algobrewery.auth.repository.RoleRepository;
 import com.algobrewery.auth.repository.UserRoleRepository;
 import com.algobrewery.auth.service.UserRoleService;
+import com.algobrewery.auth.util.PageTokenUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 /**
@@ -29,27 +64,61 @@ public class UserRoleServiceImpl implements UserRoleService {
 
     private static final Logger logger = LoggerFactory.getLogger(UserRoleServiceImpl.class);
 
+    /**
+     * Existing assignments are skipped by the unique index on (user, role, organization),
+     * so each row's update count tells whether it was inserted.
+     */
+    private static final String INSERT_ASSIGNMENT_SQL = "INSERT INTO user_roles "
+        + "(user_role_uuid, user_uuid, role_uuid, organization_uuid, created_at, created_by) "
+        + "VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private static final String SELECT_ORGANIZATION_USER_ROLES = "SELECT user_role_uuid, user_uuid, role_uuid, "
+        + "organization_uuid, created_at FROM user_roles WHERE organization_uuid = ? "
+        + "ORDER BY created_at, user_role_uuid";
+
     private final UserRoleRepository userRoleRepository;
     private final RoleRepository roleRepository;
+    private final CompiledPolicyRegistry compiledPolicyRegistry;
+    private final CacheInvalidator cacheInvalidator;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor dbExecutor;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}")
+    private int batchSize;
+
+    @Value("${app.export.fetch-size:500}")
+    private int exportFetchSize;
 
     @Autowired
-    public UserRoleServiceImpl(UserRoleRepository userRoleRepository, RoleRepository roleRepository) {
+    public UserRoleServiceImpl(UserRoleRepository userRoleRepository, RoleRepository roleRepository,
+                               CompiledPolicyRegistry compiledPolicyRegistry, CacheInvalidator cacheInvalidator,
+                               JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                               PlatformTransactionManager transactionManager,
+                               @Qualifier("dbExecutor") Executor dbExecutor) {
         this.userRoleRepository = userRoleRepository;
         this.roleRepository = roleRepository;
+        this.compiledPolicyRegistry = compiledPolicyRegistry;
+        this.cacheInvalidator = cacheInvalidator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dbExecutor = dbExecutor;
     }
 
     /**
      * Assign role to user.
      */
     @Override
-    @CacheEvict(value = "permissions", allEntries = true)
     public CompletableFuture<UserRoleAssignmentResponse> assignRoleToUser(String userUuid, String roleUuid, 
                                                                          String organizationUuid, String assignerUuid) {
         return CompletableFuture.supplyAsync(() -> {
             logger.info("Assigning role {} to user {} in organization {}", roleUuid, userUuid, organizationUuid);
 
             // Validate role exists
-            Optional<Role> roleOpt = roleRepository.findByRoleUuid(UUID.fromString(roleUuid));
+            UUID roleId = UUID.fromString(roleUuid);
+            Optional<Role> roleOpt = roleRepository.findByRoleUuid(roleId);
             if (roleOpt.isEmpty()) {
                 throw new IllegalArgumentException("Role not found: " + roleUuid);
             }
@@ -63,46 +132,187 @@ public class UserRoleServiceImpl implements UserRoleService {
             }
 
             // Check if assignment already exists
-            if (userRoleRepository.existsByUserUuidAndRoleUuidAndOrganizationUuid(userUuid, roleUuid, organizationUuid)) {
+            if (userRoleRepository.existsByUserUuidAndRoleUuidAndOrganizationUuid(userUuid, roleId, organizationUuid)) {
                 throw new IllegalArgumentException("Role is already assigned to user in this organization");
             }
 
             // Create user role assignment
-            UserRole userRole = new UserRole(userUuid, roleUuid, organizationUuid, assignerUuid);
+            UserRole userRole = new UserRole(userUuid, roleId, organizationUuid, assignerUuid);
             UserRole savedUserRole = userRoleRepository.save(userRole);
+            cacheInvalidator.userRolesChanged(userUuid, organizationUuid);
 
             logger.info("Role assigned successfully to user: {}", userUuid);
 
             return mapToResponse(savedUserRole);
+        }, dbExecutor);
+    }
+
+    /**
+     * Assign many roles to many users of an organization.
+     * Referenced roles are loaded with a single query and the new rows are written with JDBC
+     * batches in one transaction; caches are invalidated once for all affected users after it commits.
+     */
+    @Override
+    public CompletableFuture<BulkRoleAssignmentResponse> assignRolesToUsers(List<RoleAssignmentItem> assignments,
+                                                                            String organizationUuid, String assignerUuid) {
+        return CompletableFuture.supplyAsync(() -> {
+            logger.info("Bulk assigning {} roles in organization {}", assignments.size(), organizationUuid);
+
+            Map<String, Role> roles = findRoles(assignments);
+
+            List<RoleAssignmentResult> results = new ArrayList<>(assignments.size());
+            List<RoleAssignmentResult> pending = new ArrayList<>();
+            List<Object[]> rows = new ArrayList<>();
+            Set<String> requested = new HashSet<>();
+            Timestamp createdAt = Timestamp.from(Instant.now());
+
+            for (RoleAssignmentItem item : assignments) {
+                RoleAssignmentResult result = new RoleAssignmentResult(item.getUserUuid(), item.getRoleUuid(), null, null);
+                results.add(result);
+
+                Role role = roles.get(item.getRoleUuid());
+                if (role == null) {
+                    result.setStatus(RoleAssignmentResult.ROLE_NOT_FOUND);
+                } else if (role.getRoleManagementType().getValue().equals("customer_managed") &&
+                           !organizationUuid.equals(role.getOrganizationUuid())) {
+                    result.setStatus(RoleAssignmentResult.ROLE_NOT_IN_ORGANIZATION);
+                } else if (!requested.add(item.getUserUuid() + '\n' + role.getRoleUuid())) {
+                    // Repeated pair within the same request
+                    result.setStatus(RoleAssignmentResult.ALREADY_ASSIGNED);
+                } else {
+                    result.setUserRoleUuid(UUID.randomUUID());
+                    pending.add(result);
+                    rows.add(new Object[] {result.getUserRoleUuid(), item.getUserUuid(), role.getRoleUuid(),
+                        organizationUuid, createdAt, assignerUuid});
+                }
+            }
+
+            Set<String> changedUsers = new LinkedHashSet<>();
+            // The work runs on the dbExecutor, outside the class-level transaction, so the batches need their own
+            int[][] batches = rows.isEmpty() ? new int[0][] : transactionTemplate.execute(status ->
+                jdbcTemplate.batchUpdate(INSERT_ASSIGNMENT_SQL, rows, batchSize, (ps, row) -> {
+                    for (int i = 0; i < row.length; i++) {
+                        ps.setObject(i + 1, row[i]);
+                    }
+                }));
+            int index = 0;
+            for (int[] counts : batches) {
+                for (int count : counts) {
+                    RoleAssignmentResult result = pending.get(index++);
+                    if (count == 0) {
+                        result.setStatus(RoleAssignmentResult.ALREADY_ASSIGNED);
+                        result.setUserRoleUuid(null);
+                    } else {
+                        result.setStatus(RoleAssignmentResult.ASSIGNED);
+                        changedUsers.add(result.getUserUuid());
+                    }
+                }
+            }
+
+            if (!changedUsers.isEmpty()) {
+                cacheInvalidator.usersRolesChanged(changedUsers, organizationUuid);
+            }
+
+            BulkRoleAssignmentResponse response = summarize(organizationUuid, results);
+            logger.info("Bulk assignment in organization {} finished: {} assigned, {} already assigned, {} rejected",
+                organizationUuid, response.getAssigned(), response.getAlreadyAssigned(), response.getRejected());
+            return response;
+        }, dbExecutor);
+    }
+
+    /**
+     * Load all roles referenced by a bulk request with one IN query, keyed by the requested UUID string.
+     * Malformed UUIDs are left out and reported as not found.
+     */
+    private Map<String, Role> findRoles(List<RoleAssignmentItem> assignments) {
+        Map<String, UUID> roleUuids = new HashMap<>();
+        for (RoleAssignmentItem item : assignments) {
+            if (!roleUuids.containsKey(item.getRoleUuid())) {
+                try {
+                    roleUuids.put(item.getRoleUuid(), UUID.fromString(item.getRoleUuid()));
+                } catch (IllegalArgumentException e) {
+                    logger.debug("Ignoring malformed role UUID in bulk assignment: {}", item.getRoleUuid());
+                }
+            }
+        }
+        Map<UUID, Role> byUuid = new HashMap<>();
+        for (Role role : roleRepository.findAllById(new HashSet<>(roleUuids.values()))) {
+            byUuid.put(role.getRoleUuid(), role);
+        }
+        Map<String, Role> roles = new HashMap<>();
+        roleUuids.forEach((requested, roleUuid) -> {
+            Role role = byUuid.get(roleUuid);
+            if (role != null) {
+                roles.put(requested, role);
+            }
+        });
+        return roles;
+    }
+
+    /**
+     * Run an action once the current transaction commits, or right away without one.
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
         });
     }
 
+    private BulkRoleAssignmentResponse summarize(String organizationUuid, List<RoleAssignmentResult> results) {
+        int assigned = 0;
+        int alreadyAssigned = 0;
+        for (RoleAssignmentResult result : results) {
+            if (RoleAssignmentResult.ASSIGNED.equals(result.getStatus())) {
+                assigned++;
+            } else if (RoleAssignmentResult.ALREADY_ASSIGNED.equals(result.getStatus())) {
+                alreadyAssigned++;
+            }
+        }
+        return new BulkRoleAssignmentResponse(organizationUuid, assigned, alreadyAssigned,
+            results.size() - assigned - alreadyAssigned, results);
+    }
+
     /**
-     * Remove role from user.
+     * Remove role from user. Caches are invalidated once the deletion is committed, so a
+     * concurrent lookup cannot cache the assignment again in between.
      */
     @Override
     @Transactional
-    @CacheEvict(value = "permissions", allEntries = true)
     public CompletableFuture<Void> removeRoleFromUser(String userUuid, String roleUuid, String organizationUuid) {
-        logger.info("Removing role {} from user {} in organization {}", roleUuid, userUuid, organizationUuid);
+        return CompletableFuture.supplyAsync(() -> {
+            logger.info("Removing role {} from user {} in organization {}", roleUuid, userUuid, organizationUuid);
 
-        // Check if assignment exists
-        if (!userRoleRepository.existsByUserUuidAndRoleUuidAndOrganizationUuid(userUuid, roleUuid, organizationUuid)) {
-            throw new IllegalArgumentException("Role assignment not found");
-        }
+            UUID roleId = UUID.fromString(roleUuid);
+            // The work runs on the dbExecutor, outside the class-level transaction, so the check and the
+            // delete need their own
+            transactionTemplate.executeWithoutResult(status -> {
+                // Check if assignment exists
+                if (!userRoleRepository.existsByUserUuidAndRoleUuidAndOrganizationUuid(userUuid, roleId, organizationUuid)) {
+                    throw new IllegalArgumentException("Role assignment not found");
+                }
 
-        // Delete the assignment
-        userRoleRepository.deleteByUserUuidAndRoleUuidAndOrganizationUuid(userUuid, roleUuid, organizationUuid);
+                // Delete the assignment
+                userRoleRepository.deleteByUserUuidAndRoleUuidAndOrganizationUuid(userUuid, roleId, organizationUuid);
+                afterCommit(() -> cacheInvalidator.userRolesChanged(userUuid, organizationUuid));
+            });
 
-        logger.info("Role removed successfully from user: {}", userUuid);
-        return CompletableFuture.completedFuture(null);
+            logger.info("Role removed successfully from user: {}", userUuid);
+            return null;
+        }, dbExecutor);
     }
 
     /**
      * Get user roles.
      */
     @Override
-    @Cacheable(value = "user_roles", key = "#userUuid + '_' + #organizationUuid")
+    @Cacheable(value = "user_roles", key = "T(com.algobrewery.auth.cache.CacheKeys).userRoles(#userUuid, #organizationUuid)", sync = true)
     public CompletableFuture<List<UserRoleAssignmentResponse>> getUserRoles(String userUuid, String organizationUuid) {
         return CompletableFuture.supplyAsync(() -> {
             logger.debug("Getting roles for user {} in organization {}", userUuid, organizationUuid);
@@ -111,14 +321,14 @@ public class UserRoleServiceImpl implements UserRoleService {
             return userRoles.stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
-        });
+        }, dbExecutor);
     }
 
     /**
      * Get all user roles by organization.
      */
     @Override
-    @Cacheable(value = "user_roles", key = "'org_' + #organizationUuid")
+    @Cacheable(value = "user_roles", key = "T(com.algobrewery.auth.cache.CacheKeys).organizationUserRoles(#organizationUuid)", sync = true)
     public CompletableFuture<List<UserRoleAssignmentResponse>> getUserRolesByOrganization(String organizationUuid) {
         return CompletableFuture.supplyAsync(() -> {
             logger.debug("Getting all user roles for organization: {}", organizationUuid);
@@ -127,14 +337,76 @@ public class UserRoleServiceImpl implements UserRoleService {
             return userRoles.stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
-        });
+        }, dbExecutor);
+    }
+
+    /**
+     * Get one page of the user roles of an organization in (created_at, user_role_uuid) order.
+     * Pages are read with a keyset condition on the sort key instead of an offset and are not cached.
+     */
+    @Override
+    public CompletableFuture<PageResponse<UserRoleAssignmentResponse>> getUserRolesByOrganizationPage(
+            String organizationUuid, String pageToken, int pageSize) {
+        return CompletableFuture.supplyAsync(() -> {
+            logger.debug("Getting a page of user roles for organization: {}", organizationUuid);
+
+            // One extra row tells whether another page follows
+            PageRequest limit = PageRequest.of(0, pageSize + 1);
+            List<UserRole> userRoles;
+            if (pageToken == null) {
+                userRoles = userRoleRepository.findByOrganizationUuidOrderByCreatedAtAscUserRoleUuidAsc(
+                    organizationUuid, limit);
+            } else {
+                PageTokenUtil.Cursor cursor = PageTokenUtil.decode(pageToken);
+                userRoles = userRoleRepository.findByOrganizationUuidAfter(organizationUuid, cursor.getCreatedAt(),
+                    cursor.getUuid(), limit);
+            }
+
+            String nextPageToken = null;
+            if (userRoles.size() > pageSize) {
+                userRoles = userRoles.subList(0, pageSize);
+                UserRole last = userRoles.get(pageSize - 1);
+                nextPageToken = PageTokenUtil.encode(last.getCreatedAt(), last.getUserRoleUuid());
+            }
+            return new PageResponse<>(userRoles.stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList()), nextPageToken);
+        }, dbExecutor);
+    }
+
+    /**
+     * Write every user role of an organization as newline-delimited JSON, in (created_at, user_role_uuid) order.
+     * Rows are read through a JDBC cursor inside a read-only transaction, so only one fetch of rows is held in memory.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportUserRolesByOrganization(String organizationUuid, OutputStream outputStream) {
+        logger.info("Exporting user roles for organization: {}", organizationUuid);
+
+        JdbcTemplate cursor = new JdbcTemplate(jdbcTemplate.getDataSource());
+        cursor.setFetchSize(exportFetchSize);
+        ObjectWriter writer = objectMapper.writerFor(UserRoleAssignmentResponse.class);
+        cursor.query(SELECT_ORGANIZATION_USER_ROLES, rs -> {
+            UserRoleAssignmentResponse response = new UserRoleAssignmentResponse(
+                UUID.fromString(rs.getString("user_role_uuid")),
+                rs.getString("user_uuid"),
+                rs.getString("role_uuid"),
+                rs.getString("organization_uuid"),
+                rs.getTimestamp("created_at").toInstant());
+            try {
+                outputStream.write(writer.writeValueAsBytes(response));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, organizationUuid);
     }
 
     /**
      * Get user roles with role details.
      */
     @Override
-    @Cacheable(value = "user_roles", key = "'detailed_' + #userUuid + '_' + #organizationUuid")
+    @Cacheable(value = "user_roles", key = "T(com.algobrewery.auth.cache.CacheKeys).detailedUserRoles(#userUuid, #organizationUuid)", sync = true)
     public CompletableFuture<List<UserRoleAssignmentResponse>> getUserRolesWithDetails(String userUuid, String organizationUuid) {
         return CompletableFuture.supplyAsync(() -> {
             logger.debug("Getting detailed roles for user {} in organization {}", userUuid, organizationUuid);
@@ -143,7 +415,7 @@ public class UserRoleServiceImpl implements UserRoleService {
             return userRoles.stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
-        });
+        }, dbExecutor);
     }
 
     /**
@@ -152,8 +424,9 @@ public class UserRoleServiceImpl implements UserRoleService {
     @Override
     public CompletableFuture<Boolean> userHasRole(String userUuid, String roleUuid, String organizationUuid) {
         return CompletableFuture.supplyAsync(() -> {
-            return userRoleRepository.existsByUserUuidAndRoleUuidAndOrganizationUuid(userUuid, roleUuid, organizationUuid);
-        });
+            return userRoleRepository.existsByUserUuidAndRoleUuidAndOrganizationUuid(userUuid, UUID.fromString(roleUuid),
+                organizationUuid);
+        }, dbExecutor);
     }
 
     /**
@@ -163,7 +436,46 @@ public class UserRoleServiceImpl implements UserRoleService {
     public CompletableFuture<Long> countUserRoles(String userUuid, String organizationUuid) {
         return CompletableFuture.supplyAsync(() -> {
             return userRoleRepository.countByUserUuidAndOrganizationUuid(userUuid, organizationUuid);
-        });
+        }, dbExecutor);
+    }
+
+    /**
+     * Get the merged permissions granted to a user across all roles in an organization.
+     */
+    @Override
+    public CompletableFuture<EffectivePermissionsResponse> getEffectivePermissions(String userUuid, String organizationUuid) {
+        return CompletableFuture.supplyAsync(() -> {
+            logger.debug("Getting effective permissions for user {} in organization {}", userUuid, organizationUuid);
+
+            Map<String, Set<String>> permissions = new TreeMap<>();
+            for (RolePolicyView role : userRoleRepository.findRolePoliciesForUser(userUuid, organizationUuid)) {
+                compiledPolicyRegistry.policyFor(role).collectGrants(permissions);
+            }
+
+            return new EffectivePermissionsResponse(userUuid, organizationUuid,
+                computeVersion(permissions), permissions);
+        }, dbExecutor);
+    }
+
+    /**
+     * Compute a content-based version for a permission snapshot, stable across replicas.
+     */
+    private String computeVersion(Map<String, Set<String>> permissions) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Map.Entry<String, Set<String>> entry : permissions.entrySet()) {
+                digest.update(entry.getKey().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '=');
+                for (String resource : entry.getValue()) {
+                    digest.update(resource.getBytes(StandardCharsets.UTF_8));
+                    digest.update((byte) ',');
+                }
+                digest.update((byte) ';');
+            }
+            return HexFormat.of().formatHex(digest.digest(), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
     /**
@@ -173,7 +485,7 @@ public class UserRoleServiceImpl implements UserRoleService {
         return new UserRoleAssignmentResponse(
             userRole.getUserRoleUuid(),
             userRole.getUserUuid(),
-            userRole.getRoleUuid(),
+            userRole.getRoleUuid().toString(),
             userRole.getOrganizationUuid(),
             userRole.getCreatedAt()
         );
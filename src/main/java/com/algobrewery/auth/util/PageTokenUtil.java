@@ -0,0 +1,70 @@
+package com.algobrewery.auth.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Utility class for the opaque page tokens of keyset-paginated listings.
+ * A token holds the sort key of the last row of a page: its creation time and UUID.
+ */
+public class PageTokenUtil {
+
+    private static final char SEPARATOR = '|';
+
+    /**
+     * Encodes the sort key of the last row of a page.
+     * 
+     * @param createdAt the creation time of the row
+     * @param uuid the UUID of the row
+     * @return the URL-safe page token
+     */
+    public static String encode(Instant createdAt, UUID uuid) {
+        String cursor = createdAt.toString() + SEPARATOR + uuid;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a page token produced by {@link #encode(Instant, UUID)}.
+     * 
+     * @param token the page token
+     * @return the sort key the next page starts after
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static Cursor decode(String token) {
+        try {
+            String cursor = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = cursor.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid page token");
+            }
+            return new Cursor(Instant.parse(cursor.substring(0, separator)),
+                UUID.fromString(cursor.substring(separator + 1)));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid page token", e);
+        }
+    }
+
+    /**
+     * Sort key of the last row of a page.
+     */
+    public static final class Cursor {
+        private final Instant createdAt;
+        private final UUID uuid;
+
+        private Cursor(Instant createdAt, UUID uuid) {
+            this.createdAt = createdAt;
+            this.uuid = uuid;
+        }
+
+        public Instant getCreatedAt() {
+            return createdAt;
+        }
+
+        public UUID getUuid() {
+            return uuid;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+-- Schema of a database created by Hibernate (ddl-auto: update) before the migrations were applied
+-- It holds the tables of V1-V5 without their defaults, JSONB type, foreign key and most indexes.
+-- Such databases are baselined at version 5 (spring.flyway.baseline-on-migrate) and brought up to
+-- date by V6 onwards. BaselineMigrationStrategy creates the same schema in an empty database so
+-- that new and existing databases take one path.
+CREATE TABLE roles (
+    role_uuid UUID NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    created_by VARCHAR(50) NOT NULL,
+    description VARCHAR(255),
+    organization_uuid VARCHAR(50),
+    policy JSON NOT NULL,
+    role_management_type VARCHAR(20) NOT NULL CHECK (role_management_type IN ('CUSTOMER_MANAGED', 'SYSTEM_MANAGED')),
+    role_name VARCHAR(100) NOT NULL,
+    updated_at TIMESTAMP(6) WITH TIME ZONE,
+    PRIMARY KEY (role_uuid)
+);
+
+CREATE TABLE user_roles (
+    user_role_uuid UUID NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    created_by VARCHAR(50) NOT NULL,
+    organization_uuid VARCHAR(50) NOT NULL,
+    role_uuid VARCHAR(50) NOT NULL,
+    user_uuid VARCHAR(50) NOT NULL,
+    PRIMARY KEY (user_role_uuid)
+);
+
+-- Create indexes
+CREATE INDEX idx_roles_organization_uuid ON roles(organization_uuid);
+CREATE INDEX idx_roles_management_type ON roles(role_management_type);
+CREATE INDEX idx_roles_name ON roles(role_name);
+CREATE INDEX idx_user_roles_user_uuid ON user_roles(user_uuid);
+CREATE INDEX idx_user_roles_organization_uuid ON user_roles(organization_uuid);
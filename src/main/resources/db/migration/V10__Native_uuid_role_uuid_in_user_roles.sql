@@ -0,0 +1,24 @@
+-- Store user_roles.role_uuid as a native UUID with a foreign key to roles
+-- roles.role_uuid is a UUID, so joins on a VARCHAR copy had to cast one side and could not use
+-- the primary key or idx_user_roles_role_uuid. The unique and role indexes are rebuilt by the type change.
+-- Runs on any earlier schema (V5 or one created by Hibernate) and is a no-op where already applied.
+
+-- Without a foreign key, assignments could outlive their role (or never have had one); they grant
+-- nothing and would block the constraint
+DELETE FROM user_roles ur
+WHERE NOT EXISTS (SELECT 1 FROM roles r WHERE r.role_uuid::text = lower(ur.role_uuid::text));
+
+DO $$
+BEGIN
+    IF (SELECT data_type FROM information_schema.columns
+        WHERE table_schema = current_schema() AND table_name = 'user_roles' AND column_name = 'role_uuid') <> 'uuid' THEN
+        ALTER TABLE user_roles ALTER COLUMN role_uuid TYPE UUID USING role_uuid::uuid;
+    END IF;
+
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                   WHERE conrelid = 'user_roles'::regclass AND conname = 'fk_user_roles_role_uuid') THEN
+        ALTER TABLE user_roles
+        ADD CONSTRAINT fk_user_roles_role_uuid
+        FOREIGN KEY (role_uuid) REFERENCES roles(role_uuid) ON DELETE CASCADE;
+    END IF;
+END $$;
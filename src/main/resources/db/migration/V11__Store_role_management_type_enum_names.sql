@@ -0,0 +1,11 @@
+-- Store role_management_type as the enum names written by JPA (@Enumerated(EnumType.STRING))
+-- V1 only allowed the lower-case values, so every role saved through the application was rejected
+ALTER TABLE roles DROP CONSTRAINT IF EXISTS roles_role_management_type_check;
+UPDATE roles SET role_management_type = UPPER(role_management_type);
+ALTER TABLE roles ADD CONSTRAINT roles_role_management_type_check
+CHECK (role_management_type IN ('CUSTOMER_MANAGED', 'SYSTEM_MANAGED'));
+
+-- Recreate the system role uniqueness index on the new value
+DROP INDEX IF EXISTS idx_roles_system_unique;
+CREATE UNIQUE INDEX idx_roles_system_unique ON roles(role_name)
+WHERE organization_uuid IS NULL AND role_management_type = 'SYSTEM_MANAGED';
@@ -0,0 +1,43 @@
+-- Align a schema baselined at V5 with what V1-V5 define
+-- Databases created by Hibernate (see db/baseline/schema.sql) lack the column defaults, the JSONB
+-- policy type and several indexes of V1 and V2. Every statement is a no-op where they exist.
+ALTER TABLE roles ALTER COLUMN role_uuid SET DEFAULT gen_random_uuid();
+ALTER TABLE roles ALTER COLUMN created_at SET DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE user_roles ALTER COLUMN user_role_uuid SET DEFAULT gen_random_uuid();
+ALTER TABLE user_roles ALTER COLUMN created_at SET DEFAULT CURRENT_TIMESTAMP;
+
+-- The GIN index of V1 needs JSONB; Hibernate created a JSON column
+DO $$
+BEGIN
+    IF (SELECT data_type FROM information_schema.columns
+        WHERE table_schema = current_schema() AND table_name = 'roles' AND column_name = 'policy') <> 'jsonb' THEN
+        ALTER TABLE roles ALTER COLUMN policy TYPE JSONB USING policy::jsonb;
+    END IF;
+END $$;
+
+CREATE INDEX IF NOT EXISTS idx_roles_policy ON roles USING GIN(policy);
+CREATE INDEX IF NOT EXISTS idx_user_roles_role_uuid ON user_roles(role_uuid);
+
+-- Hibernate did not enforce one assignment per (user, role, organization); keep the oldest of each.
+-- Bulk assignment relies on this index to skip existing assignments.
+DELETE FROM user_roles ur
+USING user_roles older
+WHERE ur.user_uuid = older.user_uuid
+  AND ur.role_uuid = older.role_uuid
+  AND ur.organization_uuid = older.organization_uuid
+  AND (ur.created_at, ur.user_role_uuid) > (older.created_at, older.user_role_uuid);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_user_roles_unique ON user_roles(user_uuid, role_uuid, organization_uuid);
+
+-- Duplicate role names are not merged automatically; the service still rejects new duplicates
+DO $$
+BEGIN
+    IF to_regclass('idx_roles_name_org_unique') IS NULL THEN
+        IF EXISTS (SELECT 1 FROM roles WHERE organization_uuid IS NOT NULL
+                   GROUP BY role_name, organization_uuid HAVING COUNT(*) > 1) THEN
+            RAISE WARNING 'roles has duplicate names within an organization; idx_roles_name_org_unique was not created';
+        ELSE
+            CREATE UNIQUE INDEX idx_roles_name_org_unique ON roles(role_name, organization_uuid)
+            WHERE organization_uuid IS NOT NULL;
+        END IF;
+    END IF;
+END $$;
@@ -0,0 +1,15 @@
+-- Create endpoint_mappings table
+-- Gateway endpoint patterns mapped to (action, resource), merged with endpoint-mappings.yml
+CREATE TABLE endpoint_mappings (
+    endpoint_mapping_uuid UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    http_methods VARCHAR(50) NOT NULL,
+    path_pattern VARCHAR(255) NOT NULL,
+    action VARCHAR(100) NOT NULL,
+    resource VARCHAR(100) NOT NULL,
+    enabled BOOLEAN NOT NULL DEFAULT TRUE,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP WITH TIME ZONE
+);
+
+-- Create indexes
+CREATE UNIQUE INDEX idx_endpoint_mappings_route ON endpoint_mappings(http_methods, path_pattern);
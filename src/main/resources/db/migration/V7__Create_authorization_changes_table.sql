@@ -0,0 +1,52 @@
+-- Create authorization_changes table
+-- Change feed of roles and user_roles rows, polled by the in-memory authorization model
+-- (app.authorization-model.enabled) to apply writes from every replica incrementally
+CREATE TABLE authorization_changes (
+    change_id BIGSERIAL PRIMARY KEY,
+    table_name VARCHAR(20) NOT NULL,
+    operation VARCHAR(10) NOT NULL,
+    role_uuid VARCHAR(50),
+    user_uuid VARCHAR(50),
+    organization_uuid VARCHAR(50),
+    changed_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Create indexes
+CREATE INDEX idx_authorization_changes_changed_at ON authorization_changes(changed_at);
+
+-- Record role changes
+CREATE OR REPLACE FUNCTION record_role_change() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO authorization_changes (table_name, operation, role_uuid, organization_uuid)
+        VALUES ('roles', TG_OP, OLD.role_uuid::text, OLD.organization_uuid);
+        RETURN OLD;
+    END IF;
+    INSERT INTO authorization_changes (table_name, operation, role_uuid, organization_uuid)
+    VALUES ('roles', TG_OP, NEW.role_uuid::text, NEW.organization_uuid);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_roles_record_change
+AFTER INSERT OR UPDATE OR DELETE ON roles
+FOR EACH ROW EXECUTE FUNCTION record_role_change();
+
+-- Record user role assignment changes; an update that moves an assignment records both keys
+CREATE OR REPLACE FUNCTION record_user_role_change() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        INSERT INTO authorization_changes (table_name, operation, role_uuid, user_uuid, organization_uuid)
+        VALUES ('user_roles', TG_OP, OLD.role_uuid, OLD.user_uuid, OLD.organization_uuid);
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO authorization_changes (table_name, operation, role_uuid, user_uuid, organization_uuid)
+        VALUES ('user_roles', TG_OP, NEW.role_uuid, NEW.user_uuid, NEW.organization_uuid);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_user_roles_record_change
+AFTER INSERT OR UPDATE OR DELETE ON user_roles
+FOR EACH ROW EXECUTE FUNCTION record_user_role_change();
@@ -0,0 +1,52 @@
+-- Publish changes to roles and user_roles on the authorization_changes channel
+-- so every replica can evict the affected cache entries (app.cache.pg-notify.enabled).
+-- Payload: {"table", "operation", "role_uuid", "user_uuid", "organization_uuid"}
+
+CREATE OR REPLACE FUNCTION notify_role_change() RETURNS TRIGGER AS $$
+DECLARE
+    changed roles%ROWTYPE;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        changed := OLD;
+    ELSE
+        changed := NEW;
+    END IF;
+    PERFORM pg_notify('authorization_changes', json_build_object(
+        'table', 'roles',
+        'operation', TG_OP,
+        'role_uuid', changed.role_uuid::text,
+        'organization_uuid', changed.organization_uuid)::text);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_roles_notify_change
+AFTER INSERT OR UPDATE OR DELETE ON roles
+FOR EACH ROW EXECUTE FUNCTION notify_role_change();
+
+-- An update that moves an assignment notifies both the old and the new user
+CREATE OR REPLACE FUNCTION notify_user_role_change() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        PERFORM pg_notify('authorization_changes', json_build_object(
+            'table', 'user_roles',
+            'operation', TG_OP,
+            'role_uuid', OLD.role_uuid,
+            'user_uuid', OLD.user_uuid,
+            'organization_uuid', OLD.organization_uuid)::text);
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        PERFORM pg_notify('authorization_changes', json_build_object(
+            'table', 'user_roles',
+            'operation', TG_OP,
+            'role_uuid', NEW.role_uuid,
+            'user_uuid', NEW.user_uuid,
+            'organization_uuid', NEW.organization_uuid)::text);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_user_roles_notify_change
+AFTER INSERT OR UPDATE OR DELETE ON user_roles
+FOR EACH ROW EXECUTE FUNCTION notify_user_role_change();
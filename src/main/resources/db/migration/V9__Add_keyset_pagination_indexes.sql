@@ -0,0 +1,8 @@
+-- Keyset pagination indexes
+-- Organization listings are paged in (created_at, uuid) order; these indexes serve both the
+-- organization filter and the sort key, so the single-column organization indexes are redundant
+CREATE INDEX idx_roles_organization_created ON roles(organization_uuid, created_at, role_uuid);
+DROP INDEX IF EXISTS idx_roles_organization_uuid;
+
+CREATE INDEX idx_user_roles_organization_created ON user_roles(organization_uuid, created_at, user_role_uuid);
+DROP INDEX IF EXISTS idx_user_roles_organization_uuid;
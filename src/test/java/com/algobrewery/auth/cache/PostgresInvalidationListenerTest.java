@@ -0,0 +1,162 @@
+package com.algobrewery.auth.cache;
+
+import com.algobrewery.auth.config.BaselineMigrationStrategy;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("Postgres Invalidation Listener Tests")
+class PostgresInvalidationListenerTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    private static JdbcTemplate jdbcTemplate;
+
+    private TaggedCache permissions;
+    private TaggedCache roles;
+    private PostgresInvalidationListener listener;
+
+    @BeforeAll
+    static void createSchema() {
+        new BaselineMigrationStrategy().migrate(Flyway.configure()
+            .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+            .baselineOnMigrate(true)
+            .baselineVersion(BaselineMigrationStrategy.BASELINE_VERSION)
+            .load());
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+            postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword()));
+    }
+
+    private CacheInvalidator cacheInvalidator;
+
+    @BeforeEach
+    void setUp() {
+        permissions = newCache(CacheKeys.PERMISSIONS);
+        roles = newCache(CacheKeys.ROLES);
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(permissions, roles, newCache(CacheKeys.USER_ROLES)));
+        cacheManager.afterPropertiesSet();
+        cacheInvalidator = new CacheInvalidator(cacheManager,
+            new StaticListableBeanFactory(Map.of()).getBeanProvider(CacheInvalidationPublisher.class));
+
+        listener = newListener();
+        listener.start();
+        await().atMost(Duration.ofSeconds(10)).until(listener::isListening);
+    }
+
+    @AfterEach
+    void tearDown() {
+        listener.stop();
+    }
+
+    @Test
+    @DisplayName("Should evict only the assigned user's decisions when a role is assigned")
+    void testUserRoleInsert_EvictsUserEntries() {
+        // Given
+        UUID roleUuid = insertRole("org-1");
+        CacheKey assigned = CacheKeys.permission("user-1", "org-1", "view", "task");
+        CacheKey other = CacheKeys.permission("user-2", "org-1", "view", "task");
+        permissions.put(assigned, true);
+        permissions.put(other, true);
+
+        // When
+        jdbcTemplate.update("INSERT INTO user_roles (user_uuid, role_uuid, organization_uuid, created_by) "
+            + "VALUES (?, ?, ?, ?)", "user-1", roleUuid, "org-1", "admin");
+
+        // Then
+        await().atMost(Duration.ofSeconds(5)).until(() -> permissions.get(assigned) == null);
+        assertThat(permissions.get(other)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should evict the role and its organization's denials when a role changes")
+    void testRoleUpdate_EvictsOrganizationEntries() {
+        // Given
+        UUID roleUuid = insertRole("org-1");
+        CacheKey role = CacheKeys.role(roleUuid);
+        CacheKey sameOrganization = CacheKeys.permission("user-1", "org-1", "view", "task");
+        CacheKey otherOrganization = CacheKeys.permission("user-1", "org-2", "view", "task");
+        roles.put(role, "cached");
+        permissions.put(sameOrganization, true);
+        permissions.put(otherOrganization, true);
+
+        // When
+        jdbcTemplate.update("UPDATE roles SET description = 'changed', updated_at = NOW() WHERE role_uuid = ?", roleUuid);
+
+        // Then
+        await().atMost(Duration.ofSeconds(5))
+            .until(() -> roles.get(role) == null && permissions.get(sameOrganization) == null);
+        assertThat(permissions.get(otherOrganization)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should not report listening until the notification triggers exist")
+    void testMissingTriggers_NotListening() {
+        // Given
+        jdbcTemplate.execute("DROP TRIGGER trg_user_roles_notify_change ON user_roles");
+        PostgresInvalidationListener withoutTriggers = newListener();
+
+        try {
+            // When
+            withoutTriggers.start();
+
+            // Then
+            await().during(Duration.ofMillis(500)).atMost(Duration.ofSeconds(1))
+                .until(() -> !withoutTriggers.isListening());
+
+            // When
+            jdbcTemplate.execute("CREATE TRIGGER trg_user_roles_notify_change AFTER INSERT OR UPDATE OR DELETE "
+                + "ON user_roles FOR EACH ROW EXECUTE FUNCTION notify_user_role_change()");
+
+            // Then
+            await().atMost(Duration.ofSeconds(5)).until(withoutTriggers::isListening);
+        } finally {
+            withoutTriggers.stop();
+        }
+    }
+
+    private PostgresInvalidationListener newListener() {
+        return new PostgresInvalidationListener(cacheInvalidator, new ObjectMapper(),
+            postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword(), 100, 100);
+    }
+
+    /**
+     * Insert a role and wait until its own notification has been applied.
+     */
+    private UUID insertRole(String organizationUuid) {
+        CacheKey marker = CacheKeys.permission("marker", organizationUuid, "view", "task");
+        permissions.put(marker, true);
+        UUID roleUuid = jdbcTemplate.queryForObject("INSERT INTO roles (role_name, organization_uuid, role_management_type, "
+                + "policy, created_by) VALUES (?, ?, 'CUSTOMER_MANAGED', '{}'::jsonb, 'admin') RETURNING role_uuid",
+            UUID.class, "Role " + UUID.randomUUID(), organizationUuid);
+        await().atMost(Duration.ofSeconds(5)).until(() -> permissions.get(marker) == null);
+        return roleUuid;
+    }
+
+    private static TaggedCache newCache(String name) {
+        return new TaggedCache(new CaffeineCache(name, Caffeine.newBuilder().build()), new CacheTagIndex());
+    }
+}
@@ -0,0 +1,128 @@
+package com.algobrewery.auth.cache;
+
+import com.algobrewery.auth.dto.PermissionCheckResponse;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Tagged Cache Unit Tests")
+class TaggedCacheTest {
+
+    private CacheTagIndex index;
+    private TaggedCache cache;
+
+    @BeforeEach
+    void setUp() {
+        index = new CacheTagIndex();
+        cache = new TaggedCache(new ConcurrentMapCache(CacheKeys.PERMISSIONS), index);
+    }
+
+    @Test
+    @DisplayName("Should evict only the entries of the tagged user")
+    void testEvictTag_User() {
+        // Given
+        cache.put(CacheKeys.permission("user-1", "org-1", "view", "task"), true);
+        cache.put(CacheKeys.endpointPermission("user-1", "org-1", "GET /api/tasks"), true);
+        cache.put(CacheKeys.permission("user-2", "org-1", "view", "task"), false);
+
+        // When
+        cache.evictTag(CacheKeys.userTag("user-1", "org-1"));
+
+        // Then
+        assertThat(cache.get(CacheKeys.permission("user-1", "org-1", "view", "task"))).isNull();
+        assertThat(cache.get(CacheKeys.endpointPermission("user-1", "org-1", "GET /api/tasks"))).isNull();
+        assertThat(cache.get(CacheKeys.permission("user-2", "org-1", "view", "task"))).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should evict every entry of the tagged organization")
+    void testEvictTag_Organization() {
+        // Given
+        cache.put(CacheKeys.permission("user-1", "org-1", "view", "task"), true);
+        cache.put(CacheKeys.permission("user-2", "org-1", "view", "task"), true);
+        cache.put(CacheKeys.permission("user-1", "org-2", "view", "task"), true);
+
+        // When
+        cache.evictTag(CacheKeys.organizationTag("org-1"));
+
+        // Then
+        assertThat(cache.get(CacheKeys.permission("user-1", "org-1", "view", "task"))).isNull();
+        assertThat(cache.get(CacheKeys.permission("user-2", "org-1", "view", "task"))).isNull();
+        assertThat(cache.get(CacheKeys.permission("user-1", "org-2", "view", "task"))).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should evict grants by the granting role and denials by organization")
+    void testEvictTag_GrantsAndDenials() {
+        // Given
+        UUID viewer = UUID.randomUUID();
+        CacheKey granted = CacheKeys.permission("user-1", "org-1", "view", "task");
+        CacheKey denied = CacheKeys.permission("user-1", "org-1", "edit", "task");
+        CacheKey otherOrganization = CacheKeys.permission("user-1", "org-2", "edit", "task");
+        cache.put(granted, new PermissionCheckResponse(true, viewer.toString(), "Viewer", "team"));
+        cache.put(denied, new PermissionCheckResponse(false));
+        cache.put(otherOrganization, new PermissionCheckResponse(false));
+
+        // When
+        cache.evictTag(CacheKeys.denialTag("org-1"));
+
+        // Then
+        assertThat(cache.get(granted)).isNotNull();
+        assertThat(cache.get(denied)).isNull();
+        assertThat(cache.get(otherOrganization)).isNotNull();
+
+        // When
+        cache.evictTag(CacheKeys.roleTag(viewer));
+
+        // Then
+        assertThat(cache.get(granted)).isNull();
+        assertThat(index.removeTag(CacheKeys.userTag("user-1", "org-1"))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should not index a key whose async load failed")
+    void testRetrieve_FailedLoadNotIndexed() {
+        // Given
+        TaggedCache asyncCache = new TaggedCache(
+            new CaffeineCache(CacheKeys.PERMISSIONS, Caffeine.newBuilder().buildAsync(), true), index);
+        CacheKey key = CacheKeys.permission("user-1", "org-1", "view", "task");
+
+        // When
+        CompletableFuture<Object> value = asyncCache.retrieve(key,
+            () -> CompletableFuture.failedFuture(new IllegalStateException("load failed")));
+
+        // Then
+        assertThatThrownBy(value::join).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(index.tagCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should drop index entries of evicted and cleared keys")
+    void testIndex_FollowsEvictions() {
+        // Given
+        UUID roleUuid = UUID.randomUUID();
+        cache.put(CacheKeys.role(roleUuid), "role");
+        cache.put(CacheKeys.organizationRoles("org-1"), "roles");
+
+        // When
+        cache.evict(CacheKeys.role(roleUuid));
+
+        // Then
+        assertThat(index.removeTag(CacheKeys.roleTag(roleUuid))).isEmpty();
+
+        // When
+        cache.clear();
+
+        // Then
+        assertThat(index.tagCount()).isZero();
+    }
+}
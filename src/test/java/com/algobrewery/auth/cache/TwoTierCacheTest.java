@@ -0,0 +1,253 @@
+package com.algobrewery.auth.cache;
+
+import com.algobrewery.auth.config.EmbeddedRedisConfig;
+import com.algobrewery.auth.config.RedisCacheConfig;
+import com.algobrewery.auth.dto.PermissionCheckResponse;
+import com.algobrewery.auth.dto.RoleResponse;
+import com.algobrewery.auth.dto.UserRoleAssignmentResponse;
+import com.algobrewery.auth.model.RoleManagementType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@DisplayName("Two-Tier Cache Tests")
+class TwoTierCacheTest {
+
+    private static final String CHANNEL = "test:cache:invalidation";
+
+    private static EmbeddedRedisConfig embeddedRedis;
+    private static LettuceConnectionFactory connectionFactory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService executor = Executors.newFixedThreadPool(2, runnable -> new Thread(runnable, "cache-io"));
+
+    private RedisCacheStore sharedStore;
+    private TaggedCache nodeA;
+    private TaggedCache nodeB;
+    private RedisMessageListenerContainer container;
+
+    @BeforeAll
+    static void startRedis() throws Exception {
+        embeddedRedis = new EmbeddedRedisConfig();
+        embeddedRedis.startRedis();
+        connectionFactory = (LettuceConnectionFactory) embeddedRedis.redisConnectionFactory();
+        connectionFactory.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopRedis() {
+        connectionFactory.destroy();
+        embeddedRedis.stopRedis();
+    }
+
+    @BeforeEach
+    void setUp() {
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(StringRedisSerializer.UTF_8);
+        template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        template.afterPropertiesSet();
+        sharedStore = new RedisCacheStore(template, "test:cache:");
+        sharedStore.clear(CacheKeys.PERMISSIONS);
+
+        nodeA = newNode();
+        nodeB = newNode();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (container != null) {
+            container.stop();
+            container.destroy();
+        }
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should serve a value loaded by another node from Redis")
+    void testRetrieve_SharedTier() {
+        // Given
+        CacheKey key = CacheKeys.permission("user-1", "org-1", "view", "task");
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        Boolean first = nodeA.retrieve(key, () -> load(loads, true)).join();
+        Boolean second = nodeB.retrieve(key, () -> load(loads, false)).join();
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should look up Redis on the cache's executor")
+    void testRetrieve_RunsOnExecutor() {
+        // Given
+        CacheKey key = CacheKeys.permission("user-1", "org-1", "view", "task");
+        AtomicReference<String> loaderThread = new AtomicReference<>();
+
+        // When
+        nodeA.retrieve(key, () -> {
+            loaderThread.set(Thread.currentThread().getName());
+            return CompletableFuture.completedFuture(true);
+        }).join();
+
+        // Then
+        assertThat(loaderThread).hasValue("cache-io");
+    }
+
+    @Test
+    @DisplayName("Should evict a tag from Redis and leave other nodes' local entries to invalidation")
+    void testEvictTag_SharedTier() {
+        // Given
+        CacheKey key = CacheKeys.permission("user-1", "org-1", "view", "task");
+        AtomicInteger loads = new AtomicInteger();
+        nodeA.retrieve(key, () -> load(loads, true)).join();
+        nodeB.retrieve(key, () -> load(loads, true)).join();
+
+        // When
+        nodeA.evictTag(CacheKeys.userTag("user-1", "org-1"));
+
+        // Then
+        assertThat(sharedStore.get(CacheKeys.PERMISSIONS, key)).isNull();
+        assertThat(nodeB.get(key)).isNotNull();
+
+        // When
+        nodeB.evictTagLocally(CacheKeys.userTag("user-1", "org-1"));
+
+        // Then
+        assertThat(nodeB.retrieve(key, () -> load(loads, false)).join()).isFalse();
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should drop local entries on other nodes through pub/sub invalidation")
+    void testInvalidation_PubSub() {
+        // Given
+        CacheInvalidator invalidatorA = newInvalidator(nodeA);
+        CacheInvalidator invalidatorB = newInvalidator(nodeB);
+        container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+            new CacheInvalidationListener(invalidatorB, objectMapper, "node-b"), new ChannelTopic(CHANNEL));
+        container.afterPropertiesSet();
+        container.start();
+
+        CacheKey key = CacheKeys.permission("user-1", "org-1", "view", "task");
+        AtomicInteger loads = new AtomicInteger();
+        nodeA.retrieve(key, () -> load(loads, true)).join();
+        nodeB.retrieve(key, () -> load(loads, true)).join();
+
+        // When
+        invalidatorA.userRolesChanged("user-1", "org-1");
+
+        // Then
+        await().atMost(Duration.ofSeconds(5)).until(() -> nodeB.get(key) == null);
+    }
+
+    @Test
+    @DisplayName("Should round-trip the cached DTOs, lists and Optionals through the Redis value mapper")
+    void testCacheValueMapper_RoundTrip() throws Exception {
+        // Given
+        RedisCacheStore store = newStore(RedisCacheConfig.cacheValueMapper(Jackson2ObjectMapperBuilder.json().build()));
+        Instant createdAt = Instant.parse("2024-01-01T00:00:00Z");
+        RoleResponse role = new RoleResponse(UUID.randomUUID(), "Viewer", "org-1", RoleManagementType.CUSTOMER_MANAGED,
+            "Can view", objectMapper.readTree("{\"data\":{\"view\":[\"task\"]}}"), createdAt, createdAt);
+        PermissionCheckResponse decision = new PermissionCheckResponse();
+        decision.setHasPermission(true);
+        decision.setRoleName("Viewer");
+        List<UserRoleAssignmentResponse> assignments = new ArrayList<>(List.of(new UserRoleAssignmentResponse(
+            UUID.randomUUID(), "user-1", role.getRoleUuid().toString(), "org-1", createdAt)));
+
+        // When
+        store.put(CacheKeys.ROLES, "role", role, Duration.ofMinutes(1));
+        store.put(CacheKeys.ROLES, "present", Optional.of(role), Duration.ofMinutes(1));
+        store.put(CacheKeys.ROLES, "absent", Optional.empty(), Duration.ofMinutes(1));
+        store.put(CacheKeys.PERMISSIONS, "decision", decision, Duration.ofMinutes(1));
+        store.put(CacheKeys.USER_ROLES, "assignments", assignments, Duration.ofMinutes(1));
+
+        // Then
+        assertThat(store.get(CacheKeys.ROLES, "role")).isEqualTo(role);
+        assertThat(store.get(CacheKeys.ROLES, "present")).isEqualTo(Optional.of(role));
+        assertThat(store.get(CacheKeys.ROLES, "absent")).isEqualTo(Optional.empty());
+        assertThat(store.get(CacheKeys.PERMISSIONS, "decision")).isEqualTo(decision);
+        assertThat(store.get(CacheKeys.USER_ROLES, "assignments")).isEqualTo(assignments);
+    }
+
+    @Test
+    @DisplayName("Should refuse to instantiate types outside the cached value types")
+    void testCacheValueMapper_RejectsOtherTypes() {
+        // Given
+        RedisCacheStore store = newStore(RedisCacheConfig.cacheValueMapper(Jackson2ObjectMapperBuilder.json().build()));
+        new StringRedisTemplate(connectionFactory).opsForValue()
+            .set("test:cache:" + CacheKeys.ROLES + ":forged", "[\"java.net.URL\",\"http://localhost\"]");
+
+        // When
+        Object value = store.get(CacheKeys.ROLES, "forged");
+
+        // Then
+        assertThat(value).isNull();
+    }
+
+    private static RedisCacheStore newStore(ObjectMapper valueMapper) {
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(StringRedisSerializer.UTF_8);
+        template.setValueSerializer(new GenericJackson2JsonRedisSerializer(valueMapper));
+        template.afterPropertiesSet();
+        return new RedisCacheStore(template, "test:cache:");
+    }
+
+    private TaggedCache newNode() {
+        CaffeineCache local = new CaffeineCache(CacheKeys.PERMISSIONS, Caffeine.newBuilder().buildAsync(), true);
+        return new TaggedCache(new TwoTierCache(local, sharedStore, Duration.ofMinutes(1), executor), new CacheTagIndex());
+    }
+
+    private CacheInvalidator newInvalidator(TaggedCache cache) {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(cache));
+        cacheManager.afterPropertiesSet();
+        CacheInvalidationPublisher publisher = new CacheInvalidationPublisher(
+            new StringRedisTemplate(connectionFactory), objectMapper, CHANNEL);
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("publisher", publisher));
+        return new CacheInvalidator(cacheManager, beanFactory.getBeanProvider(CacheInvalidationPublisher.class));
+    }
+
+    private static CompletableFuture<Boolean> load(AtomicInteger loads, boolean value) {
+        loads.incrementAndGet();
+        return CompletableFuture.completedFuture(value);
+    }
+}
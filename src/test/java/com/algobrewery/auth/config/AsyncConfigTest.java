@@ -0,0 +1,97 @@
+package com.algobrewery.auth.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Async Config Unit Tests")
+class AsyncConfigTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private ExecutorService executor;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject and count tasks when the pool and queue are full")
+    void testBoundedExecutor_RejectsWhenSaturated() {
+        // Given
+        executor = (ExecutorService) boundedExecutor(1, 1);
+        executor.execute(this::awaitRelease);
+        executor.execute(this::awaitRelease);
+
+        // When / Then
+        assertThatThrownBy(() -> executor.execute(this::awaitRelease))
+            .isInstanceOf(RejectedExecutionException.class);
+        assertThat(registry.get("executor.rejected").tag("name", "db").counter().count()).isEqualTo(1.0);
+        assertThat(registry.get("executor.queued").tag("name", "db").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should reject and count tasks over the concurrency limit instead of blocking the caller")
+    void testLimitedExecutor_RejectsOverLimit() throws InterruptedException {
+        // Given
+        executor = Executors.newCachedThreadPool();
+        AsyncConfig config = new AsyncConfig();
+        ReflectionTestUtils.setField(config, "concurrencyLimit", 2);
+        ConcurrencyLimitedExecutor limited = config.limited(executor, registry);
+        limited.execute(this::awaitRelease);
+        limited.execute(this::awaitRelease);
+
+        // When / Then
+        assertThatThrownBy(() -> limited.execute(this::awaitRelease))
+            .isInstanceOf(RejectedExecutionException.class);
+        assertThat(registry.get("executor.rejected").tag("name", "db").counter().count()).isEqualTo(1.0);
+        assertThat(registry.get("executor.active").tag("name", "db").gauge().value()).isEqualTo(2.0);
+        assertThat(registry.get("executor.pool.max").tag("name", "db").gauge().value()).isEqualTo(2.0);
+
+        // When
+        release.countDown();
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(limited.getInFlight()).isZero();
+        assertThat(limited.getRejected()).isEqualTo(1);
+    }
+
+    private Executor boundedExecutor(int poolSize, int queueCapacity) {
+        AsyncConfig config = new AsyncConfig();
+        ReflectionTestUtils.setField(config, "mode", "bounded");
+        ReflectionTestUtils.setField(config, "poolSize", poolSize);
+        ReflectionTestUtils.setField(config, "queueCapacity", queueCapacity);
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("meterRegistry", registry));
+        return config.dbExecutor(beanFactory.getBeanProvider(MeterRegistry.class));
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.algobrewery.auth.config;
+
+import com.algobrewery.auth.cache.CacheKey;
+import com.algobrewery.auth.cache.CacheKeys;
+import com.algobrewery.auth.cache.RedisCacheStore;
+import com.algobrewery.auth.cache.TaggedCache;
+import com.algobrewery.auth.dto.PermissionCheckResponse;
+import com.github.benmanes.caffeine.cache.Policy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Cache Config Unit Tests")
+class CacheConfigTest {
+
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        CacheConfig config = new CacheConfig();
+        ReflectionTestUtils.setField(config, "rolesTtlMillis", 300000L);
+        ReflectionTestUtils.setField(config, "permissionsTtlMillis", 60000L);
+        ReflectionTestUtils.setField(config, "userRolesTtlMillis", 120000L);
+        ReflectionTestUtils.setField(config, "rolesMaxSize", 10L);
+        ReflectionTestUtils.setField(config, "permissionsMaxSize", 100L);
+        ReflectionTestUtils.setField(config, "userRolesMaxSize", 50L);
+        cacheManager = config.cacheManager(
+            new StaticListableBeanFactory(Map.of()).getBeanProvider(RedisCacheStore.class), new SyncTaskExecutor());
+        ((SimpleCacheManager) cacheManager).afterPropertiesSet();
+    }
+
+    @Test
+    @DisplayName("Should bound every cache by its configured size and expire entries after its TTL")
+    void testCacheManager_AppliesTtlAndSize() {
+        // When
+        Policy<Object, Object> roles = policy(CacheKeys.ROLES);
+        Policy<Object, Object> permissions = policy(CacheKeys.PERMISSIONS);
+        Policy<Object, Object> userRoles = policy(CacheKeys.USER_ROLES);
+
+        // Then
+        assertThat(cacheManager.getCacheNames())
+            .containsExactlyInAnyOrder(CacheKeys.ROLES, CacheKeys.PERMISSIONS, CacheKeys.USER_ROLES);
+        assertThat(roles.eviction().orElseThrow().getMaximum()).isEqualTo(10L);
+        assertThat(roles.expireAfterWrite().orElseThrow().getExpiresAfter()).isEqualTo(Duration.ofMinutes(5));
+        assertThat(permissions.eviction().orElseThrow().getMaximum()).isEqualTo(100L);
+        assertThat(permissions.expireAfterWrite().orElseThrow().getExpiresAfter()).isEqualTo(Duration.ofMinutes(1));
+        assertThat(userRoles.eviction().orElseThrow().getMaximum()).isEqualTo(50L);
+        assertThat(userRoles.expireAfterWrite().orElseThrow().getExpiresAfter()).isEqualTo(Duration.ofMinutes(2));
+        assertThat(permissions.isRecordingStats()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should fail a lookup whose load failed and not cache it as a denial")
+    void testRetrieve_FailedLoadNotCached() {
+        // Given
+        TaggedCache permissions = (TaggedCache) cacheManager.getCache(CacheKeys.PERMISSIONS);
+        CacheKey key = CacheKeys.permission("user-1", "org-1", "view", "task");
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        CompletableFuture<PermissionCheckResponse> failed = permissions.retrieve(key, () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.failedFuture(new IllegalStateException("database unavailable"));
+        });
+
+        // Then
+        assertThatThrownBy(failed::join)
+            .isInstanceOf(CompletionException.class)
+            .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(permissions.get(key)).isNull();
+
+        // When
+        PermissionCheckResponse granted = permissions.<PermissionCheckResponse>retrieve(key, () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture(new PermissionCheckResponse(true, "role-1", "Viewer", "team"));
+        }).join();
+
+        // Then
+        assertThat(granted.isHasPermission()).isTrue();
+        assertThat(loads).hasValue(2);
+    }
+
+    private Policy<Object, Object> policy(String cacheName) {
+        TaggedCache cache = (TaggedCache) cacheManager.getCache(cacheName);
+        CaffeineCache caffeineCache = (CaffeineCache) cache.getDelegate();
+        return caffeineCache.getNativeCache().policy();
+    }
+}
@@ -1,7 +1,11 @@
 package com.algobrewery.auth.controller;
 
+import com.algobrewery.auth.dto.BatchPermissionCheckRequest;
+import com.algobrewery.auth.dto.BatchPermissionCheckResponse;
+import com.algobrewery.auth.dto.PermissionCheckItem;
 import com.algobrewery.auth.dto.PermissionCheckRequest;
 import com.algobrewery.auth.dto.PermissionCheckResponse;
+import com.algobrewery.auth.dto.WhoCanAccessResponse;
 import com.algobrewery.auth.service.PermissionService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,12 +18,19 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import com.algobrewery.auth.dto.EndpointPermissionCheckRequest;
@@ -66,7 +77,7 @@ class PermissionControllerTest {
             .thenReturn(CompletableFuture.completedFuture(testResponse));
 
         // When & Then
-        mockMvc.perform(post("/permission/check")
+        performAsync(post("/permission/check")
                 .contentType(MediaType.APPLICATION_JSON)
                 .header("x-app-user-uuid", testUserUuid)
                 .header("x-app-org-uuid", testOrganizationUuid)
@@ -235,7 +246,7 @@ class PermissionControllerTest {
             .thenReturn(CompletableFuture.completedFuture(testResponse));
 
         // When & Then
-        mockMvc.perform(post("/check-permission")
+        performAsync(post("/check-permission")
                 .contentType(MediaType.APPLICATION_JSON)
                 .header("x-app-user-uuid", testUserUuid)
                 .header("x-app-org-uuid", testOrganizationUuid)
@@ -266,7 +277,7 @@ class PermissionControllerTest {
             .thenReturn(CompletableFuture.completedFuture(deniedResponse));
 
         // When & Then
-        mockMvc.perform(post("/check-permission")
+        performAsync(post("/check-permission")
                 .contentType(MediaType.APPLICATION_JSON)
                 .header("x-app-user-uuid", testUserUuid)
                 .header("x-app-org-uuid", testOrganizationUuid)
@@ -295,7 +306,7 @@ class PermissionControllerTest {
             .thenReturn(CompletableFuture.completedFuture(deniedResponse));
 
         // When & Then
-        mockMvc.perform(post("/check-permission")
+        performAsync(post("/check-permission")
                 .contentType(MediaType.APPLICATION_JSON)
                 .header("x-app-user-uuid", testUserUuid)
                 .header("x-app-org-uuid", testOrganizationUuid)
@@ -322,7 +333,7 @@ class PermissionControllerTest {
             .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Database error")));
 
         // When & Then
-        mockMvc.perform(post("/check-permission")
+        performAsync(post("/check-permission")
                 .contentType(MediaType.APPLICATION_JSON)
                 .header("x-app-user-uuid", testUserUuid)
                 .header("x-app-org-uuid", testOrganizationUuid)
@@ -349,7 +360,7 @@ class PermissionControllerTest {
                 .thenReturn(CompletableFuture.completedFuture(testResponse));
 
             // Test different HTTP methods
-            mockMvc.perform(post("/check-permission")
+            performAsync(post("/check-permission")
                     .contentType(MediaType.APPLICATION_JSON)
                     .header("x-app-user-uuid", testUserUuid)
                     .header("x-app-org-uuid", testOrganizationUuid)
@@ -373,4 +384,91 @@ class PermissionControllerTest {
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.has_permission").value(true));
     }
+
+    @Test
+    @DisplayName("Should check a batch of permissions successfully")
+    void testCheckPermissions_Success() throws Exception {
+        // Given
+        BatchPermissionCheckRequest batchRequest = new BatchPermissionCheckRequest(List.of(
+            new PermissionCheckItem("view", "task", null, null),
+            new PermissionCheckItem(null, null, "DELETE /tasks/123", "123")));
+        BatchPermissionCheckResponse batchResponse = new BatchPermissionCheckResponse(List.of(
+            testResponse, new PermissionCheckResponse(false)));
+
+        when(permissionService.checkPermissions(eq(testUserUuid), eq(testOrganizationUuid), anyList()))
+            .thenReturn(CompletableFuture.completedFuture(batchResponse));
+
+        // When & Then
+        performAsync(post("/permission/check-batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("x-app-user-uuid", testUserUuid)
+                .header("x-app-org-uuid", testOrganizationUuid)
+                .content(objectMapper.writeValueAsString(batchRequest)))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$.results.length()").value(2))
+            .andExpect(jsonPath("$.results[0].has_permission").value(true))
+            .andExpect(jsonPath("$.results[1].has_permission").value(false));
+    }
+
+    @Test
+    @DisplayName("Should return bad request when batch is empty or headers are missing")
+    void testCheckPermissions_InvalidRequest() throws Exception {
+        // When & Then - Empty batch
+        mockMvc.perform(post("/permission/check-batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("x-app-user-uuid", testUserUuid)
+                .header("x-app-org-uuid", testOrganizationUuid)
+                .content("{\"checks\":[]}"))
+            .andExpect(status().isBadRequest());
+
+        // When & Then - Missing headers
+        mockMvc.perform(post("/permission/check-batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"checks\":[{\"action\":\"view\",\"resource\":\"task\"}]}"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should list users who can access a resource one page at a time")
+    void testGetUsersWithAccess_Success() throws Exception {
+        // Given
+        WhoCanAccessResponse page = new WhoCanAccessResponse(testOrganizationUuid, "view", "task",
+            List.of("user-1", "user-2"), "user-2");
+        when(permissionService.getUsersWithAccess(testOrganizationUuid, "view", "task", "user-0", 2))
+            .thenReturn(CompletableFuture.completedFuture(page));
+
+        // When & Then
+        performAsync(get("/permission/who-can-access")
+                .header("x-app-org-uuid", testOrganizationUuid)
+                .param("action", "view")
+                .param("resource", "task")
+                .param("page_size", "2")
+                .param("page_token", "user-0"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.users[1]").value("user-2"))
+            .andExpect(jsonPath("$.next_page_token").value("user-2"));
+    }
+
+    @Test
+    @DisplayName("Should return bad request for an out of range page size")
+    void testGetUsersWithAccess_InvalidPageSize() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/permission/who-can-access")
+                .header("x-app-org-uuid", testOrganizationUuid)
+                .param("action", "view")
+                .param("resource", "task")
+                .param("page_size", "5000"))
+            .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Perform a request whose handler returns a future and dispatch the async result.
+     */
+    private ResultActions performAsync(RequestBuilder requestBuilder) throws Exception {
+        MvcResult mvcResult = mockMvc.perform(requestBuilder)
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        return mockMvc.perform(asyncDispatch(mvcResult));
+    }
 }
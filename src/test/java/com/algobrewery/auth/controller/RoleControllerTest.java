@@ -1,5 +1,6 @@
 package com.algobrewery.auth.controller;
 
+import com.algobrewery.auth.dto.PageResponse;
 import com.algobrewery.auth.dto.RoleRequest;
 import com.algobrewery.auth.dto.RoleResponse;
 import com.algobrewery.auth.model.RoleManagementType;
@@ -16,7 +17,12 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
@@ -24,6 +30,7 @@ import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -87,7 +94,7 @@ class RoleControllerTest {
             .thenReturn(CompletableFuture.completedFuture(testRoleResponse));
 
         // When & Then
-        mockMvc.perform(post("/role")
+        performAsync(post("/role")
                 .header("x-app-user-uuid", testUserUuid)
                 .header("x-app-org-uuid", testOrganizationUuid)
                 .contentType(MediaType.APPLICATION_JSON)
@@ -249,7 +256,7 @@ class RoleControllerTest {
             .thenReturn(CompletableFuture.completedFuture(testRoleResponse));
 
         // When & Then
-        mockMvc.perform(get("/role/{roleUuid}", testRoleUuid))
+        performAsync(get("/role/{roleUuid}", testRoleUuid))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON))
             .andExpect(jsonPath("$.role_uuid").value(testRoleUuid))
@@ -264,7 +271,7 @@ class RoleControllerTest {
             .thenReturn(CompletableFuture.failedFuture(new IllegalArgumentException("Role not found")));
 
         // When & Then
-        mockMvc.perform(get("/role/{roleUuid}", testRoleUuid))
+        performAsync(get("/role/{roleUuid}", testRoleUuid))
             .andExpect(status().isBadRequest());
     }
 
@@ -307,7 +314,7 @@ class RoleControllerTest {
             .thenReturn(CompletableFuture.completedFuture(systemRoles));
 
         // When & Then
-        mockMvc.perform(get("/role/system-managed"))
+        performAsync(get("/role/system-managed"))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON))
             .andExpect(jsonPath("$[0].role_uuid").value(testRoleUuid.toString()))
@@ -322,7 +329,88 @@ class RoleControllerTest {
             .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Database error")));
 
         // When & Then
-        mockMvc.perform(get("/role/system-managed"))
+        performAsync(get("/role/system-managed"))
             .andExpect(status().isInternalServerError());
     }
+
+    @Test
+    @DisplayName("Should filter organization roles by granted action and resource")
+    void testGetRolesByOrganization_FilteredByGrant() throws Exception {
+        // Given
+        when(roleService.getRolesByOrganizationGranting(testOrganizationUuid, "view", "task"))
+            .thenReturn(CompletableFuture.completedFuture(List.of(testRoleResponse)));
+
+        // When & Then
+        performAsync(get("/role/organization")
+                .header("x-app-org-uuid", testOrganizationUuid)
+                .param("action", "view")
+                .param("resource", "task"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].role_uuid").value(testRoleUuid.toString()));
+    }
+
+    @Test
+    @DisplayName("Should return bad request when only one of action and resource is given")
+    void testGetRolesByOrganization_IncompleteFilter() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/role/organization")
+                .header("x-app-org-uuid", testOrganizationUuid)
+                .param("action", "view"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should return a page of organization roles with the next page token")
+    void testGetRolesByOrganizationPage_Success() throws Exception {
+        // Given
+        when(roleService.getRolesByOrganizationPage(testOrganizationUuid, "token-1", 1))
+            .thenReturn(CompletableFuture.completedFuture(new PageResponse<>(List.of(testRoleResponse), "token-2")));
+
+        // When & Then
+        performAsync(get("/role/organization/page")
+                .header("x-app-org-uuid", testOrganizationUuid)
+                .param("page_size", "1")
+                .param("page_token", "token-1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items[0].role_uuid").value(testRoleUuid.toString()))
+            .andExpect(jsonPath("$.next_page_token").value("token-2"));
+    }
+
+    @Test
+    @DisplayName("Should return bad request when the page size is out of range")
+    void testGetRolesByOrganizationPage_InvalidPageSize() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/role/organization/page")
+                .header("x-app-org-uuid", testOrganizationUuid)
+                .param("page_size", "0"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should stream organization roles as newline-delimited JSON")
+    void testExportRolesByOrganization_Success() throws Exception {
+        // Given
+        doAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(1);
+            outputStream.write("{\"role_name\":\"Test Role\"}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(roleService).exportRolesByOrganization(eq(testOrganizationUuid), any(OutputStream.class));
+
+        // When & Then
+        performAsync(get("/role/organization/export")
+                .header("x-app-org-uuid", testOrganizationUuid))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/x-ndjson"))
+            .andExpect(content().string("{\"role_name\":\"Test Role\"}\n"));
+    }
+
+    /**
+     * Perform a request whose handler returns a future and dispatch the async result.
+     */
+    private ResultActions performAsync(RequestBuilder requestBuilder) throws Exception {
+        MvcResult mvcResult = mockMvc.perform(requestBuilder)
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        return mockMvc.perform(asyncDispatch(mvcResult));
+    }
 }
@@ -1,5 +1,9 @@
 package com.algobrewery.auth.controller;
 
+import com.algobrewery.auth.dto.BulkRoleAssignmentResponse;
+import com.algobrewery.auth.dto.EffectivePermissionsResponse;
+import com.algobrewery.auth.dto.PageResponse;
+import com.algobrewery.auth.dto.RoleAssignmentResult;
 import com.algobrewery.auth.dto.UserRoleAssignmentRequest;
 import com.algobrewery.auth.dto.UserRoleAssignmentResponse;
 import com.algobrewery.auth.service.UserRoleService;
@@ -14,13 +18,23 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -75,7 +89,7 @@ class UserRoleControllerTest {
             .thenReturn(CompletableFuture.completedFuture(testResponse));
 
         // When & Then
-        mockMvc.perform(post("/user/{userUuid}/roles", testUserUuid)
+        performAsync(post("/user/{userUuid}/roles", testUserUuid)
                 .header("x-app-user-uuid", testAssignerUuid)
                 .header("x-app-org-uuid", testOrganizationUuid)
                 .contentType(MediaType.APPLICATION_JSON)
@@ -268,4 +282,123 @@ class UserRoleControllerTest {
                 .param("organization_uuid", testOrganizationUuid))
             .andExpect(status().isInternalServerError());
     }
+
+    @Test
+    @DisplayName("Should return effective permissions with an ETag")
+    void testGetEffectivePermissions_Success() throws Exception {
+        // Given
+        EffectivePermissionsResponse snapshot = new EffectivePermissionsResponse(
+            testUserUuid, testOrganizationUuid, "0123456789abcdef0123456789abcdef",
+            Map.of("view", Set.of("task")));
+        when(userRoleService.getEffectivePermissions(eq(testUserUuid), eq(testOrganizationUuid)))
+            .thenReturn(CompletableFuture.completedFuture(snapshot));
+
+        // When & Then
+        performAsync(get("/user/{userUuid}/effective-permissions", testUserUuid)
+                .header("x-app-org-uuid", testOrganizationUuid))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"0123456789abcdef0123456789abcdef\""))
+            .andExpect(jsonPath("$.user_uuid").value(testUserUuid))
+            .andExpect(jsonPath("$.permissions.view[0]").value("task"));
+    }
+
+    @Test
+    @DisplayName("Should return not modified when effective permissions ETag matches")
+    void testGetEffectivePermissions_NotModified() throws Exception {
+        // Given
+        EffectivePermissionsResponse snapshot = new EffectivePermissionsResponse(
+            testUserUuid, testOrganizationUuid, "0123456789abcdef0123456789abcdef",
+            Map.of("view", Set.of("task")));
+        when(userRoleService.getEffectivePermissions(eq(testUserUuid), eq(testOrganizationUuid)))
+            .thenReturn(CompletableFuture.completedFuture(snapshot));
+
+        // When & Then
+        performAsync(get("/user/{userUuid}/effective-permissions", testUserUuid)
+                .header("x-app-org-uuid", testOrganizationUuid)
+                .header("If-None-Match", "\"0123456789abcdef0123456789abcdef\""))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("ETag", "\"0123456789abcdef0123456789abcdef\""));
+    }
+
+    @Test
+    @DisplayName("Should return per-item results for a bulk assignment")
+    void testAssignRolesToUsers_Success() throws Exception {
+        // Given
+        BulkRoleAssignmentResponse response = new BulkRoleAssignmentResponse(testOrganizationUuid, 1, 1, 0, List.of(
+            new RoleAssignmentResult(testUserUuid, testRoleUuid, RoleAssignmentResult.ASSIGNED, UUID.randomUUID()),
+            new RoleAssignmentResult("user-2", testRoleUuid, RoleAssignmentResult.ALREADY_ASSIGNED, null)));
+        when(userRoleService.assignRolesToUsers(anyList(), eq(testOrganizationUuid), eq(testAssignerUuid)))
+            .thenReturn(CompletableFuture.completedFuture(response));
+        String json = "{\"assignments\":[{\"user_uuid\":\"" + testUserUuid + "\",\"role_uuid\":\"" + testRoleUuid
+            + "\"},{\"user_uuid\":\"user-2\",\"role_uuid\":\"" + testRoleUuid + "\"}]}";
+
+        // When & Then
+        performAsync(post("/user/roles/bulk")
+                .header("x-app-user-uuid", testAssignerUuid)
+                .header("x-app-org-uuid", testOrganizationUuid)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.assigned").value(1))
+            .andExpect(jsonPath("$.already_assigned").value(1))
+            .andExpect(jsonPath("$.results[0].status").value("assigned"))
+            .andExpect(jsonPath("$.results[1].status").value("already_assigned"))
+            .andExpect(jsonPath("$.results[1].user_role_uuid").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Should return bad request for a bulk assignment without assignments")
+    void testAssignRolesToUsers_EmptyRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/user/roles/bulk")
+                .header("x-app-user-uuid", testAssignerUuid)
+                .header("x-app-org-uuid", testOrganizationUuid)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"assignments\":[]}"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should return the last page of organization role assignments without a next page token")
+    void testGetUserRolesByOrganizationPage_LastPage() throws Exception {
+        // Given
+        when(userRoleService.getUserRolesByOrganizationPage(testOrganizationUuid, null, 100))
+            .thenReturn(CompletableFuture.completedFuture(new PageResponse<>(List.of(testResponse), null)));
+
+        // When & Then
+        performAsync(get("/user/roles/organization/page")
+                .header("x-app-org-uuid", testOrganizationUuid))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items[0].user_uuid").value(testUserUuid))
+            .andExpect(jsonPath("$.next_page_token").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Should stream organization role assignments as newline-delimited JSON")
+    void testExportUserRolesByOrganization_Success() throws Exception {
+        // Given
+        String line = "{\"user_uuid\":\"" + testUserUuid + "\"}\n";
+        doAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(1);
+            outputStream.write(line.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(userRoleService).exportUserRolesByOrganization(eq(testOrganizationUuid), any(OutputStream.class));
+
+        // When & Then
+        performAsync(get("/user/roles/organization/export")
+                .header("x-app-org-uuid", testOrganizationUuid))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/x-ndjson"))
+            .andExpect(content().string(line));
+    }
+
+    /**
+     * Perform a request whose handler returns a future and dispatch the async result.
+     */
+    private ResultActions performAsync(RequestBuilder requestBuilder) throws Exception {
+        MvcResult mvcResult = mockMvc.perform(requestBuilder)
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        return mockMvc.perform(asyncDispatch(mvcResult));
+    }
 }
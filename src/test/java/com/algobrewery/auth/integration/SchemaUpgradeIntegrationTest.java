@@ -0,0 +1,117 @@
+package com.algobrewery.auth.integration;
+
+import com.algobrewery.auth.config.BaselineMigrationStrategy;
+import com.algobrewery.auth.dto.PermissionCheckRequest;
+import com.algobrewery.auth.dto.PermissionCheckResponse;
+import com.algobrewery.auth.dto.UserRoleAssignmentResponse;
+import com.algobrewery.auth.service.PermissionService;
+import com.algobrewery.auth.service.UserRoleService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Boots the service against a database created by Hibernate before the migrations were applied,
+ * with the data such a database may hold, and checks that it is baselined and upgraded in place.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("Schema Upgrade Integration Tests")
+class SchemaUpgradeIntegrationTest {
+
+    private static final UUID ROLE_UUID = UUID.randomUUID();
+    private static final String ORG = "org-1";
+    private static final String USER = "user-1";
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @BeforeAll
+    static void createHibernateSchema() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        new ResourceDatabasePopulator(new ClassPathResource(BaselineMigrationStrategy.BASELINE_SCHEMA))
+            .execute(dataSource);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("INSERT INTO roles (role_uuid, role_name, organization_uuid, role_management_type, policy, "
+                + "created_at, created_by) VALUES (?, 'Viewer', ?, 'CUSTOMER_MANAGED', "
+                + "'{\"data\":{\"view\":[\"task\"]}}'::json, now(), 'admin')", ROLE_UUID, ORG);
+        // Upper-case text, a duplicate and an assignment of a role that no longer exists
+        insertAssignment(jdbc, ROLE_UUID.toString().toUpperCase(), "2024-01-01T00:00:00Z");
+        insertAssignment(jdbc, ROLE_UUID.toString(), "2024-01-02T00:00:00Z");
+        insertAssignment(jdbc, UUID.randomUUID().toString(), "2024-01-03T00:00:00Z");
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRoleService userRoleService;
+
+    @Autowired
+    private PermissionService permissionService;
+
+    @Test
+    @DisplayName("Should baseline the Hibernate schema at version 5 and apply every later migration")
+    void testStartup_BaselinesAndMigrates() {
+        // When
+        List<String> versions = jdbcTemplate.queryForList(
+            "SELECT version FROM flyway_schema_history WHERE success ORDER BY installed_rank", String.class);
+
+        // Then
+        assertThat(versions).startsWith(BaselineMigrationStrategy.BASELINE_VERSION).contains("10", "11", "12");
+        assertThat(columnType("user_roles", "role_uuid")).isEqualTo("uuid");
+        assertThat(columnType("roles", "policy")).isEqualTo("jsonb");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM pg_constraint "
+            + "WHERE conname = 'fk_user_roles_role_uuid'", Long.class)).isEqualTo(1L);
+        assertThat(jdbcTemplate.queryForList("SELECT indexname FROM pg_indexes WHERE tablename IN ('roles', 'user_roles')",
+            String.class)).contains("idx_roles_policy", "idx_user_roles_unique", "idx_roles_name_org_unique");
+    }
+
+    @Test
+    @DisplayName("Should keep existing assignments usable after the upgrade")
+    void testStartup_ExistingAssignmentsUsable() {
+        // When
+        List<UserRoleAssignmentResponse> roles = userRoleService.getUserRoles(USER, ORG).join();
+        PermissionCheckResponse response = permissionService.checkPermission(USER, ORG,
+            new PermissionCheckRequest(USER, ORG, "view", "task")).join();
+
+        // Then
+        assertThat(roles).extracting(UserRoleAssignmentResponse::getRoleUuid).containsExactly(ROLE_UUID.toString());
+        assertThat(response.isHasPermission()).isTrue();
+    }
+
+    private String columnType(String table, String column) {
+        return jdbcTemplate.queryForObject("SELECT data_type FROM information_schema.columns "
+            + "WHERE table_name = ? AND column_name = ?", String.class, table, column);
+    }
+
+    private static void insertAssignment(JdbcTemplate jdbc, String roleUuid, String createdAt) {
+        jdbc.update("INSERT INTO user_roles (user_role_uuid, user_uuid, role_uuid, organization_uuid, created_at, "
+            + "created_by) VALUES (?, ?, ?, ?, CAST(? AS timestamptz), 'admin')",
+            UUID.randomUUID(), USER, roleUuid, ORG, createdAt);
+    }
+}
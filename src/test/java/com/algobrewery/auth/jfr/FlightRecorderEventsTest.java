@@ -0,0 +1,84 @@
+package com.algobrewery.auth.jfr;
+
+import com.algobrewery.auth.cache.CacheKey;
+import com.algobrewery.auth.cache.CacheKeys;
+import com.algobrewery.auth.cache.CacheTagIndex;
+import com.algobrewery.auth.cache.TaggedCache;
+import jdk.jfr.Event;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Flight Recorder Event Tests")
+class FlightRecorderEventsTest {
+
+    @Test
+    @DisplayName("Should record cache misses with a pseudonymous key")
+    void testCacheMiss_RecordedOnLoad() throws Exception {
+        // Given
+        TaggedCache cache = new TaggedCache(new ConcurrentMapCache(CacheKeys.PERMISSIONS), new CacheTagIndex());
+        CacheKey key = CacheKeys.permission("user-1", "org-1", "view", "task");
+
+        // When
+        List<RecordedEvent> events = record(CacheMissEvent.class, () -> {
+            cache.retrieve(key, () -> CompletableFuture.completedFuture(true)).join();
+            cache.retrieve(key, () -> CompletableFuture.completedFuture(true)).join();
+        });
+
+        // Then
+        assertThat(events).hasSize(1);
+        RecordedEvent event = events.get(0);
+        assertThat(event.getString("cache")).isEqualTo(CacheKeys.PERMISSIONS);
+        assertThat(event.getString("keyKind")).isEqualTo("permission");
+        assertThat(event.getString("key")).hasSize(16).doesNotContain("user-1");
+        assertThat(event.getBoolean("failed")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should record permission checks with pseudonymous user and organization")
+    void testPermissionCheck_Recorded() throws Exception {
+        // When
+        List<RecordedEvent> events = record(PermissionCheckEvent.class, () -> {
+            PermissionCheckEvent event = new PermissionCheckEvent();
+            event.begin();
+            event.addPolicyNodesVisited(3);
+            event.commit("user-1", "org-1", "view", "task", 1, 200, true, "database");
+        });
+
+        // Then
+        assertThat(events).hasSize(1);
+        RecordedEvent event = events.get(0);
+        assertThat(event.getString("user")).isEqualTo(PermissionCheckEvent.pseudonym("user-1"));
+        assertThat(event.getString("organization")).isNotEqualTo(event.getString("user"));
+        assertThat(event.getInt("roles")).isEqualTo(200);
+        assertThat(event.getInt("policyNodesVisited")).isEqualTo(3);
+        assertThat(event.getBoolean("granted")).isTrue();
+    }
+
+    private static List<RecordedEvent> record(Class<? extends Event> type, Runnable action) throws Exception {
+        Path file = Files.createTempFile("events", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(type);
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals(type.getAnnotation(Name.class).value()))
+                .toList();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.algobrewery.auth.metrics;
+
+import com.algobrewery.auth.cache.CacheKey;
+import com.algobrewery.auth.cache.CacheKeys;
+import com.algobrewery.auth.cache.CacheTagIndex;
+import com.algobrewery.auth.cache.TaggedCache;
+import com.algobrewery.auth.dto.BatchPermissionCheckResponse;
+import com.algobrewery.auth.dto.PermissionCheckResponse;
+import com.algobrewery.auth.policy.CompiledPolicyRegistry;
+import com.algobrewery.auth.policy.PermissionDictionary;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Permission Metrics Unit Tests")
+class PermissionMetricsTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private PermissionMetrics permissionMetrics;
+    private TaggedCache cache;
+
+    @BeforeEach
+    void setUp() {
+        permissionMetrics = new PermissionMetrics(
+            new StaticListableBeanFactory(Map.of("meterRegistry", meterRegistry)).getBeanProvider(MeterRegistry.class),
+            new CompiledPolicyRegistry(new PermissionDictionary()));
+        cache = new TaggedCache(new CaffeineCache(CacheKeys.PERMISSIONS, Caffeine.newBuilder().buildAsync(), true),
+            new CacheTagIndex());
+    }
+
+    @Test
+    @DisplayName("Should tag checks by cache tier, decision and roles evaluated")
+    void testRecordCheck_TagsCacheResult() {
+        // Given
+        CacheKey key = CacheKeys.permission("user-1", "org-1", "view", "task");
+
+        // When
+        permissionMetrics.recordCheck(PermissionMetrics.ACTION, () -> cache.retrieve(key, this::evaluate)).join();
+        permissionMetrics.recordCheck(PermissionMetrics.ACTION, () -> cache.retrieve(key, this::evaluate)).join();
+
+        // Then
+        assertThat(checkCount("miss", "3-5")).isEqualTo(1);
+        assertThat(checkCount("hit", "0")).isEqualTo(1);
+        assertThat(meterRegistry.get(PermissionMetrics.DB_ROUND_TRIPS).counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should record failed checks with an error decision")
+    void testRecordCheck_Failure() {
+        // When
+        permissionMetrics.recordCheck(PermissionMetrics.ENDPOINT,
+            () -> CompletableFuture.failedFuture(new IllegalStateException("database down"))).exceptionally(e -> null).join();
+
+        // Then
+        assertThat(meterRegistry.get(PermissionMetrics.CHECK)
+            .tags("endpoint_type", "endpoint", "decision", "error", "cache", "none").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should record a mixed decision for batches with grants and denials")
+    void testRecordBatch_MixedDecision() {
+        // When
+        permissionMetrics.recordBatch(() -> CompletableFuture.completedFuture(new BatchPermissionCheckResponse(
+            List.of(new PermissionCheckResponse(true), new PermissionCheckResponse(false))))).join();
+
+        // Then
+        assertThat(meterRegistry.get(PermissionMetrics.CHECK)
+            .tags("endpoint_type", "batch", "decision", "mixed").timer().count()).isEqualTo(1);
+    }
+
+    /**
+     * Stands in for the service: reports its work on the check bound by the caller.
+     */
+    private CompletableFuture<PermissionCheckResponse> evaluate() {
+        PermissionMetrics.Check check = PermissionMetrics.currentCheck();
+        return CompletableFuture.supplyAsync(() -> {
+            check.databaseRoundTrip();
+            check.rolesEvaluated(4);
+            return new PermissionCheckResponse(true, "role-uuid", "Editor", "team");
+        });
+    }
+
+    private long checkCount(String cacheResult, String roles) {
+        return meterRegistry.get(PermissionMetrics.CHECK)
+            .tags("endpoint_type", "action", "decision", "grant", "cache", cacheResult, "roles", roles)
+            .timer().count();
+    }
+}
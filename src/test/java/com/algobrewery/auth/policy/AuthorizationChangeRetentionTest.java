@@ -0,0 +1,67 @@
+package com.algobrewery.auth.policy;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+@DisplayName("Authorization Change Retention Unit Tests")
+class AuthorizationChangeRetentionTest {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private AuthorizationChangeRetention retention;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        jdbcTemplate = new JdbcTemplate(database);
+        retention = new AuthorizationChangeRetention(jdbcTemplate);
+        ReflectionTestUtils.setField(retention, "changeRetentionMs", Duration.ofDays(1).toMillis());
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should delete only the changes older than the retention period")
+    void testPrune_DeletesOldChanges() {
+        // Given
+        jdbcTemplate.execute("CREATE TABLE authorization_changes (change_id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+            + "table_name VARCHAR(20), changed_at TIMESTAMP WITH TIME ZONE)");
+        recordChange(Instant.now().minus(Duration.ofDays(2)));
+        recordChange(Instant.now().minus(Duration.ofHours(1)));
+
+        // When
+        retention.prune();
+
+        // Then
+        assertThat(jdbcTemplate.queryForList("SELECT change_id FROM authorization_changes", Long.class))
+            .containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("Should skip pruning when the schema has no change feed")
+    void testPrune_NoFeed() {
+        assertThatCode(retention::prune).doesNotThrowAnyException();
+    }
+
+    private void recordChange(Instant changedAt) {
+        jdbcTemplate.update("INSERT INTO authorization_changes (table_name, changed_at) VALUES ('roles', ?)",
+            Timestamp.from(changedAt));
+    }
+}
@@ -0,0 +1,363 @@
+package com.algobrewery.auth.policy;
+
+import com.algobrewery.auth.cache.AuthorizationChangeNotification;
+import com.algobrewery.auth.cache.CacheInvalidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@DisplayName("Authorization Model Unit Tests")
+class AuthorizationModelTest {
+
+    private static final String ORG = "org-123";
+    private static final String USER = "user-123";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CacheInvalidator cacheInvalidator = mock(CacheInvalidator.class);
+
+    private final Instant assignedAt = Instant.parse("2024-01-01T00:00:00Z");
+    private int assignments;
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private AuthorizationModel model;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE roles (role_uuid UUID PRIMARY KEY, role_name VARCHAR(100), "
+            + "policy VARCHAR(4000), created_at TIMESTAMP WITH TIME ZONE, updated_at TIMESTAMP WITH TIME ZONE)");
+        jdbcTemplate.execute("CREATE TABLE user_roles (user_uuid VARCHAR(50), role_uuid UUID, "
+            + "organization_uuid VARCHAR(50), created_at TIMESTAMP WITH TIME ZONE)");
+        jdbcTemplate.execute("CREATE TABLE authorization_changes (change_id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+            + "table_name VARCHAR(20), operation VARCHAR(10), role_uuid VARCHAR(50), user_uuid VARCHAR(50), "
+            + "organization_uuid VARCHAR(50), changed_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP)");
+
+        model = new AuthorizationModel(jdbcTemplate, new DataSourceTransactionManager(database), new ObjectMapper(),
+            new CompiledPolicyRegistry(new PermissionDictionary()),
+            new StaticListableBeanFactory(Map.of("meterRegistry", meterRegistry)).getBeanProvider(MeterRegistry.class),
+            cacheInvalidator);
+        ReflectionTestUtils.setField(model, "fetchSize", 100);
+        ReflectionTestUtils.setField(model, "batchSize", 2);
+        ReflectionTestUtils.setField(model, "fullRefreshIntervalMs", 600000L);
+        ReflectionTestUtils.setField(model, "gapGraceMs", 60000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should load roles and assignments at startup")
+    void testBootstrap_LoadsModel() {
+        // Given
+        UUID viewer = insertRole("Viewer", "{\"data\":{\"view\":[\"task\"]}}");
+        UUID editor = insertRole("Editor", "{\"data\":{\"edit\":[\"task\"]}}");
+        insertAssignment(USER, viewer);
+        insertAssignment(USER, editor);
+
+        // When
+        model.bootstrap();
+
+        // Then
+        assertThat(model.isReady()).isTrue();
+        List<AuthorizationModel.RoleGrant> grants = model.rolesFor(USER, ORG);
+        assertThat(grants).extracting(AuthorizationModel.RoleGrant::getRoleName).containsExactly("Viewer", "Editor");
+        assertThat(grants.get(1).getPolicy().allows("edit", "task")).isTrue();
+        assertThat(model.rolesFor("user-456", ORG)).isEmpty();
+        assertThat(model.rolesFor(USER, "org-456")).isEmpty();
+        assertThat(meterRegistry.get("authz.model.roles").gauge().value()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("Should keep each user's roles in assignment order when assignments interleave")
+    void testBootstrap_GroupsInterleavedAssignments() {
+        // Given
+        UUID viewer = insertRole("Viewer", "{\"data\":{\"view\":[\"task\"]}}");
+        UUID editor = insertRole("Editor", "{\"data\":{\"edit\":[\"task\"]}}");
+        insertAssignment(USER, editor);
+        insertAssignment("user-456", viewer);
+        insertAssignment(USER, viewer);
+        insertAssignment("user-456", editor);
+
+        // When
+        model.bootstrap();
+
+        // Then
+        assertThat(model.rolesFor(USER, ORG)).extracting(AuthorizationModel.RoleGrant::getRoleName)
+            .containsExactly("Editor", "Viewer");
+        assertThat(model.rolesFor("user-456", ORG)).extracting(AuthorizationModel.RoleGrant::getRoleName)
+            .containsExactly("Viewer", "Editor");
+        assertThat(meterRegistry.get("authz.model.assignments").gauge().value()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("Should apply assignment and role changes from the change feed")
+    void testRefresh_AppliesChanges() {
+        // Given
+        UUID viewer = insertRole("Viewer", "{\"data\":{\"view\":[\"task\"]}}");
+        UUID editor = insertRole("Editor", "{\"data\":{\"edit\":[\"task\"]}}");
+        model.bootstrap();
+
+        // When
+        insertAssignment(USER, viewer);
+        insertAssignment(USER, editor);
+        insertAssignment("user-456", viewer);
+        recordChange("user_roles", viewer, USER);
+        recordChange("user_roles", editor, USER);
+        recordChange("user_roles", viewer, "user-456");
+        model.refresh();
+
+        // Then
+        assertThat(model.rolesFor(USER, ORG)).hasSize(2);
+        assertThat(model.rolesFor("user-456", ORG)).hasSize(1);
+
+        // When
+        jdbcTemplate.update("UPDATE roles SET policy = ?, updated_at = ? WHERE role_uuid = ?",
+            "{\"data\":{\"view\":[\"client\"]}}", Timestamp.from(Instant.now().plusSeconds(60)), viewer);
+        jdbcTemplate.update("DELETE FROM user_roles WHERE role_uuid = ?", editor);
+        jdbcTemplate.update("DELETE FROM roles WHERE role_uuid = ?", editor);
+        recordChange("roles", viewer, null);
+        recordChange("roles", editor, null);
+        recordChange("user_roles", editor, USER);
+        model.refresh();
+
+        // Then
+        List<AuthorizationModel.RoleGrant> grants = model.rolesFor(USER, ORG);
+        assertThat(grants).extracting(AuthorizationModel.RoleGrant::getRoleUuid).containsExactly(viewer);
+        assertThat(grants.get(0).getPolicy().allows("view", "client")).isTrue();
+        assertThat(grants.get(0).getPolicy().allows("view", "task")).isFalse();
+        assertThat(meterRegistry.get("authz.model.staleness").timeGauge().value(TimeUnit.SECONDS)).isLessThan(5.0);
+    }
+
+    @Test
+    @DisplayName("Should evict the cached decisions touched by applied changes")
+    void testRefresh_EvictsCachedDecisions() {
+        // Given
+        UUID viewer = insertRole("Viewer", "{\"data\":{\"view\":[\"task\"]}}");
+        model.bootstrap();
+
+        // When
+        insertAssignment(USER, viewer);
+        recordChange("user_roles", viewer, USER);
+        recordChange("roles", viewer, null);
+        model.refresh();
+
+        // Then
+        verify(cacheInvalidator).applyDatabaseChange(new AuthorizationChangeNotification(
+            AuthorizationChangeNotification.USER_ROLES, "UPDATE", viewer.toString(), USER, ORG));
+        verify(cacheInvalidator).applyDatabaseChange(new AuthorizationChangeNotification(
+            AuthorizationChangeNotification.ROLES, "UPDATE", viewer.toString(), null, ORG));
+    }
+
+    @Test
+    @DisplayName("Should evict only the decisions a full refresh finds out of date")
+    void testFullRefresh_EvictsDriftOnly() {
+        // Given
+        UUID viewer = insertRole("Viewer", "{\"data\":{\"view\":[\"task\"]}}");
+        insertAssignment(USER, viewer);
+        model.bootstrap();
+        ReflectionTestUtils.setField(model, "fullRefreshIntervalMs", 0L);
+
+        // When
+        model.refresh();
+
+        // Then
+        verifyNoInteractions(cacheInvalidator);
+
+        // When an assignment was written without reaching the feed
+        insertAssignment("user-456", viewer);
+        model.refresh();
+
+        // Then
+        verify(cacheInvalidator).applyDatabaseChange(new AuthorizationChangeNotification(
+            AuthorizationChangeNotification.USER_ROLES, "UPDATE", null, "user-456", ORG));
+        verify(cacheInvalidator, never()).clearLocally();
+        assertThat(model.rolesFor("user-456", ORG)).extracting(AuthorizationModel.RoleGrant::getRoleUuid)
+            .containsExactly(viewer);
+    }
+
+    @Test
+    @DisplayName("Should page through the users granted an action and follow assignment changes")
+    void testUsersGranted_ReverseLookup() {
+        // Given
+        UUID viewer = insertRole("Viewer", "{\"data\":{\"view\":[\"task*\"]}}");
+        UUID editor = insertRole("Editor", "{\"data\":{\"edit\":[\"task\"]}}");
+        insertAssignment("user-c", viewer);
+        insertAssignment("user-a", viewer);
+        insertAssignment("user-b", editor);
+        model.bootstrap();
+
+        // When
+        List<String> firstPage = model.usersGranted(ORG, "view", "task:1", null, 1);
+        List<String> secondPage = model.usersGranted(ORG, "view", "task:1", firstPage.get(0), 10);
+
+        // Then
+        assertThat(firstPage).containsExactly("user-a");
+        assertThat(secondPage).containsExactly("user-c");
+        assertThat(model.usersGranted(ORG, "edit", "task", null, 10)).containsExactly("user-b");
+        assertThat(model.usersGranted("org-456", "view", "task:1", null, 10)).isEmpty();
+
+        // When
+        insertAssignment("user-b", viewer);
+        jdbcTemplate.update("DELETE FROM user_roles WHERE user_uuid = ?", "user-a");
+        recordChange("user_roles", viewer, "user-b");
+        recordChange("user_roles", viewer, "user-a");
+        model.refresh();
+
+        // Then
+        assertThat(model.usersGranted(ORG, "view", "task:1", null, 10)).containsExactly("user-b", "user-c");
+    }
+
+    @Test
+    @DisplayName("Should evaluate only the roles assigned in the organization of a reverse lookup")
+    void testUsersGranted_PerOrganizationRoles() {
+        // Given
+        UUID viewer = insertRole("Viewer", "{\"data\":{\"view\":[\"task\"]}}");
+        insertAssignment("user-a", viewer);
+        jdbcTemplate.update("INSERT INTO user_roles (user_uuid, role_uuid, organization_uuid, created_at) "
+            + "VALUES (?, ?, ?, CURRENT_TIMESTAMP)", "user-x", viewer, "org-456");
+        model.bootstrap();
+
+        // When
+        jdbcTemplate.update("DELETE FROM user_roles WHERE user_uuid = ?", "user-a");
+        recordChange("user_roles", viewer, "user-a");
+        model.refresh();
+
+        // Then
+        assertThat(model.usersGranted(ORG, "view", "task", null, 10)).isEmpty();
+        assertThat(model.usersGranted("org-456", "view", "task", null, 10)).containsExactly("user-x");
+
+        // When
+        insertAssignment("user-b", viewer);
+        recordChange("user_roles", viewer, "user-b");
+        model.refresh();
+
+        // Then
+        assertThat(model.usersGranted(ORG, "view", "task", null, 10)).containsExactly("user-b");
+    }
+
+    @Test
+    @DisplayName("Should apply a change committed after a higher change id was read")
+    void testRefresh_AppliesChangeCommittedOutOfOrder() {
+        // Given
+        UUID viewer = insertRole("Viewer", "{\"data\":{\"view\":[\"task\"]}}");
+        model.bootstrap();
+        insertAssignment("user-456", viewer);
+        recordChange(2L, "user_roles", viewer, "user-456");
+        model.refresh();
+
+        // When
+        insertAssignment(USER, viewer);
+        recordChange(1L, "user_roles", viewer, USER);
+        model.refresh();
+
+        // Then
+        assertThat(model.rolesFor("user-456", ORG)).hasSize(1);
+        assertThat(model.rolesFor(USER, ORG)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should stop looking for a missing change id after the grace period")
+    void testRefresh_ExpiresGapsAfterGracePeriod() {
+        // Given
+        UUID viewer = insertRole("Viewer", "{\"data\":{\"view\":[\"task\"]}}");
+        ReflectionTestUtils.setField(model, "gapGraceMs", -1L);
+        model.bootstrap();
+        recordChange(2L, "user_roles", viewer, "user-456");
+        model.refresh();
+        model.refresh();
+
+        // When
+        insertAssignment(USER, viewer);
+        recordChange(1L, "user_roles", viewer, USER);
+        model.refresh();
+
+        // Then
+        assertThat(model.rolesFor(USER, ORG)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should not be ready when the initial load fails and retry it on refresh")
+    void testBootstrap_FailureLeavesModelUnready() {
+        // Given
+        jdbcTemplate.execute("ALTER TABLE roles RENAME TO roles_unavailable");
+
+        // When
+        model.bootstrap();
+        model.refresh();
+
+        // Then
+        assertThat(model.isReady()).isFalse();
+        assertThat(model.rolesFor(USER, ORG)).isEmpty();
+
+        // When
+        jdbcTemplate.execute("ALTER TABLE roles_unavailable RENAME TO roles");
+        model.refresh();
+
+        // Then
+        assertThat(model.isReady()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should fail startup when the change feed is missing")
+    void testBootstrap_MissingChangeFeed() {
+        // Given
+        jdbcTemplate.execute("DROP TABLE authorization_changes");
+
+        // When / Then
+        assertThatThrownBy(() -> model.bootstrap())
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("authorization_changes");
+        assertThat(model.isReady()).isFalse();
+    }
+
+    private UUID insertRole(String name, String policy) {
+        UUID roleUuid = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO roles (role_uuid, role_name, policy, created_at) VALUES (?, ?, ?, CURRENT_TIMESTAMP)",
+            roleUuid, name, policy);
+        return roleUuid;
+    }
+
+    private void insertAssignment(String userUuid, UUID roleUuid) {
+        jdbcTemplate.update("INSERT INTO user_roles (user_uuid, role_uuid, organization_uuid, created_at) "
+            + "VALUES (?, ?, ?, ?)", userUuid, roleUuid, ORG, Timestamp.from(assignedAt.plusSeconds(assignments++)));
+    }
+
+    private void recordChange(String table, UUID roleUuid, String userUuid) {
+        jdbcTemplate.update("INSERT INTO authorization_changes (table_name, operation, role_uuid, user_uuid, organization_uuid) "
+            + "VALUES (?, 'UPDATE', ?, ?, ?)", table, roleUuid.toString(), userUuid, ORG);
+    }
+
+    private void recordChange(long changeId, String table, UUID roleUuid, String userUuid) {
+        jdbcTemplate.update("INSERT INTO authorization_changes (change_id, table_name, operation, role_uuid, user_uuid, "
+            + "organization_uuid) VALUES (?, ?, 'UPDATE', ?, ?, ?)", changeId, table, roleUuid.toString(), userUuid, ORG);
+    }
+}
@@ -0,0 +1,242 @@
+package com.algobrewery.auth.policy;
+
+import com.algobrewery.auth.model.Role;
+import com.algobrewery.auth.model.RoleManagementType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Compiled Policy Unit Tests")
+class CompiledPolicyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private PermissionDictionary dictionary;
+    private CompiledPolicyRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        dictionary = new PermissionDictionary();
+        registry = new CompiledPolicyRegistry(dictionary);
+    }
+
+    @Test
+    @DisplayName("Should grant actions from both data and features sections")
+    void testAllows_DataAndFeatures() throws Exception {
+        // Given
+        CompiledPolicy policy = compile("{\"data\":{\"view\":[\"task\"],\"edit\":[\"task\"]},\"features\":{\"execute\":[\"create_task\"]}}");
+
+        // Then
+        assertThat(policy.allows("view", "task")).isTrue();
+        assertThat(policy.allows("edit", "task")).isTrue();
+        assertThat(policy.allows("execute", "create_task")).isTrue();
+        assertThat(policy.allows("execute", "task")).isFalse();
+        assertThat(policy.allows("view", "create_task")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should deny unknown actions and resources")
+    void testAllows_UnknownNames() throws Exception {
+        // Given
+        CompiledPolicy policy = compile("{\"data\":{\"view\":[\"task\"]}}");
+
+        // Then
+        assertThat(policy.allows("delete", "task")).isFalse();
+        assertThat(policy.allows("view", "client")).isFalse();
+        assertThat(policy.allows(null, null)).isFalse();
+        assertThat(dictionary.actionId("delete")).isEqualTo(PermissionDictionary.UNKNOWN);
+    }
+
+    @Test
+    @DisplayName("Should grant every resource for the wildcard pattern")
+    void testAllows_Wildcard() throws Exception {
+        // Given
+        CompiledPolicy policy = compile("{\"data\":{\"view\":[\"*\"]},\"features\":{\"execute\":[\"generate_reports\"]}}");
+
+        // Then
+        assertThat(policy.allows("view", "task")).isTrue();
+        assertThat(policy.allows("view", "never_seen_before")).isTrue();
+        assertThat(policy.allows("view", "")).isTrue();
+        assertThat(policy.allows("edit", "task")).isFalse();
+        assertThat(policy.allows("execute", "backup_operations")).isFalse();
+        assertThat(policy.allows("view", null)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should grant resources matching prefix and hierarchical patterns")
+    void testAllows_PrefixPatterns() throws Exception {
+        // Given
+        CompiledPolicy policy = compile("{\"data\":{\"view\":[\"user_*\",\"task:project/*\",\"client\"]}}");
+
+        // Then
+        assertThat(policy.allows("view", "user_basic_info")).isTrue();
+        assertThat(policy.allows("view", "user_")).isTrue();
+        assertThat(policy.allows("view", "task:project/42")).isTrue();
+        assertThat(policy.allows("view", "task:project/42/comments")).isTrue();
+        assertThat(policy.allows("view", "client")).isTrue();
+        assertThat(policy.allows("view", "user")).isFalse();
+        assertThat(policy.allows("view", "task:project")).isFalse();
+        assertThat(policy.allows("view", "task:board/1")).isFalse();
+        assertThat(policy.allows(dictionary.actionId("view"), dictionary.internResource("user_profile"))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should report wildcard grants as their patterns")
+    void testCollectGrants_Patterns() throws Exception {
+        // Given
+        CompiledPolicy policy = compile("{\"data\":{\"view\":[\"user_*\",\"user_basic_*\",\"task\"]}}");
+        Map<String, Set<String>> grants = new HashMap<>();
+
+        // When
+        policy.collectGrants(grants);
+
+        // Then
+        assertThat(grants).containsOnlyKeys("view");
+        assertThat(grants.get("view")).containsExactly("task", "user_*", "user_basic_*");
+    }
+
+    @Test
+    @DisplayName("Should count the bitset probe and trie nodes visited by a check")
+    void testNodesVisited() throws Exception {
+        // Given
+        CompiledPolicy policy = compile("{\"data\":{\"view\":[\"task\",\"user_*\"]}}");
+
+        // Then
+        assertThat(policy.nodesVisited("view", "task")).isEqualTo(1);
+        assertThat(policy.nodesVisited("view", "user_profile")).isEqualTo(7);
+        assertThat(policy.nodesVisited("view", "client")).isEqualTo(2);
+        assertThat(policy.nodesVisited("delete", "task")).isZero();
+    }
+
+    @Test
+    @DisplayName("Should compile null and malformed policies to an empty policy")
+    void testCompile_MalformedPolicies() throws Exception {
+        assertThat(PolicyCompiler.compile(null, dictionary)).isSameAs(CompiledPolicy.EMPTY);
+        assertThat(compile("[]")).isSameAs(CompiledPolicy.EMPTY);
+        assertThat(compile("{\"data\":{\"view\":\"task\"}}")).isSameAs(CompiledPolicy.EMPTY);
+        assertThat(compile("{\"statements\":[{\"action\":\"view\"}]}")).isSameAs(CompiledPolicy.EMPTY);
+        assertThat(CompiledPolicy.EMPTY.allows("view", "task")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should reuse compiled policy until the role version changes")
+    void testRegistry_RecompilesOnNewVersion() throws Exception {
+        // Given
+        Role role = new Role("Test Role", "org-123", RoleManagementType.CUSTOMER_MANAGED,
+            "Test role description", objectMapper.readTree("{\"data\":{\"view\":[\"task\"]}}"), "user-123");
+        role.setRoleUuid(UUID.randomUUID());
+        role.setUpdatedAt(Instant.parse("2024-01-01T00:00:00Z"));
+
+        // When
+        CompiledPolicy first = registry.policyFor(role);
+        CompiledPolicy second = registry.policyFor(role);
+
+        role.setPolicy(objectMapper.readTree("{\"data\":{\"view\":[\"client\"]}}"));
+        role.setUpdatedAt(Instant.parse("2024-01-02T00:00:00Z"));
+        CompiledPolicy updated = registry.policyFor(role);
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(updated).isNotSameAs(first);
+        assertThat(updated.allows("view", "client")).isTrue();
+        assertThat(updated.allows("view", "task")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should share documents and compiled policies between roles with equal policies")
+    void testRegistry_InternsEqualPolicies() throws Exception {
+        // Given
+        Role first = role("{\"data\":{\"view\":[\"task\",\"client\"]}}");
+        Role copy = role("{\"data\":{\"view\":[\"task\",\"client\"]}}");
+        Role reordered = role("{\"version\":\"1.0\",\"features\":{\"view\":[\"client\"]},\"data\":{\"view\":[\"task\",\"task\"]}}");
+
+        // When
+        JsonNode firstPolicy = registry.intern(first);
+        JsonNode copyPolicy = registry.intern(copy);
+        registry.intern(reordered);
+
+        // Then
+        assertThat(copyPolicy).isSameAs(firstPolicy);
+        assertThat(copy.getPolicy()).isSameAs(first.getPolicy());
+        assertThat(reordered.getPolicy()).isNotSameAs(first.getPolicy());
+        assertThat(firstPolicy.get("data").get("view").get(0))
+            .isSameAs(reordered.getPolicy().get("data").get("view").get(0));
+        assertThat(registry.policyFor(reordered)).isSameAs(registry.policyFor(first));
+        assertThat(registry.documentCount()).isEqualTo(2);
+        assertThat(registry.compiledCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should release shared policies when the last role using them is updated or deleted")
+    void testRegistry_ReleasesUnreferencedPolicies() throws Exception {
+        // Given
+        Role first = role("{\"data\":{\"view\":[\"task\"]}}");
+        Role second = role("{\"data\":{\"view\":[\"task\"]}}");
+        registry.register(first);
+        registry.register(second);
+
+        // When
+        registry.evict(first.getRoleUuid());
+
+        // Then
+        assertThat(registry.documentCount()).isEqualTo(1);
+        assertThat(registry.policyFor(second).allows("view", "task")).isTrue();
+
+        // When
+        second.setPolicy(objectMapper.readTree("{\"data\":{\"view\":[\"client\"]}}"));
+        second.setUpdatedAt(Instant.parse("2024-01-02T00:00:00Z"));
+        registry.register(second);
+
+        // Then
+        assertThat(registry.size()).isEqualTo(1);
+        assertThat(registry.documentCount()).isEqualTo(1);
+        assertThat(registry.compiledCount()).isEqualTo(1);
+        assertThat(registry.policyFor(second).allows("view", "client")).isTrue();
+
+        // When
+        registry.evict(second.getRoleUuid());
+
+        // Then
+        assertThat(registry.documentCount()).isZero();
+        assertThat(registry.compiledCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should build one containment fragment per section and granting pattern")
+    void testGrantFragments() {
+        // When
+        ArrayNode fragments = PolicyCompiler.grantFragments("view", "task:1");
+
+        // Then
+        Set<String> patterns = new HashSet<>();
+        fragments.forEach(fragment -> patterns.add(fragment.path("data").path("view").path(0).asText()));
+        assertThat(patterns).containsExactlyInAnyOrder("task:1", "*", "t*", "ta*", "tas*", "task*", "task:*", "task:1*");
+        assertThat(fragments).hasSize(16);
+        assertThat(fragments.get(8).path("features").path("view").path(0).asText()).isEqualTo("task:1");
+    }
+
+    private Role role(String policy) throws Exception {
+        Role role = new Role("Role", "org-123", RoleManagementType.CUSTOMER_MANAGED,
+            "Test role description", objectMapper.readTree(policy), "user-123");
+        role.setRoleUuid(UUID.randomUUID());
+        role.setCreatedAt(Instant.parse("2024-01-01T00:00:00Z"));
+        return role;
+    }
+
+    private CompiledPolicy compile(String json) throws Exception {
+        JsonNode policy = objectMapper.readTree(json);
+        return PolicyCompiler.compile(policy, dictionary);
+    }
+}
@@ -0,0 +1,56 @@
+package com.algobrewery.auth.policy;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Long Key Map Unit Tests")
+class LongKeyMapTest {
+
+    @Test
+    @DisplayName("Should keep loaded entries across resizes, including the zero key")
+    void testLoad_Resizes() {
+        // Given
+        LongKeyMap<String> map = new LongKeyMap<>();
+
+        // When
+        for (long key = 0; key < 5000; key++) {
+            map.load(key << 32 | key, "v" + key);
+        }
+        map.load(0, "zero");
+
+        // Then
+        assertThat(map.size()).isEqualTo(5000);
+        assertThat(map.get(0)).isEqualTo("zero");
+        assertThat(map.get(4999L << 32 | 4999)).isEqualTo("v4999");
+        assertThat(map.get(5000L << 32 | 5000)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should overlay changes made after loading")
+    void testPutAndRemove_OverlayLoadedEntries() {
+        // Given
+        LongKeyMap<String> map = new LongKeyMap<>();
+        map.load(1, "a");
+        map.load(2, "b");
+
+        // When
+        assertThat(map.put(1, "a2")).isEqualTo("a");
+        assertThat(map.remove(2)).isEqualTo("b");
+        assertThat(map.put(3, "c")).isNull();
+        assertThat(map.remove(3)).isEqualTo("c");
+        assertThat(map.put(2, "b2")).isNull();
+        assertThat(map.remove(4)).isNull();
+
+        // Then
+        Map<Long, String> entries = new HashMap<>();
+        map.forEach(entries::put);
+        assertThat(entries).containsExactlyInAnyOrderEntriesOf(Map.of(1L, "a2", 2L, "b2"));
+        assertThat(map.size()).isEqualTo(2);
+        assertThat(map.get(3)).isNull();
+    }
+}
@@ -0,0 +1,98 @@
+package com.algobrewery.auth.repository;
+
+import com.algobrewery.auth.model.Role;
+import com.algobrewery.auth.model.RoleManagementType;
+import com.algobrewery.auth.model.UserRole;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("UserRoleRepository Integration Tests")
+class UserRoleRepositoryTest {
+
+    private static final String ORG = "org-" + UUID.randomUUID();
+    private static final String OTHER_ORG = "org-" + UUID.randomUUID();
+    private static final String USER = "user-" + UUID.randomUUID();
+
+    private final Instant assignedAt = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Autowired
+    private UserRoleRepository userRoleRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("Should return the user's roles and policies in the organization in assignment order")
+    void testFindRolePoliciesForUser_MultipleRolesInAssignmentOrder() throws Exception {
+        // Given
+        Role editor = saveRole("Editor", ORG, "{\"data\":{\"edit\":[\"task\"]}}");
+        Role viewer = saveRole("Viewer", ORG, "{\"data\":{\"view\":[\"task\"]}}");
+        Role auditor = saveRole("Auditor", OTHER_ORG, "{\"data\":{\"view\":[\"audit_log\"]}}");
+        // Saved first but assigned last
+        assign(USER, editor, ORG, 2);
+        assign(USER, viewer, ORG, 1);
+        assign(USER, auditor, OTHER_ORG, 0);
+        assign("user-" + UUID.randomUUID(), viewer, ORG, 0);
+
+        // When
+        List<RolePolicyView> roles = userRoleRepository.findRolePoliciesForUser(USER, ORG);
+
+        // Then
+        assertThat(roles).extracting(RolePolicyView::getRoleUuid)
+            .containsExactly(viewer.getRoleUuid(), editor.getRoleUuid());
+        assertThat(roles).extracting(RolePolicyView::getRoleName).containsExactly("Viewer", "Editor");
+        assertThat(roles.get(0).getPolicy()).isEqualTo(objectMapper.readTree("{\"data\":{\"view\":[\"task\"]}}"));
+        assertThat(roles.get(0).getCreatedAt()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should return no roles for a user without assignments in the organization")
+    void testFindRolePoliciesForUser_OtherOrganizationOnly() throws Exception {
+        // Given
+        Role auditor = saveRole("Auditor", OTHER_ORG, "{\"data\":{\"view\":[\"audit_log\"]}}");
+        assign(USER, auditor, OTHER_ORG, 0);
+
+        // When
+        List<RolePolicyView> roles = userRoleRepository.findRolePoliciesForUser(USER, ORG);
+
+        // Then
+        assertThat(roles).isEmpty();
+    }
+
+    private Role saveRole(String name, String organizationUuid, String policy) throws Exception {
+        return roleRepository.saveAndFlush(new Role(name, organizationUuid, RoleManagementType.CUSTOMER_MANAGED,
+            null, objectMapper.readTree(policy), "admin"));
+    }
+
+    /**
+     * Assign a role with a fixed assignment time, offset by the given number of seconds.
+     */
+    private void assign(String userUuid, Role role, String organizationUuid, int offsetSeconds) {
+        UserRole userRole = userRoleRepository.saveAndFlush(
+            new UserRole(userUuid, role.getRoleUuid(), organizationUuid, "admin"));
+        jdbcTemplate.update("UPDATE user_roles SET created_at = ? WHERE user_role_uuid = ?",
+            Timestamp.from(assignedAt.plusSeconds(offsetSeconds)), userRole.getUserRoleUuid());
+    }
+}
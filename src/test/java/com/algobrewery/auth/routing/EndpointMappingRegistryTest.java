@@ -0,0 +1,116 @@
+package com.algobrewery.auth.routing;
+
+import com.algobrewery.auth.cache.CacheInvalidator;
+import com.algobrewery.auth.model.EndpointMappingRule;
+import com.algobrewery.auth.repository.EndpointMappingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Endpoint Mapping Registry Unit Tests")
+class EndpointMappingRegistryTest {
+
+    @Mock
+    private EndpointMappingRepository endpointMappingRepository;
+
+    @Mock
+    private CacheInvalidator cacheInvalidator;
+
+    private EndpointMappingRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new EndpointMappingRegistry(new DefaultResourceLoader(), endpointMappingRepository,
+            cacheInvalidator, "classpath:endpoint-mappings.yml");
+    }
+
+    @Test
+    @DisplayName("Should merge database mappings over the routes from the mappings file")
+    void testInitialize_MergesDatabaseMappings() {
+        // Given
+        when(endpointMappingRepository.findByEnabledTrue()).thenReturn(List.of(
+            new EndpointMappingRule("GET", "/tasks/**", "view", "task_board"),
+            new EndpointMappingRule("GET,POST", "/reports/{reportId}", "view", "report")));
+
+        // When
+        registry.initialize();
+
+        // Then
+        assertThat(registry.route("GET /tasks/1")).isEqualTo(new EndpointMapping("view", "task_board"));
+        assertThat(registry.route("POST /tasks")).isEqualTo(new EndpointMapping("execute", "create_task"));
+        assertThat(registry.route("POST /reports/7")).isEqualTo(new EndpointMapping("view", "report"));
+        verify(cacheInvalidator, never()).endpointMappingsChanged();
+    }
+
+    @Test
+    @DisplayName("Should swap the router and evict endpoint decisions only when the mappings change")
+    void testRefresh_ReloadsOnChange() {
+        // Given
+        registry.initialize();
+        EndpointRouter initial = registry.getRouter();
+
+        // When
+        registry.refresh();
+
+        // Then
+        assertThat(registry.getRouter()).isSameAs(initial);
+        verify(cacheInvalidator, never()).endpointMappingsChanged();
+
+        // Given
+        when(endpointMappingRepository.findByEnabledTrue()).thenReturn(List.of(
+            new EndpointMappingRule("GET", "/reports/**", "view", "report")));
+
+        // When
+        registry.refresh();
+
+        // Then
+        assertThat(registry.getRouter()).isNotSameAs(initial);
+        assertThat(registry.route("GET /reports/7")).isEqualTo(new EndpointMapping("view", "report"));
+        verify(cacheInvalidator).endpointMappingsChanged();
+    }
+
+    @Test
+    @DisplayName("Should reload when a row's contents change without a new modification time")
+    void testRefresh_ReloadsOnContentChange() {
+        // Given
+        EndpointMappingRule rule = new EndpointMappingRule("GET", "/reports/**", "view", "report");
+        when(endpointMappingRepository.findByEnabledTrue()).thenReturn(List.of(rule));
+        registry.initialize();
+
+        // When
+        rule.setResource("audit_report");
+        registry.refresh();
+
+        // Then
+        assertThat(registry.route("GET /reports/7")).isEqualTo(new EndpointMapping("view", "audit_report"));
+        verify(cacheInvalidator).endpointMappingsChanged();
+    }
+
+    @Test
+    @DisplayName("Should keep the current router when a reload fails")
+    void testRefresh_KeepsSnapshotOnFailure() {
+        // Given
+        registry.initialize();
+        EndpointRouter initial = registry.getRouter();
+        when(endpointMappingRepository.findByEnabledTrue()).thenReturn(List.of(
+            new EndpointMappingRule("GET", "/reports/**/pages", "view", "report")));
+
+        // When
+        registry.refresh();
+
+        // Then
+        assertThat(registry.getRouter()).isSameAs(initial);
+        assertThat(registry.route("GET /tasks")).isEqualTo(new EndpointMapping("view", "task"));
+        verify(cacheInvalidator, never()).endpointMappingsChanged();
+    }
+}
@@ -0,0 +1,94 @@
+package com.algobrewery.auth.routing;
+
+import com.algobrewery.auth.cache.CacheInvalidator;
+import com.algobrewery.auth.repository.EndpointMappingRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("Endpoint Router Unit Tests")
+class EndpointRouterTest {
+
+    private final EndpointRouter router = defaultRouter();
+
+    @Test
+    @DisplayName("Should map gateway endpoints to actions and resources")
+    void testRoute_DefaultRoutes() {
+        assertThat(router.route("GET /tasks")).isEqualTo(new EndpointMapping("view", "task"));
+        assertThat(router.route("GET /tasks/123/comments")).isEqualTo(new EndpointMapping("view", "task"));
+        assertThat(router.route("POST /tasks")).isEqualTo(new EndpointMapping("execute", "create_task"));
+        assertThat(router.route("PATCH /tasks/123")).isEqualTo(new EndpointMapping("edit", "task"));
+        assertThat(router.route("DELETE /users/42")).isEqualTo(new EndpointMapping("execute", "delete_user"));
+        assertThat(router.route("put /organization")).isEqualTo(new EndpointMapping("edit", "organization"));
+        assertThat(router.route("GET /clients?page=2")).isEqualTo(new EndpointMapping("view", "client"));
+    }
+
+    @Test
+    @DisplayName("Should map the plural organization and comment paths like the singular ones")
+    void testRoute_PluralPaths() {
+        assertThat(router.route("GET /organizations")).isEqualTo(router.route("GET /organization"));
+        assertThat(router.route("PATCH /organizations/7")).isEqualTo(new EndpointMapping("edit", "organization"));
+        assertThat(router.route("GET /comments/9")).isEqualTo(router.route("GET /comment/9"));
+        assertThat(router.route("POST /comments")).isEqualTo(new EndpointMapping("execute", "create_comment"));
+        assertThat(router.route("DELETE /comments/9")).isEqualTo(new EndpointMapping("execute", "delete_comment"));
+        assertThat(router.route("GET /organizationsettings")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should return null for unknown methods, paths and malformed endpoints")
+    void testRoute_NoMatch() {
+        assertThat(router.route("GET /unknown")).isNull();
+        assertThat(router.route("PUT /tasks")).isNull();
+        assertThat(router.route("DELETE /organization")).isNull();
+        assertThat(router.route("/tasks")).isNull();
+        assertThat(router.route((String) null)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should prefer literal segments over variables and variables over deep wildcards")
+    void testRoute_Precedence() {
+        // Given
+        EndpointRouter custom = EndpointRouter.builder()
+            .route("GET", "/reports/**", "view", "report")
+            .route("GET", "/reports/{reportId}", "view", "report_detail")
+            .route("GET", "/reports/summary", "view", "report_summary")
+            .build();
+
+        // Then
+        assertThat(custom.route("GET /reports/summary").getResource()).isEqualTo("report_summary");
+        assertThat(custom.route("GET /reports/7").getResource()).isEqualTo("report_detail");
+        assertThat(custom.route("GET /reports/7/pages").getResource()).isEqualTo("report");
+        assertThat(custom.route("GET /reports").getResource()).isEqualTo("report");
+        assertThat(custom.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should share mapping instances between matches")
+    void testRoute_SharedMappings() {
+        assertThat(router.route("PUT /tasks/1")).isSameAs(router.route("PATCH /tasks/2"));
+    }
+
+    @Test
+    @DisplayName("Should reject malformed and conflicting routes")
+    void testBuilder_InvalidRoutes() {
+        assertThatThrownBy(() -> EndpointRouter.builder().route("GET", "/a/**/b", "view", "a"))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> EndpointRouter.builder()
+                .route("GET", "/a/{id}", "view", "a")
+                .route("GET", "/a/*", "view", "b"))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> EndpointRouter.builder().route("GET", "/a", "", "a"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static EndpointRouter defaultRouter() {
+        EndpointMappingRegistry registry = new EndpointMappingRegistry(new DefaultResourceLoader(),
+            mock(EndpointMappingRepository.class), mock(CacheInvalidator.class), "classpath:endpoint-mappings.yml");
+        registry.initialize();
+        return registry.getRouter();
+    }
+}
@@ -1,7 +1,10 @@
 package com.algobrewery.auth.service;
 
+import com.algobrewery.auth.dto.BatchPermissionCheckResponse;
+import com.algobrewery.auth.dto.PermissionCheckItem;
 import com.algobrewery.auth.dto.PermissionCheckRequest;
 import com.algobrewery.auth.dto.PermissionCheckResponse;
+import com.algobrewery.auth.dto.WhoCanAccessResponse;
 import com.algobrewery.auth.model.Role;
 import com.algobrewery.auth.model.RoleManagementType;
 import com.algobrewery.auth.model.UserRole;
@@ -17,6 +20,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -61,7 +65,7 @@ class PermissionServiceTest {
         );
 
         // Create test user role
-        testUserRole = new UserRole(testUserUuid, testRoleUuid, testOrganizationUuid, "admin");
+        testUserRole = new UserRole(testUserUuid, UUID.fromString(testRoleUuid), testOrganizationUuid, "admin");
 
         // Create simple test service
         permissionService = new PermissionService() {
@@ -85,6 +89,26 @@ class PermissionServiceTest {
                 return CompletableFuture.completedFuture(new PermissionCheckResponse(false));
             }
 
+            @Override
+            public CompletableFuture<BatchPermissionCheckResponse> checkPermissions(String userUuid, String organizationUuid, List<PermissionCheckItem> checks) {
+                // Simple test implementation delegating to the single check
+                List<PermissionCheckResponse> results = new ArrayList<>();
+                for (PermissionCheckItem check : checks) {
+                    PermissionCheckRequest request = new PermissionCheckRequest();
+                    request.setAction(check.getAction());
+                    request.setResource(check.getResource());
+                    results.add(checkPermission(userUuid, organizationUuid, request).join());
+                }
+                return CompletableFuture.completedFuture(new BatchPermissionCheckResponse(results));
+            }
+
+            @Override
+            public CompletableFuture<WhoCanAccessResponse> getUsersWithAccess(String organizationUuid, String action,
+                                                                              String resource, String pageToken, int pageSize) {
+                // Not exercised by these tests
+                throw new UnsupportedOperationException("Not implemented for testing");
+            }
+
             @Override
             @Deprecated
             public CompletableFuture<PermissionCheckResponse> checkPermission(PermissionCheckRequest request) {
@@ -248,7 +272,7 @@ class PermissionServiceTest {
             "admin"
         );
 
-        UserRole secondUserRole = new UserRole(testUserUuid, secondRoleUuid, testOrganizationUuid, "admin");
+        UserRole secondUserRole = new UserRole(testUserUuid, UUID.fromString(secondRoleUuid), testOrganizationUuid, "admin");
 
         PermissionCheckRequest request = new PermissionCheckRequest();
         // userUuid and organizationUuid now come from method parameters
@@ -0,0 +1,163 @@
+package com.algobrewery.auth.service;
+
+import com.algobrewery.auth.dto.BatchPermissionCheckResponse;
+import com.algobrewery.auth.dto.PermissionCheckItem;
+import com.algobrewery.auth.dto.PermissionCheckResponse;
+import com.algobrewery.auth.policy.AuthorizationModel;
+import com.algobrewery.auth.policy.CompiledPolicyRegistry;
+import com.algobrewery.auth.policy.PermissionDictionary;
+import com.algobrewery.auth.repository.RolePolicyView;
+import com.algobrewery.auth.repository.UserRoleRepository;
+import com.algobrewery.auth.routing.EndpointMapping;
+import com.algobrewery.auth.routing.EndpointMappingRegistry;
+import com.algobrewery.auth.service.impl.PermissionServiceImpl;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.task.SyncTaskExecutor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PermissionServiceImpl Unit Tests")
+class PermissionServiceUnitTest {
+
+    private static final String USER = "user-1";
+    private static final String ORG = "org-123";
+
+    @Mock
+    private UserRoleRepository userRoleRepository;
+
+    @Spy
+    private CompiledPolicyRegistry compiledPolicyRegistry = new CompiledPolicyRegistry(new PermissionDictionary());
+
+    @Mock
+    private EndpointMappingRegistry endpointMappingRegistry;
+
+    @Mock
+    private ObjectProvider<AuthorizationModel> authorizationModel;
+
+    @Spy
+    private Executor dbExecutor = new SyncTaskExecutor();
+
+    @InjectMocks
+    private PermissionServiceImpl permissionService;
+
+    private RolePolicyView viewer;
+    private RolePolicyView editor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        viewer = role("Viewer", "{\"data\":{\"view\":[\"task\"]}}");
+        editor = role("Editor", "{\"data\":{\"view\":[\"task\"],\"edit\":[\"task\"]}}");
+    }
+
+    @Test
+    @DisplayName("Should answer every check in request order from a single role lookup")
+    void testCheckPermissions_PreservesOrder() {
+        // Given
+        when(userRoleRepository.findRolePoliciesForUser(USER, ORG)).thenReturn(List.of(viewer, editor));
+        List<PermissionCheckItem> checks = List.of(
+            new PermissionCheckItem("edit", "task", null, null),
+            new PermissionCheckItem("delete", "user", null, null),
+            new PermissionCheckItem("view", "task", null, "task-1"));
+
+        // When
+        BatchPermissionCheckResponse response = permissionService.checkPermissions(USER, ORG, checks).join();
+
+        // Then
+        assertThat(response.getResults()).extracting(PermissionCheckResponse::isHasPermission)
+            .containsExactly(true, false, true);
+        assertThat(response.getResults()).extracting(PermissionCheckResponse::getRoleName)
+            .containsExactly("Editor", null, "Viewer");
+        verify(userRoleRepository, times(1)).findRolePoliciesForUser(USER, ORG);
+        verifyNoMoreInteractions(userRoleRepository);
+    }
+
+    @Test
+    @DisplayName("Should resolve endpoints and deny unknown endpoints in place")
+    void testCheckPermissions_ResolvesEndpoints() {
+        // Given
+        when(userRoleRepository.findRolePoliciesForUser(USER, ORG)).thenReturn(List.of(viewer));
+        when(endpointMappingRegistry.route("GET /tasks/1")).thenReturn(new EndpointMapping("view", "task"));
+        when(endpointMappingRegistry.route("GET /unknown")).thenReturn(null);
+        List<PermissionCheckItem> checks = List.of(
+            new PermissionCheckItem(null, null, "GET /unknown", null),
+            new PermissionCheckItem(null, null, "GET /tasks/1", null),
+            new PermissionCheckItem("edit", "task", null, null));
+
+        // When
+        BatchPermissionCheckResponse response = permissionService.checkPermissions(USER, ORG, checks).join();
+
+        // Then
+        assertThat(response.getResults()).extracting(PermissionCheckResponse::isHasPermission)
+            .containsExactly(false, true, false);
+        assertThat(response.getResults().get(1).getRoleUuid()).isEqualTo(viewer.getRoleUuid().toString());
+        verify(userRoleRepository, times(1)).findRolePoliciesForUser(USER, ORG);
+    }
+
+    @Test
+    @DisplayName("Should fail without a database lookup when a check has neither an endpoint nor an action and resource")
+    void testCheckPermissions_InvalidCheck() {
+        // Given
+        List<PermissionCheckItem> checks = List.of(
+            new PermissionCheckItem("view", "task", null, null),
+            new PermissionCheckItem("view", " ", null, null));
+
+        // When / Then
+        assertThatThrownBy(() -> permissionService.checkPermissions(USER, ORG, checks).join())
+            .isInstanceOf(CompletionException.class)
+            .hasCauseInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(userRoleRepository, endpointMappingRegistry);
+        verify(dbExecutor, never()).execute(any(Runnable.class));
+    }
+
+    private static RolePolicyView role(String name, String policy) throws Exception {
+        UUID roleUuid = UUID.randomUUID();
+        JsonNode document = new ObjectMapper().readTree(policy);
+        Instant createdAt = Instant.now();
+        return new RolePolicyView() {
+            @Override
+            public UUID getRoleUuid() {
+                return roleUuid;
+            }
+
+            @Override
+            public String getRoleName() {
+                return name;
+            }
+
+            @Override
+            public JsonNode getPolicy() {
+                return document;
+            }
+
+            @Override
+            public Instant getCreatedAt() {
+                return createdAt;
+            }
+
+            @Override
+            public Instant getUpdatedAt() {
+                return null;
+            }
+        };
+    }
+}
@@ -1,11 +1,17 @@
 package com.algobrewery.auth.service;
 
+import com.algobrewery.auth.cache.CacheInvalidator;
+import com.algobrewery.auth.dto.PageResponse;
 import com.algobrewery.auth.dto.RoleRequest;
 import com.algobrewery.auth.dto.RoleResponse;
 import com.algobrewery.auth.model.Role;
 import com.algobrewery.auth.model.RoleManagementType;
+import com.algobrewery.auth.policy.CompiledPolicyRegistry;
+import com.algobrewery.auth.policy.PermissionDictionary;
+import com.algobrewery.auth.policy.PolicyCompiler;
 import com.algobrewery.auth.repository.RoleRepository;
 import com.algobrewery.auth.service.impl.RoleServiceImpl;
+import com.algobrewery.auth.util.PageTokenUtil;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,13 +20,19 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.Executor;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -37,6 +49,18 @@ class RoleServiceUnitTest {
     @Mock
     private ObjectMapper objectMapper;
 
+    @Mock
+    private CompiledPolicyRegistry compiledPolicyRegistry;
+
+    @Mock
+    private CacheInvalidator cacheInvalidator;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Spy
+    private Executor dbExecutor = new SyncTaskExecutor();
+
     @InjectMocks
     private RoleServiceImpl roleService;
 
@@ -284,6 +308,27 @@ class RoleServiceUnitTest {
         verify(roleRepository).findByOrganizationUuid("org-123");
     }
 
+    @Test
+    @DisplayName("Should query roles by grant fragments and confirm them against the compiled policy")
+    void testGetRolesByOrganizationGranting() throws Exception {
+        // Given
+        Role wildcardRole = new Role("Wildcard Role", "org-123", RoleManagementType.CUSTOMER_MANAGED,
+            "Wildcard role", new ObjectMapper().readTree("{\"data\":{\"view\":[\"task*\"]}}"), "user-123");
+        wildcardRole.setRoleUuid(UUID.randomUUID());
+        CompiledPolicyRegistry registry = new CompiledPolicyRegistry(new PermissionDictionary());
+        when(roleRepository.findByOrganizationUuidAndPolicyContainingAny(eq("org-123"), anyString()))
+            .thenReturn(List.of(mockRole, wildcardRole));
+        when(compiledPolicyRegistry.policyFor(any(Role.class))).thenAnswer(i -> registry.policyFor((Role) i.getArgument(0)));
+
+        // When
+        List<RoleResponse> responses = roleService.getRolesByOrganizationGranting("org-123", "edit", "task").join();
+
+        // Then
+        assertThat(responses).extracting(RoleResponse::getRoleUuid).containsExactly(roleUuid);
+        verify(roleRepository).findByOrganizationUuidAndPolicyContainingAny("org-123",
+            PolicyCompiler.grantFragments("edit", "task").toString());
+    }
+
     @Test
     @DisplayName("Should get system-managed roles successfully")
     void testGetSystemManagedRoles_Success() {
@@ -347,4 +392,53 @@ class RoleServiceUnitTest {
 
         verify(roleRepository).findByRoleNameAndOrganizationUuid("NonExistent", "org-123");
     }
+
+    @Test
+    @DisplayName("Should return a next page token pointing at the last role of a full page")
+    void testGetRolesByOrganizationPage_FullPage() {
+        // Given
+        Role nextRole = new Role("Next Role", "org-123", RoleManagementType.CUSTOMER_MANAGED, null, mockPolicy, "user-123");
+        nextRole.setRoleUuid(UUID.randomUUID());
+        nextRole.setCreatedAt(mockRole.getCreatedAt().plusSeconds(1));
+        when(roleRepository.findByOrganizationUuidOrderByCreatedAtAscRoleUuidAsc(eq("org-123"), any(Pageable.class)))
+            .thenReturn(List.of(mockRole, nextRole));
+
+        // When
+        PageResponse<RoleResponse> page = roleService.getRolesByOrganizationPage("org-123", null, 1).join();
+
+        // Then
+        assertThat(page.getItems()).extracting(RoleResponse::getRoleUuid).containsExactly(roleUuid);
+        PageTokenUtil.Cursor cursor = PageTokenUtil.decode(page.getNextPageToken());
+        assertThat(cursor.getCreatedAt()).isEqualTo(mockRole.getCreatedAt());
+        assertThat(cursor.getUuid()).isEqualTo(roleUuid);
+        verify(roleRepository).findByOrganizationUuidOrderByCreatedAtAscRoleUuidAsc("org-123",
+            PageRequest.of(0, 2));
+    }
+
+    @Test
+    @DisplayName("Should continue after the page token and omit the token on the last page")
+    void testGetRolesByOrganizationPage_LastPage() {
+        // Given
+        Instant createdAt = Instant.parse("2024-01-01T00:00:00Z");
+        UUID after = UUID.randomUUID();
+        when(roleRepository.findByOrganizationUuidAfter(eq("org-123"), eq(createdAt), eq(after), any(Pageable.class)))
+            .thenReturn(List.of(mockRole));
+
+        // When
+        PageResponse<RoleResponse> page = roleService.getRolesByOrganizationPage("org-123",
+            PageTokenUtil.encode(createdAt, after), 10).join();
+
+        // Then
+        assertThat(page.getItems()).hasSize(1);
+        assertThat(page.getNextPageToken()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should reject a malformed page token")
+    void testGetRolesByOrganizationPage_InvalidToken() {
+        // When & Then
+        assertThatThrownBy(() -> roleService.getRolesByOrganizationPage("org-123", "not a token", 10).join())
+            .hasCauseInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(roleRepository);
+    }
 }
@@ -1,5 +1,9 @@
 package com.algobrewery.auth.service;
 
+import com.algobrewery.auth.dto.BulkRoleAssignmentResponse;
+import com.algobrewery.auth.dto.EffectivePermissionsResponse;
+import com.algobrewery.auth.dto.PageResponse;
+import com.algobrewery.auth.dto.RoleAssignmentItem;
 import com.algobrewery.auth.dto.UserRoleAssignmentResponse;
 import com.algobrewery.auth.model.Role;
 import com.algobrewery.auth.model.RoleManagementType;
@@ -19,6 +23,7 @@ import org.springframework.context.annotation.Primary;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.OutputStream;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
@@ -70,7 +75,8 @@ class UserRoleServiceIntegrationTest {
         private UserRoleAssignmentResponse assignRoleToUserSync(String userUuid, String roleUuid, 
                                                              String organizationUuid, String assignerUuid) {
             // Copy the logic from the real service but run synchronously
-            java.util.Optional<Role> roleOpt = roleRepository.findByRoleUuid(UUID.fromString(roleUuid));
+            UUID roleId = UUID.fromString(roleUuid);
+            java.util.Optional<Role> roleOpt = roleRepository.findByRoleUuid(roleId);
             if (roleOpt.isEmpty()) {
                 throw new IllegalArgumentException("Role not found: " + roleUuid);
             }
@@ -84,12 +90,12 @@ class UserRoleServiceIntegrationTest {
             }
 
             // Check if assignment already exists
-            if (userRoleRepository.existsByUserUuidAndRoleUuidAndOrganizationUuid(userUuid, roleUuid, organizationUuid)) {
+            if (userRoleRepository.existsByUserUuidAndRoleUuidAndOrganizationUuid(userUuid, roleId, organizationUuid)) {
                 throw new IllegalArgumentException("Role is already assigned to user in this organization");
             }
 
             // Create user role assignment
-            com.algobrewery.auth.model.UserRole userRole = new com.algobrewery.auth.model.UserRole(userUuid, roleUuid, organizationUuid, assignerUuid);
+            com.algobrewery.auth.model.UserRole userRole = new com.algobrewery.auth.model.UserRole(userUuid, roleId, organizationUuid, assignerUuid);
             com.algobrewery.auth.model.UserRole savedUserRole = userRoleRepository.save(userRole);
 
             return mapToResponse(savedUserRole);
@@ -99,7 +105,7 @@ class UserRoleServiceIntegrationTest {
             return new UserRoleAssignmentResponse(
                 userRole.getUserRoleUuid(),
                 userRole.getUserUuid(),
-                userRole.getRoleUuid(),
+                userRole.getRoleUuid().toString(),
                 userRole.getOrganizationUuid(),
                 userRole.getCreatedAt()
             );
@@ -120,10 +126,11 @@ class UserRoleServiceIntegrationTest {
         }
 
         private void removeRoleFromUserSync(String userUuid, String roleUuid, String organizationUuid) {
-            if (!userRoleRepository.existsByUserUuidAndRoleUuidAndOrganizationUuid(userUuid, roleUuid, organizationUuid)) {
+            UUID roleId = UUID.fromString(roleUuid);
+            if (!userRoleRepository.existsByUserUuidAndRoleUuidAndOrganizationUuid(userUuid, roleId, organizationUuid)) {
                 throw new IllegalArgumentException("Role assignment not found");
             }
-            userRoleRepository.deleteByUserUuidAndRoleUuidAndOrganizationUuid(userUuid, roleUuid, organizationUuid);
+            userRoleRepository.deleteByUserUuidAndRoleUuidAndOrganizationUuid(userUuid, roleId, organizationUuid);
         }
 
         @Override
@@ -137,7 +144,8 @@ class UserRoleServiceIntegrationTest {
 
         @Override
         public CompletableFuture<Boolean> userHasRole(String userUuid, String roleUuid, String organizationUuid) {
-            boolean hasRole = userRoleRepository.existsByUserUuidAndRoleUuidAndOrganizationUuid(userUuid, roleUuid, organizationUuid);
+            boolean hasRole = userRoleRepository.existsByUserUuidAndRoleUuidAndOrganizationUuid(userUuid,
+                UUID.fromString(roleUuid), organizationUuid);
             return CompletableFuture.completedFuture(hasRole);
         }
 
@@ -161,6 +169,32 @@ class UserRoleServiceIntegrationTest {
             // Simplified implementation for testing
             return getUserRoles(userUuid, organizationUuid);
         }
+
+        @Override
+        public CompletableFuture<BulkRoleAssignmentResponse> assignRolesToUsers(List<RoleAssignmentItem> assignments,
+                                                                                String organizationUuid, String assignerUuid) {
+            // Not exercised by these tests
+            throw new UnsupportedOperationException("Not implemented for testing");
+        }
+
+        @Override
+        public CompletableFuture<PageResponse<UserRoleAssignmentResponse>> getUserRolesByOrganizationPage(
+                String organizationUuid, String pageToken, int pageSize) {
+            // Not exercised by these tests
+            throw new UnsupportedOperationException("Not implemented for testing");
+        }
+
+        @Override
+        public void exportUserRolesByOrganization(String organizationUuid, OutputStream outputStream) {
+            // Not exercised by these tests
+            throw new UnsupportedOperationException("Not implemented for testing");
+        }
+
+        @Override
+        public CompletableFuture<EffectivePermissionsResponse> getEffectivePermissions(String userUuid, String organizationUuid) {
+            // Not exercised by these tests
+            throw new UnsupportedOperationException("Not implemented for testing");
+        }
     }
 
     @Autowired
@@ -0,0 +1,207 @@
+package com.algobrewery.auth.service;
+
+import com.algobrewery.auth.cache.CacheInvalidator;
+import com.algobrewery.auth.dto.BulkRoleAssignmentResponse;
+import com.algobrewery.auth.dto.RoleAssignmentItem;
+import com.algobrewery.auth.dto.RoleAssignmentResult;
+import com.algobrewery.auth.model.Role;
+import com.algobrewery.auth.model.RoleManagementType;
+import com.algobrewery.auth.policy.CompiledPolicyRegistry;
+import com.algobrewery.auth.repository.RoleRepository;
+import com.algobrewery.auth.repository.UserRoleRepository;
+import com.algobrewery.auth.service.impl.UserRoleServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserRoleService Unit Tests")
+class UserRoleServiceUnitTest {
+
+    private static final String ORG = "org-123";
+
+    @Mock
+    private UserRoleRepository userRoleRepository;
+
+    @Mock
+    private RoleRepository roleRepository;
+
+    @Mock
+    private CompiledPolicyRegistry compiledPolicyRegistry;
+
+    @Mock
+    private CacheInvalidator cacheInvalidator;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private Executor dbExecutor = new SyncTaskExecutor();
+
+    @InjectMocks
+    private UserRoleServiceImpl userRoleService;
+
+    private Role organizationRole;
+    private Role foreignRole;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userRoleService, "batchSize", 100);
+        organizationRole = role(ORG);
+        foreignRole = role("org-456");
+    }
+
+    @Test
+    @DisplayName("Should report a result per assignment and invalidate once for the assigned users")
+    void testAssignRolesToUsers_MixedResults() {
+        // Given
+        String orgRole = organizationRole.getRoleUuid().toString();
+        String missingRole = UUID.randomUUID().toString();
+        List<RoleAssignmentItem> assignments = List.of(
+            new RoleAssignmentItem("user-1", orgRole),
+            new RoleAssignmentItem("user-2", orgRole),
+            new RoleAssignmentItem("user-1", orgRole),
+            new RoleAssignmentItem("user-3", foreignRole.getRoleUuid().toString()),
+            new RoleAssignmentItem("user-4", missingRole),
+            new RoleAssignmentItem("user-5", "not-a-uuid"));
+        when(roleRepository.findAllById(anyIterable())).thenReturn(List.of(organizationRole, foreignRole));
+        // user-2 already holds the role, so the database skips that row
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), eq(100), any(ParameterizedPreparedStatementSetter.class)))
+            .thenReturn(new int[][] {{1, 0}});
+
+        // When
+        BulkRoleAssignmentResponse response = userRoleService.assignRolesToUsers(assignments, ORG, "admin-1").join();
+
+        // Then
+        assertThat(response.getResults()).extracting(RoleAssignmentResult::getStatus).containsExactly(
+            RoleAssignmentResult.ASSIGNED,
+            RoleAssignmentResult.ALREADY_ASSIGNED,
+            RoleAssignmentResult.ALREADY_ASSIGNED,
+            RoleAssignmentResult.ROLE_NOT_IN_ORGANIZATION,
+            RoleAssignmentResult.ROLE_NOT_FOUND,
+            RoleAssignmentResult.ROLE_NOT_FOUND);
+        assertThat(response.getResults().get(0).getUserRoleUuid()).isNotNull();
+        assertThat(response.getResults().get(1).getUserRoleUuid()).isNull();
+        assertThat(response.getAssigned()).isEqualTo(1);
+        assertThat(response.getAlreadyAssigned()).isEqualTo(2);
+        assertThat(response.getRejected()).isEqualTo(3);
+        verify(roleRepository, times(1)).findAllById(anyIterable());
+        verify(transactionManager, times(1)).commit(any());
+        verify(cacheInvalidator, times(1)).usersRolesChanged(Set.of("user-1"), ORG);
+        verifyNoMoreInteractions(cacheInvalidator);
+    }
+
+    @Test
+    @DisplayName("Should not write or invalidate when no assignment is valid")
+    void testAssignRolesToUsers_NothingToInsert() {
+        // Given
+        List<RoleAssignmentItem> assignments = List.of(
+            new RoleAssignmentItem("user-1", foreignRole.getRoleUuid().toString()));
+        when(roleRepository.findAllById(anyIterable())).thenReturn(List.of(foreignRole));
+
+        // When
+        BulkRoleAssignmentResponse response = userRoleService.assignRolesToUsers(assignments, ORG, "admin-1").join();
+
+        // Then
+        assertThat(response.getRejected()).isEqualTo(1);
+        verifyNoInteractions(jdbcTemplate, cacheInvalidator);
+    }
+
+    @Test
+    @DisplayName("Should roll back every batch and not invalidate when a batch fails")
+    void testAssignRolesToUsers_BatchFailureRollsBack() {
+        // Given
+        List<RoleAssignmentItem> assignments = List.of(
+            new RoleAssignmentItem("user-1", organizationRole.getRoleUuid().toString()));
+        when(roleRepository.findAllById(anyIterable())).thenReturn(List.of(organizationRole));
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), eq(100), any(ParameterizedPreparedStatementSetter.class)))
+            .thenThrow(new DataIntegrityViolationException("batch failed"));
+
+        // When / Then
+        assertThatThrownBy(() -> userRoleService.assignRolesToUsers(assignments, ORG, "admin-1").join())
+            .isInstanceOf(CompletionException.class)
+            .hasCauseInstanceOf(DataIntegrityViolationException.class);
+        verify(transactionManager, times(1)).rollback(any());
+        verify(transactionManager, never()).commit(any());
+        verifyNoInteractions(cacheInvalidator);
+    }
+
+    @Test
+    @DisplayName("Should invalidate a removed assignment only after the transaction commits")
+    void testRemoveRoleFromUser_InvalidatesAfterCommit() {
+        // Given
+        UUID roleUuid = organizationRole.getRoleUuid();
+        when(userRoleRepository.existsByUserUuidAndRoleUuidAndOrganizationUuid("user-1", roleUuid, ORG)).thenReturn(true);
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            // When
+            userRoleService.removeRoleFromUser("user-1", roleUuid.toString(), ORG).join();
+
+            // Then
+            verify(userRoleRepository).deleteByUserUuidAndRoleUuidAndOrganizationUuid("user-1", roleUuid, ORG);
+            verify(dbExecutor, times(1)).execute(any(Runnable.class));
+            verify(transactionManager, times(1)).commit(any());
+            verifyNoInteractions(cacheInvalidator);
+
+            // When
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+            // Then
+            verify(cacheInvalidator).userRolesChanged("user-1", ORG);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should roll back and not invalidate when the assignment to remove does not exist")
+    void testRemoveRoleFromUser_NotFound() {
+        // Given
+        UUID roleUuid = organizationRole.getRoleUuid();
+        when(userRoleRepository.existsByUserUuidAndRoleUuidAndOrganizationUuid("user-1", roleUuid, ORG)).thenReturn(false);
+
+        // When / Then
+        assertThatThrownBy(() -> userRoleService.removeRoleFromUser("user-1", roleUuid.toString(), ORG).join())
+            .isInstanceOf(CompletionException.class)
+            .hasCauseInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Role assignment not found");
+        verify(userRoleRepository, never()).deleteByUserUuidAndRoleUuidAndOrganizationUuid(any(), any(), any());
+        verify(transactionManager, times(1)).rollback(any());
+        verifyNoInteractions(cacheInvalidator);
+    }
+
+    private static Role role(String organizationUuid) {
+        Role role = new Role("Role " + organizationUuid, organizationUuid, RoleManagementType.CUSTOMER_MANAGED,
+            null, null, "admin");
+        role.setRoleUuid(UUID.randomUUID());
+        return role;
+    }
+}